@@ -0,0 +1,85 @@
+package com.example.trainingspringproject.benchmarks.jmh;
+
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemResponseDto;
+import com.example.trainingspringproject.models.dtos.ProductDto;
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.entities.Partner;
+import com.example.trainingspringproject.models.entities.Producer;
+import com.example.trainingspringproject.models.entities.Product;
+import com.example.trainingspringproject.models.entities.ProductGroup;
+import com.example.trainingspringproject.models.entities.Worker;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.models.projections.InvoiceItem;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+//накладные по 500 строк, как крупные отгрузки в рабочей базе, и товары со справочниками
+final class BenchmarkData {
+    static final int LINES = 500;
+    static final LocalDate DATE = LocalDate.of(2022, 9, 15);
+
+    static final ProductGroup GROUP = new ProductGroup(1L, "Бытовая химия");
+    static final Producer PRODUCER = new Producer(1L, "ООО Производитель", "г. Москва, ул. Заводская, д. 1");
+    static final Partner PARTNER = new Partner(1L, "ООО Покупатель", "г. Казань, ул. Складская, д. 7",
+            "buyer@mail.ru", "ОГРН: 1027700132195, ИНН: 7707083893");
+    static final Worker WORKER = new Worker(1L, "Иванов Иван Иванович", "Кладовщик");
+
+    private BenchmarkData() {
+    }
+
+    static Invoice invoice() {
+        return new Invoice(1L, PARTNER, WORKER, TransactionType.OUTCOME, DATE);
+    }
+
+    static InvoiceRequestDto invoiceRequest() {
+        List<ItemRequestDto> items = new ArrayList<>(LINES);
+        for (int i = 1; i <= LINES; i++)
+            items.add(new ItemRequestDto((long) i, 1 + i % 40));
+        return new InvoiceRequestDto(PARTNER.getId(), WORKER.getId(), TransactionType.OUTCOME, items);
+    }
+
+    static InvoiceResponseDto invoiceResponse() {
+        List<ItemResponseDto> items = new ArrayList<>(LINES);
+        for (InvoiceItem item : invoiceItems())
+            items.add(new ItemResponseDto(item.getId(), item.getProductId(), item.getQuantity(), item.getPrice()));
+        return new InvoiceResponseDto(1L, PARTNER.getName(), WORKER.getName(), TransactionType.OUTCOME, DATE, items);
+    }
+
+    static List<InvoiceItem> invoiceItems() {
+        List<InvoiceItem> items = new ArrayList<>(LINES);
+        for (int i = 1; i <= LINES; i++)
+            items.add(new Line(1L, 1_000_000L + i, (long) i, 1 + i % 40, 10.0 + i % 250 * 1.37));
+        return items;
+    }
+
+    static List<Product> products() {
+        List<Product> products = new ArrayList<>(LINES);
+        for (int i = 1; i <= LINES; i++)
+            products.add(new Product((long) i, GROUP, PRODUCER, "Товар " + i, "Описание товара " + i,
+                    100 + i, 10.0 + i % 250, 15.0 + i % 250, 100 + i, null, 1L));
+        return products;
+    }
+
+    static List<ProductDto> productDtos() {
+        List<ProductDto> products = new ArrayList<>(LINES);
+        for (int i = 1; i <= LINES; i++)
+            products.add(new ProductDto((long) i, "Товар " + i, "Описание товара " + i, GROUP.getName(),
+                    PRODUCER.getName(), 100 + i, 10.0 + i % 250, 15.0 + i % 250));
+        return products;
+    }
+
+    @Value
+    private static class Line implements InvoiceItem {
+        Long invoiceId;
+        Long id;
+        Long productId;
+        Integer quantity;
+        Double price;
+    }
+}
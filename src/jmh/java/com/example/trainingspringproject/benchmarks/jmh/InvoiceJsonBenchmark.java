@@ -0,0 +1,69 @@
+package com.example.trainingspringproject.benchmarks.jmh;
+
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//JSON накладной на 500 строк в обе стороны с настройками Jackson, как у Spring Boot
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceJsonBenchmark {
+    private ObjectWriter responseWriter;
+    private ObjectReader responseReader;
+    private ObjectReader requestReader;
+
+    private InvoiceResponseDto response;
+    private byte[] responseJson;
+    private byte[] requestJson;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        responseWriter = objectMapper.writerFor(InvoiceResponseDto.class);
+        responseReader = objectMapper.readerFor(InvoiceResponseDto.class);
+        requestReader = objectMapper.readerFor(InvoiceRequestDto.class);
+
+        response = BenchmarkData.invoiceResponse();
+        responseJson = responseWriter.writeValueAsBytes(response);
+        requestJson = objectMapper.writeValueAsBytes(BenchmarkData.invoiceRequest());
+    }
+
+    @Benchmark
+    public byte[] encodeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public InvoiceResponseDto decodeResponse() throws IOException {
+        return responseReader.readValue(responseJson);
+    }
+
+    //тело POST /api/invoice/create
+    @Benchmark
+    public InvoiceRequestDto decodeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+}
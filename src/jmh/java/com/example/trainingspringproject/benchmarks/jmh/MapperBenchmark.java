@@ -0,0 +1,134 @@
+package com.example.trainingspringproject.benchmarks.jmh;
+
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.dtos.ItemResponseDto;
+import com.example.trainingspringproject.models.dtos.ProductDto;
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.entities.Item;
+import com.example.trainingspringproject.models.entities.Partner;
+import com.example.trainingspringproject.models.entities.Producer;
+import com.example.trainingspringproject.models.entities.Product;
+import com.example.trainingspringproject.models.entities.ProductGroup;
+import com.example.trainingspringproject.models.entities.Worker;
+import com.example.trainingspringproject.models.mappers.InvoiceMapper;
+import com.example.trainingspringproject.models.mappers.InvoiceMapperImpl;
+import com.example.trainingspringproject.models.mappers.ItemMapper;
+import com.example.trainingspringproject.models.mappers.ItemMapperImpl;
+import com.example.trainingspringproject.models.mappers.ProductMapper;
+import com.example.trainingspringproject.models.mappers.ProductMapperImpl;
+import com.example.trainingspringproject.models.projections.InvoiceItem;
+import com.example.trainingspringproject.repositories.ItemRepository;
+import com.example.trainingspringproject.repositories.ReferenceCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+//мапперы без базы: справочники и строки накладной отдают заглушки, меряется только сборка объектов
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private ProductMapper productMapper;
+    private ItemMapper itemMapper;
+    private InvoiceMapper invoiceMapper;
+
+    private List<Product> products;
+    private List<ProductDto> productDtos;
+    private List<Item> items;
+    private Invoice invoice;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        ReferenceCache referenceCache = new ReferenceCache(null, null, null, null) {
+            @Override
+            public Optional<ProductGroup> findProductGroupByName(String name) {
+                return Optional.of(BenchmarkData.GROUP);
+            }
+
+            @Override
+            public Optional<Producer> findProducerByName(String name) {
+                return Optional.of(BenchmarkData.PRODUCER);
+            }
+
+            @Override
+            public Optional<Worker> findWorkerById(Long id) {
+                return Optional.of(BenchmarkData.WORKER);
+            }
+
+            @Override
+            public Optional<Partner> findPartnerById(Long id) {
+                return Optional.of(BenchmarkData.PARTNER);
+            }
+        };
+        //из репозитория строк InvoiceMapper вызывает только findAllItemsByInvoiceIdIn
+        List<InvoiceItem> lines = BenchmarkData.invoiceItems();
+        ItemRepository itemRepository = (ItemRepository) Proxy.newProxyInstance(ItemRepository.class.getClassLoader(),
+                new Class<?>[]{ItemRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAllItemsByInvoiceIdIn"))
+                        return lines;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        productMapper = new ProductMapperImpl();
+        inject(productMapper, ProductMapper.class, "referenceCache", referenceCache);
+        itemMapper = new ItemMapperImpl();
+        invoiceMapper = new InvoiceMapperImpl();
+        inject(invoiceMapper, InvoiceMapper.class, "referenceCache", referenceCache);
+        inject(invoiceMapper, InvoiceMapper.class, "itemRepository", itemRepository);
+        inject(invoiceMapper, InvoiceMapper.class, "itemMapper", itemMapper);
+
+        products = BenchmarkData.products();
+        productDtos = BenchmarkData.productDtos();
+        invoice = BenchmarkData.invoice();
+        items = new ArrayList<>();
+        for (InvoiceItem line : lines)
+            items.add(new Item(line.getId(), invoice, invoice.getDate(), products.get(items.size()),
+                    line.getQuantity(), line.getPrice()));
+    }
+
+    @Benchmark
+    public List<ProductDto> productEntitiesToDtos() {
+        return productMapper.entityToDto(products);
+    }
+
+    @Benchmark
+    public List<Product> productDtosToEntities() {
+        return productMapper.dtoToEntity(productDtos);
+    }
+
+    @Benchmark
+    public List<ItemResponseDto> itemEntitiesToDtos() {
+        return itemMapper.entityToDto(items);
+    }
+
+    //заголовок и 500 строк из проекций, как при чтении /api/invoice/find-by-id мимо кэша
+    @Benchmark
+    public InvoiceResponseDto invoiceEntityToDto() {
+        return invoiceMapper.entityToDto(invoice);
+    }
+
+    //поля @Autowired объявлены в абстрактных мапперах, сгенерированный класс может завести свои с тем же именем
+    private static void inject(Object target, Class<?> declaringClass, String name, Object value)
+            throws ReflectiveOperationException {
+        Field field = declaringClass.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
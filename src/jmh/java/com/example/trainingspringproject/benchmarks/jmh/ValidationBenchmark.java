@@ -0,0 +1,79 @@
+package com.example.trainingspringproject.benchmarks.jmh;
+
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//стоимость одной проверки Bean Validation; ошибочный DTO дороже из-за сборки сообщений
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    private ValidatorFactory factory;
+    private Validator validator;
+
+    private ProductDto product;
+    private ProductDto invalidProduct;
+    private InvoiceRequestDto invoice;
+
+    @Setup
+    public void setup() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        product = BenchmarkData.productDtos().get(0);
+        invalidProduct = new ProductDto(null, " ", null, "", null, -1, 0.0, null);
+        invoice = BenchmarkData.invoiceRequest();
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductDto>> validProduct() {
+        return validator.validate(product);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductDto>> invalidProduct() {
+        return validator.validate(invalidProduct);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<InvoiceRequestDto>> invoiceHeader() {
+        return validator.validate(invoice);
+    }
+
+    //строки проверяются отдельно, когда ProductService принимает @Valid List<ItemRequestDto>
+    @Benchmark
+    public void invoiceWithLines(Blackhole blackhole) {
+        blackhole.consume(validator.validate(invoice));
+        List<ItemRequestDto> items = invoice.getItems();
+        for (ItemRequestDto item : items)
+            blackhole.consume(validator.validate(item));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.trainingspringproject.config;
+
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCT_GROUPS_BY_NAME = "productGroupsByName";
+    public static final String PRODUCERS_BY_NAME = "producersByName";
+    public static final String WORKERS_BY_ID = "workersById";
+    public static final String PARTNERS_BY_ID = "partnersById";
+    public static final String INVOICES_BY_ID = "invoicesById";
+    public static final String STOCK_SNAPSHOT = "stockSnapshot";
+
+    //регионы второго уровня Hibernate
+    public static final String PRODUCT_GROUP_REGION = "catalog.productGroup";
+    public static final String PRODUCER_REGION = "catalog.producer";
+    public static final String WORKER_REGION = "catalog.worker";
+    public static final String PARTNER_REGION = "catalog.partner";
+    public static final String LOOKUP_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    @Bean
+    public CacheManager cacheManager(WarehouseProperties properties) {
+        WarehouseProperties.Cache cache = properties.getCache();
+        //справочники для мапперов: готовый объект по имени или id без проверки меток query cache и сборки сущности.
+        //второй уровень Hibernate (hibernateCacheManager) обслуживает загрузку сущностей и ленивые связи
+        CaffeineCacheManager manager = new CaffeineCacheManager(
+                PRODUCT_GROUPS_BY_NAME, PRODUCERS_BY_NAME, WORKERS_BY_ID, PARTNERS_BY_ID);
+        manager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(cache.getMaximumSize())
+                .expireAfterWrite(cache.getTtl())
+                .recordStats());
+        //накладные сильно различаются по числу строк, поэтому ограничение по весу, а не по количеству
+        manager.registerCustomCache(INVOICES_BY_ID, Caffeine.newBuilder()
+                .maximumWeight(cache.getInvoicesMaximumWeight().toBytes())
+                .weigher(CacheConfig::invoiceWeight)
+                .recordStats()
+                .build());
+        //остатки для проверки корзины; при нулевом сроке кэша нет и остаток всегда читается из базы
+        WarehouseProperties.Availability availability = properties.getAvailability();
+        if (!availability.getSnapshotTtl().isZero())
+            manager.registerCustomCache(STOCK_SNAPSHOT, Caffeine.newBuilder()
+                    .maximumSize(availability.getSnapshotMaximumSize())
+                    .expireAfterWrite(availability.getSnapshotTtl())
+                    .recordStats()
+                    .build());
+        //сброс кэша откладывается до коммита, иначе параллельный запрос успеет положить туда старую запись
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+
+    //кэш второго уровня в отдельном JCache-менеджере: Hibernate сам следит за его согласованностью
+    //и не должен делить регионы с кэшами Spring
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager hibernateCacheManager(WarehouseProperties properties,
+                                                          ObjectProvider<MeterRegistry> meterRegistry) {
+        WarehouseProperties.Cache cache = properties.getCache();
+        //у каждого контекста свой менеджер: тесты поднимают несколько контекстов в одной JVM
+        javax.cache.CacheManager manager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("warehouse:hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+        manager.createCache(PRODUCT_GROUP_REGION, regionConfiguration(cache.getProductGroupRegion()));
+        manager.createCache(PRODUCER_REGION, regionConfiguration(cache.getProducerRegion()));
+        manager.createCache(WORKER_REGION, regionConfiguration(cache.getWorkerRegion()));
+        manager.createCache(PARTNER_REGION, regionConfiguration(cache.getPartnerRegion()));
+        manager.createCache(LOOKUP_REGION, regionConfiguration(cache.getLookupRegion()));
+        //по записи на таблицу; вытесненная метка сделала бы устаревший результат запроса снова годным
+        manager.createCache(TIMESTAMPS_REGION, baseConfiguration());
+
+        //теги как у кэшей Spring, которые регистрирует Boot: в Prometheus у одноименных метрик набор тегов общий
+        meterRegistry.ifAvailable(meters -> manager.getCacheNames().forEach(name -> CaffeineCacheMetrics.monitor(
+                meters, manager.getCache(name).unwrap(com.github.benmanes.caffeine.cache.Cache.class), name,
+                "cache.manager", "hibernateCacheManager")));
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(javax.cache.CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(WarehouseProperties.CacheRegion region) {
+        CaffeineConfiguration<Object, Object> configuration = baseConfiguration();
+        configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> baseConfiguration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        //записи Hibernate неизменяемы, копировать их при каждом чтении незачем
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+
+    //примерный размер собранной накладной в байтах
+    private static int invoiceWeight(Object id, Object value) {
+        if (!(value instanceof InvoiceResponseDto))
+            return 1;
+        InvoiceResponseDto invoice = (InvoiceResponseDto) value;
+        return 200 + 2 * (invoice.getPartnerName().length() + invoice.getWorkerName().length())
+                + 100 * invoice.getItems().size();
+    }
+}
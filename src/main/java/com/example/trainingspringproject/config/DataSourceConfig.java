@@ -0,0 +1,66 @@
+package com.example.trainingspringproject.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+    //основная база: все записи, миграции и чтение, когда реплик нет
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("warehouse.replicas.nodes[0].url")
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, WarehouseProperties properties,
+                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        WarehouseProperties.Replicas config = properties.getReplicas();
+        List<WarehouseProperties.Replica> nodes = config.getNodes();
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            WarehouseProperties.Replica node = nodes.get(i);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(node.getUrl());
+            replica.setUsername(node.getUsername());
+            replica.setPassword(node.getPassword());
+            replica.setMaximumPoolSize(node.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            meterRegistry.ifAvailable(meters -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meters)));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, config.getMaxLag());
+        dataSource.startMonitor(config.getLagCheckInterval());
+        return dataSource;
+    }
+
+    //JpaTransactionManager берет соединение еще до того, как транзакция помечена readOnly;
+    //прокси откладывает выбор пула до первого запроса
+    @Bean
+    @Primary
+    @ConditionalOnProperty("warehouse.replicas.nodes[0].url")
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.trainingspringproject.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+    public static final String REPORT_REBUILD_EXECUTOR = "reportRebuildExecutor";
+
+    //собственный пул отключает автонастроенный applicationTaskExecutor, поэтому он объявлен здесь явно:
+    //на нем идут асинхронные ответы MVC, например выгрузка накладных
+    @Primary
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    //один пул на все пересчеты отчетов: параллельные вызовы делят потоки, а не множат их
+    @Bean(name = REPORT_REBUILD_EXECUTOR)
+    public ThreadPoolTaskExecutor reportRebuildExecutor(WarehouseProperties properties) {
+        int threads = properties.getReports().getRebuildThreads();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("report-rebuild-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        return executor;
+    }
+}
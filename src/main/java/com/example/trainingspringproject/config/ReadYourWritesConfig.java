@@ -0,0 +1,22 @@
+package com.example.trainingspringproject.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class ReadYourWritesConfig implements WebMvcConfigurer {
+    private final ObjectProvider<WarehouseProperties> properties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        properties.ifAvailable(warehouse -> {
+            WarehouseProperties.Replicas replicas = warehouse.getReplicas();
+            if (!replicas.getNodes().isEmpty())
+                registry.addInterceptor(new ReadYourWritesInterceptor(replicas.getStickyWindow()));
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.trainingspringproject.config;
+
+//признак "только основная база" для текущего потока запроса: клиент недавно писал и должен видеть свои записи
+public final class ReplicaRoutingContext {
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static void usePrimary() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    public static void clear() {
+        PRIMARY_ONLY.remove();
+    }
+}
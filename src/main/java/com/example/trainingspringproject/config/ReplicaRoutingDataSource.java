@@ -0,0 +1,102 @@
+package com.example.trainingspringproject.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//readOnly-транзакции уходят на реплики по кругу, все остальное — на основную базу.
+//реплика с отставанием больше max-lag или недоступная пропускается, пока не догонит.
+//работает только под LazyConnectionDataSourceProxy: соединение берется при первом запросе,
+//когда признак readOnly транзакции уже выставлен
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    public static final String PRIMARY = "primary";
+
+    //на основной базе и на догнавшей реплике отставание нулевое, иначе — время с последней примененной транзакции
+    private static final String LAG = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final Map<String, HikariDataSource> replicas;
+    private final long maxLagMillis;
+    private final Map<String, Boolean> available = new HashMap<>();
+    private final List<String> usable = new ArrayList<>();
+    private volatile String[] routes = new String[0];
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService monitor;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, Map<String, HikariDataSource> replicas, Duration maxLag) {
+        this.replicas = replicas;
+        this.maxLagMillis = maxLag.toMillis();
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRoutingContext.isPrimaryOnly())
+            return PRIMARY;
+        String[] current = routes;
+        if (current.length == 0)
+            return PRIMARY;
+        return current[Math.floorMod(next.getAndIncrement(), current.length)];
+    }
+
+    public void startMonitor(Duration interval) {
+        checkLag();
+        monitor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-lag-"));
+        monitor.scheduleWithFixedDelay(this::checkLag, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    //реплики, которым сейчас можно отдавать чтение
+    public synchronized List<String> usableReplicas() {
+        return List.copyOf(usable);
+    }
+
+    synchronized void checkLag() {
+        usable.clear();
+        replicas.forEach((name, replica) -> {
+            boolean ok = lagMillis(name, replica) <= maxLagMillis;
+            if (!Boolean.valueOf(ok).equals(available.put(name, ok)))
+                logger.info("Replica " + name + (ok ? " is used for reads" : " is skipped until it catches up"));
+            if (ok)
+                usable.add(name);
+        });
+        routes = usable.toArray(new String[0]);
+    }
+
+    private double lagMillis(String name, HikariDataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG)) {
+            rs.next();
+            return rs.getDouble(1);
+        } catch (Exception e) {
+            logger.warn("Replica " + name + " lag check failed: " + e.getMessage());
+            return Double.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (monitor != null)
+            monitor.shutdownNow();
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
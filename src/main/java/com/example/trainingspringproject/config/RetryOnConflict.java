@@ -0,0 +1,12 @@
+package com.example.trainingspringproject.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//транзакция метода повторяется, если база откатила ее из-за взаимной блокировки или конфликта сериализации
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
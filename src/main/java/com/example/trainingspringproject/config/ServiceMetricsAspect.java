@@ -0,0 +1,55 @@
+package com.example.trainingspringproject.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+//время и ошибки каждого публичного метода *ServiceImpl
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+    //вложенные вызовы сервисов видят одно и то же исключение: ошибка считается один раз, там, где возникла
+    private static final ThreadLocal<Throwable> COUNTED = new ThreadLocal<>();
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final MeterRegistry registry;
+
+    @Around("execution(public * com.example.trainingspringproject.services.impl.*ServiceImpl.*(..))")
+    public Object measure(ProceedingJoinPoint point) throws Throwable {
+        String className = point.getTarget().getClass().getSimpleName();
+        String method = point.getSignature().getName();
+        String exception = "none";
+        Timer.Sample sample = Timer.start(registry);
+        DEPTH.get()[0]++;
+        try {
+            return point.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            if (COUNTED.get() != e) {
+                COUNTED.set(e);
+                Counter.builder("warehouse.service.errors")
+                        .tag("class", className)
+                        .tag("method", method)
+                        .tag("exception", exception)
+                        .register(registry)
+                        .increment();
+            }
+            throw e;
+        } finally {
+            if (--DEPTH.get()[0] == 0)
+                COUNTED.remove();
+            sample.stop(Timer.builder("warehouse.service.invocations")
+                    .tag("class", className)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.trainingspringproject.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class StatementCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> COUNTER = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTER.get()[0]++;
+        return sql;
+    }
+
+    //для запросов, которые идут мимо Hibernate (JdbcTemplate), один батч - один запрос к базе
+    public static void add(long statements) {
+        COUNTER.get()[0] += statements;
+    }
+
+    public static long current() {
+        return COUNTER.get()[0];
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.trainingspringproject.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+//сколько SQL-запросов ушло в базу за один HTTP-запрос, по шаблону адреса
+@RequiredArgsConstructor
+public class StatementMetricsInterceptor implements HandlerInterceptor {
+    private static final String STATEMENTS_BEFORE = StatementMetricsInterceptor.class.getName() + ".before";
+
+    private final MeterRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STATEMENTS_BEFORE, StatementCounter.current());
+        return true;
+    }
+
+    //счетчик привязан к потоку, поэтому запросы асинхронной выгрузки сюда не попадают
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object before = request.getAttribute(STATEMENTS_BEFORE);
+        if (before == null)
+            return;
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("warehouse.http.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(StatementCounter.current() - (long) before);
+    }
+}
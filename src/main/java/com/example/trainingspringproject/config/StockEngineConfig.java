@@ -0,0 +1,29 @@
+package com.example.trainingspringproject.config;
+
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import com.example.trainingspringproject.services.impl.AtomicStockEngine;
+import com.example.trainingspringproject.services.impl.OptimisticStockEngine;
+import com.example.trainingspringproject.services.impl.StripedStockEngine;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StockEngineConfig {
+    @Bean
+    public StockEngine stockEngine(WarehouseProperties properties, ProductRepository repository) {
+        WarehouseProperties.Stock stock = properties.getStock();
+        return new StripedStockEngine(engine(stock, repository), repository, stock.getStripedProducts(),
+                stock.getStripes());
+    }
+
+    private StockEngine engine(WarehouseProperties.Stock stock, ProductRepository repository) {
+        switch (stock.getEngine()) {
+            case OPTIMISTIC:
+                return new OptimisticStockEngine(repository, stock.getMaxAttempts(), stock.getBackoff());
+            case ATOMIC:
+            default:
+                return new AtomicStockEngine(repository);
+        }
+    }
+}
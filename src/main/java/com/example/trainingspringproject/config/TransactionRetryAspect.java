@@ -0,0 +1,86 @@
+package com.example.trainingspringproject.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+//снаружи @Transactional: каждая попытка идет в новой транзакции
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class TransactionRetryAspect {
+    private static final String DEADLOCK = "40P01";
+    private static final String SERIALIZATION_FAILURE = "40001";
+
+    private final MeterRegistry registry;
+    private final WarehouseProperties.Retry retry;
+
+    public TransactionRetryAspect(MeterRegistry registry, WarehouseProperties properties) {
+        this.registry = registry;
+        this.retry = properties.getRetry();
+    }
+
+    @Around("@annotation(com.example.trainingspringproject.config.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint point) throws Throwable {
+        //внутри чужой транзакции повтор невозможен: она уже помечена на откат, повторяет внешний вызов
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return point.proceed();
+
+        String className = point.getTarget().getClass().getSimpleName();
+        String method = point.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return point.proceed();
+            } catch (RuntimeException e) {
+                String reason = reason(e);
+                if (reason == null)
+                    throw e;
+                if (attempt >= retry.getMaxAttempts()) {
+                    count("warehouse.transaction.retries.exhausted", className, method, reason);
+                    throw e;
+                }
+                count("warehouse.transaction.retries", className, method, reason);
+                pause(attempt);
+            }
+        }
+    }
+
+    //deadlock, serialization или null, если ошибка не связана с конкурентным доступом
+    private String reason(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (DEADLOCK.equals(state))
+                    return "deadlock";
+                if (SERIALIZATION_FAILURE.equals(state))
+                    return "serialization";
+            }
+        }
+        return e instanceof PessimisticLockingFailureException ? "lock" : null;
+    }
+
+    private void count(String name, String className, String method, String reason) {
+        Counter.builder(name)
+                .tag("class", className)
+                .tag("method", method)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    //экспоненциальная пауза со случайным разбросом, не больше max-backoff
+    private void pause(int attempt) throws InterruptedException {
+        long bound = Math.min(retry.getMaxBackoff().toMillis(), retry.getBackoff().toMillis() << Math.min(attempt - 1, 20));
+        Thread.sleep(ThreadLocalRandom.current().nextLong(bound / 2, bound + 1));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.trainingspringproject.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "warehouse")
+public class WarehouseProperties {
+    private final Stock stock = new Stock();
+    private final Paging paging = new Paging();
+    private final Cache cache = new Cache();
+    private final BulkImport bulkImport = new BulkImport();
+    private final Retry retry = new Retry();
+    private final Reports reports = new Reports();
+    private final Search search = new Search();
+    private final Availability availability = new Availability();
+    private final Posting posting = new Posting();
+    private final Partitions partitions = new Partitions();
+    private final Replicas replicas = new Replicas();
+
+    @Data
+    public static class Stock {
+        private Engine engine = Engine.ATOMIC;
+        //только для OPTIMISTIC: сколько раз перечитывать остаток при конфликте версий
+        private int maxAttempts = 10;
+        private Duration backoff = Duration.ofMillis(5);
+        //"горячие" товары, остаток которых разложен по полосам product_stripe
+        private Set<Long> stripedProducts = new HashSet<>();
+        //полос на товар вместе со строкой самого товара
+        private int stripes = 8;
+    }
+
+    @Data
+    public static class Paging {
+        private int defaultLimit = 100;
+        private int maxLimit = 1000;
+        //непостраничные выборки (/all, /find-by-*) отвечают ошибкой, если записей больше
+        private int unpagedCap = 10000;
+        //id в одном запросе /find-by-ids (они идут в строке запроса) и в одном IN (...) к базе
+        private int maxIds = 500;
+        private int idsChunkSize = 250;
+    }
+
+    @Data
+    public static class Cache {
+        //справочники (группы, производители, сотрудники, контрагенты) для мапперов
+        private long maximumSize = 1000;
+        private Duration ttl = Duration.ofMinutes(10);
+        //собранные ответы /api/invoice/find-by-id
+        private DataSize invoicesMaximumWeight = DataSize.ofMegabytes(64);
+        //регионы второго уровня Hibernate: у справочников разный объем и разная частота правок
+        private final CacheRegion productGroupRegion = new CacheRegion(500, Duration.ofHours(1));
+        private final CacheRegion producerRegion = new CacheRegion(2000, Duration.ofHours(1));
+        private final CacheRegion workerRegion = new CacheRegion(1000, Duration.ofMinutes(30));
+        private final CacheRegion partnerRegion = new CacheRegion(10000, Duration.ofMinutes(30));
+        //id, найденные по имени и реквизитам; сбрасываются при любой записи в таблицу
+        private final CacheRegion lookupRegion = new CacheRegion(20000, Duration.ofMinutes(10));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CacheRegion {
+        private long maximumSize;
+        private Duration ttl;
+    }
+
+    @Data
+    public static class BulkImport {
+        //накладных в одной транзакции импорта
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Retry {
+        //попыток проводки при deadlock/serialization failure, включая первую
+        private int maxAttempts = 5;
+        private Duration backoff = Duration.ofMillis(10);
+        private Duration maxBackoff = Duration.ofMillis(200);
+    }
+
+    @Data
+    public static class Reports {
+        //пересчет daily_sales: дней в одной транзакции и сколько таких транзакций идет одновременно
+        private int rebuildChunkDays = 31;
+        private int rebuildThreads = 4;
+        //полос daily_sales на ключ (день, контрагент, товар)
+        private int stripes = 8;
+    }
+
+    @Data
+    public static class Search {
+        //сколько лучших совпадений отдает /api/product/search
+        private int defaultLimit = 10;
+        private int maxLimit = 50;
+    }
+
+    @Data
+    public static class Availability {
+        //товаров в одном запросе /api/product/availability
+        private int maxItems = 200;
+        //сколько отдается прочитанный остаток без похода в базу; 0 — всегда свежий.
+        //проверка корзины только подсказка, проводка все равно проверяет остаток в базе
+        private Duration snapshotTtl = Duration.ofSeconds(1);
+        private long snapshotMaximumSize = 100_000;
+    }
+
+    @Data
+    public static class Posting {
+        //потоки проводки /api/invoice/create-async; каждый держит соединение с базой на время накладной
+        private int workers = 4;
+        //принятые, но еще не проведенные накладные; сверх этого отвечаем 429
+        private int queueCapacity = 500;
+        //сколько хранится статус завершенной проводки
+        private Duration ticketTtl = Duration.ofHours(1);
+        private long maxTickets = 100_000;
+    }
+
+    @Data
+    public static class Partitions {
+        //на сколько месяцев вперед держать готовые секции invoice/item
+        private int monthsAhead = 3;
+        //сколько последних месяцев оставлять присоединенными, включая текущий; 0 — не отсоединять
+        private int retainMonths = 0;
+    }
+
+    @Data
+    public static class Replicas {
+        //пулы реплик для readOnly-транзакций; без них все запросы идут в основную базу
+        private List<Replica> nodes = new ArrayList<>();
+        //реплика, отставшая больше чем на max-lag, не получает чтение, пока не догонит
+        private Duration maxLag = Duration.ofSeconds(5);
+        private Duration lagCheckInterval = Duration.ofSeconds(1);
+        //сколько после своей записи клиент читает из основной базы
+        private Duration stickyWindow = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+
+    public enum Engine {
+        //UPDATE ... SET quantity = quantity + ? WHERE quantity + ? >= 0
+        ATOMIC,
+        //чтение остатка и версии, затем UPDATE ... WHERE version = ? с повтором при конфликте
+        OPTIMISTIC
+    }
+}
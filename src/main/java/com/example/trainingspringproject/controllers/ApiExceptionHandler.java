@@ -1,10 +1,17 @@
 package com.example.trainingspringproject.controllers;
 
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
+import com.example.trainingspringproject.exceptions.InvalidDateRangeException;
+import com.example.trainingspringproject.exceptions.InvalidPageException;
 import com.example.trainingspringproject.exceptions.NotEnoughProductsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.exceptions.PostingQueueFullException;
+import com.example.trainingspringproject.exceptions.StockConflictException;
+import com.example.trainingspringproject.exceptions.TooManyResultsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -24,16 +31,27 @@ public class ApiExceptionHandler {
         return handle(e, HttpStatus.NOT_FOUND);
     }
 
-    @ExceptionHandler(value = AlreadyExistsException.class)
-    public ResponseEntity<Object> handleConflictException(AlreadyExistsException e) {
+    @ExceptionHandler(value = {AlreadyExistsException.class, StockConflictException.class,
+            PessimisticLockingFailureException.class})
+    public ResponseEntity<Object> handleConflictException(RuntimeException e) {
         return handle(e, HttpStatus.CONFLICT);
     }
 
-    @ExceptionHandler(value = {ConstraintViolationException.class, MethodArgumentNotValidException.class})
+    @ExceptionHandler(value = {ConstraintViolationException.class, MethodArgumentNotValidException.class,
+            InvalidPageException.class, TooManyResultsException.class, InvalidDateRangeException.class})
     public ResponseEntity<Object> handleBadRequestException(RuntimeException e) {
         return handle(e, HttpStatus.BAD_REQUEST);
     }
 
+    //клиент повторяет запрос позже, поток запроса очереди не ждет
+    @ExceptionHandler(value = PostingQueueFullException.class)
+    public ResponseEntity<Object> handleQueueFullException(RuntimeException e) {
+        ResponseEntity<Object> response = handle(e, HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(value = RuntimeException.class)
     public ResponseEntity<Object> handleOtherException(RuntimeException e) {
         return handle(e, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,25 @@
+package com.example.trainingspringproject.controllers;
+
+import com.example.trainingspringproject.models.dtos.CacheStatsDto;
+import com.example.trainingspringproject.services.CacheService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+    private final CacheService service;
+
+    Logger logger = LoggerFactory.getLogger(CacheController.class);
+
+    @GetMapping("/stats")
+    public List<CacheStatsDto> getCacheStats() {
+        logger.info("Get cache stats");
+        return service.getStats();
+    }
+}
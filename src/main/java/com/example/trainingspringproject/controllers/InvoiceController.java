@@ -1,16 +1,35 @@
 package com.example.trainingspringproject.controllers;
 
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.ImportReportDto;
 import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
 import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import com.example.trainingspringproject.models.dtos.PostingReportDto;
+import com.example.trainingspringproject.models.dtos.PostingTicketDto;
 import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceImportService;
+import com.example.trainingspringproject.services.InvoicePostingService;
 import com.example.trainingspringproject.services.InvoiceService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -19,13 +38,43 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InvoiceController {
     private final InvoiceService service;
+    private final InvoiceImportService importService;
+    private final InvoicePostingService postingService;
+    private final ObjectMapper objectMapper;
+
+    private static final String NDJSON = "application/x-ndjson";
 
     Logger logger = LoggerFactory.getLogger(InvoiceController.class);
 
     @PostMapping("/create")
-    public void createInvoice(@Valid @RequestBody InvoiceRequestDto dto) {
+    public PostingReportDto createInvoice(@Valid @RequestBody InvoiceRequestDto dto) {
         logger.info("Create invoice " + dto.toString());
-        service.create(dto);
+        return service.create(dto);
+    }
+
+    //накладная проводится в фоне, статус и результат — по билету из ответа
+    @PostMapping("/create-async")
+    public ResponseEntity<PostingTicketDto> createInvoiceAsync(@Valid @RequestBody InvoiceRequestDto dto) {
+        logger.info("Create invoice asynchronously " + dto.toString());
+        PostingTicketDto ticket = postingService.submit(dto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/invoice/posting-status?ticket=" + ticket.getTicket()))
+                .body(ticket);
+    }
+
+    @GetMapping("/posting-status")
+    public PostingTicketDto findPostingStatus(@RequestParam(name = "ticket") String ticket) {
+        logger.info("Get posting status by ticket = " + ticket);
+        return postingService.findByTicket(ticket);
+    }
+
+    //массив JSON или NDJSON читается по одной накладной, тело целиком в память не загружается
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ImportReportDto importInvoices(InputStream body) throws IOException {
+        logger.info("Import invoices");
+        try (MappingIterator<InvoiceRequestDto> dtos = objectMapper.readerFor(InvoiceRequestDto.class).readValues(body)) {
+            return importService.importAll(dtos);
+        }
     }
 
     @DeleteMapping("/delete")
@@ -40,34 +89,102 @@ public class InvoiceController {
         return service.findById(id);
     }
 
+    @GetMapping("/find-by-ids")
+    public BatchDto<InvoiceResponseDto> findInvoicesByIds(@RequestParam(name = "ids") List<Long> ids) {
+        logger.info("Get " + ids.size() + " invoices by ids");
+        return service.findAllByIds(ids);
+    }
+
     @GetMapping("/all")
     public List<InvoiceResponseDto> findAllInvoices() {
         logger.info("Get all invoices");
         return service.findAll();
     }
 
+    @GetMapping("/page")
+    public PageDto<InvoiceResponseDto> findInvoicesPage(@RequestParam(name = "after", required = false) String after,
+                                                        @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get all invoices, page after " + after);
+        return service.findAll(after, limit);
+    }
+
     @GetMapping("/find-by-partner-id")
     public List<InvoiceResponseDto> findInvoicesByPartnerId(@RequestParam(name = "partner-id") Long partnerId) {
         logger.info("Get invoices by partner id = " + partnerId);
         return service.findAllByPartnerId(partnerId);
     }
 
+    @GetMapping("/find-by-partner-id/page")
+    public PageDto<InvoiceResponseDto> findInvoicesByPartnerIdPage(@RequestParam(name = "partner-id") Long partnerId,
+                                                                   @RequestParam(name = "after", required = false) String after,
+                                                                   @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get invoices by partner id = " + partnerId + ", page after " + after);
+        return service.findAllByPartnerId(partnerId, after, limit);
+    }
+
     @GetMapping("/find-by-worker-id")
     public List<InvoiceResponseDto> findInvoicesByWorkerId(@RequestParam(name = "worker-id") Long workerId) {
         logger.info("Get invoices by worker id = " + workerId);
         return service.findAllByWorkerId(workerId);
     }
 
+    @GetMapping("/find-by-worker-id/page")
+    public PageDto<InvoiceResponseDto> findInvoicesByWorkerIdPage(@RequestParam(name = "worker-id") Long workerId,
+                                                                  @RequestParam(name = "after", required = false) String after,
+                                                                  @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get invoices by worker id = " + workerId + ", page after " + after);
+        return service.findAllByWorkerId(workerId, after, limit);
+    }
+
     @GetMapping("/find-by-type")
     public List<InvoiceResponseDto> findInvoicesByType(@RequestParam(name = "type") TransactionType type) {
         logger.info("Get invoices by type " + type);
         return service.findAllByType(type);
     }
 
+    @GetMapping("/find-by-type/page")
+    public PageDto<InvoiceResponseDto> findInvoicesByTypePage(@RequestParam(name = "type") TransactionType type,
+                                                              @RequestParam(name = "after", required = false) String after,
+                                                              @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get invoices by type " + type + ", page after " + after);
+        return service.findAllByType(type, after, limit);
+    }
+
     @GetMapping("/find-by-date")
     public List<InvoiceResponseDto> findInvoicesByDate(@RequestParam(name = "date")
                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         logger.info("Get invoices by date = " + date.toString());
         return service.findAllByDate(date);
     }
+
+    @GetMapping("/find-by-date/page")
+    public PageDto<InvoiceResponseDto> findInvoicesByDatePage(@RequestParam(name = "date")
+                                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                              @RequestParam(name = "after", required = false) String after,
+                                                              @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get invoices by date = " + date.toString() + ", page after " + after);
+        return service.findAllByDate(date, after, limit);
+    }
+
+    //накладные пишутся в ответ по мере чтения из базы, по одной JSON-строке на накладную
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportInvoices(@RequestParam(name = "from", required = false)
+                                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                @RequestParam(name = "to", required = false)
+                                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                @RequestParam(name = "type", required = false) TransactionType type) {
+        logger.info("Export invoices from " + from + " to " + to + ", type " + type);
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> service.exportAll(from, to, type, dto -> {
+            try {
+                writer.writeValue(out, dto);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
 }
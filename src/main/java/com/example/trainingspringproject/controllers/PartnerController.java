@@ -1,5 +1,7 @@
 package com.example.trainingspringproject.controllers;
 
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.PartnerDto;
 import com.example.trainingspringproject.services.PartnerService;
 import lombok.RequiredArgsConstructor;
@@ -42,12 +44,25 @@ public class PartnerController {
         return service.findById(id);
     }
 
+    @GetMapping("/find-by-ids")
+    public BatchDto<PartnerDto> findPartnersByIds(@RequestParam(name = "ids") List<Long> ids) {
+        logger.info("Get " + ids.size() + " partners by ids");
+        return service.findAllByIds(ids);
+    }
+
     @GetMapping("/all")
     public List<PartnerDto> findAllPartners() {
         logger.info("Get all partners");
         return service.findAll();
     }
 
+    @GetMapping("/page")
+    public PageDto<PartnerDto> findPartnersPage(@RequestParam(name = "after", required = false) String after,
+                                                @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get all partners, page after " + after);
+        return service.findAll(after, limit);
+    }
+
     @GetMapping("/find-by-name")
     public PartnerDto findPartnerByName(@RequestParam(name = "name") String name) {
         logger.info("Get partner by name = " + name);
@@ -66,9 +81,25 @@ public class PartnerController {
         return service.findAllByAddressLike(address);
     }
 
+    @GetMapping("/find-by-address/page")
+    public PageDto<PartnerDto> findPartnersByAddressPage(@RequestParam(name = "address") String address,
+                                                         @RequestParam(name = "after", required = false) String after,
+                                                         @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get partners by address = " + address + ", page after " + after);
+        return service.findAllByAddressLike(address, after, limit);
+    }
+
     @GetMapping("/find-by-email")
     public List<PartnerDto> findPartnersByEmail(@RequestParam(name = "email") String email) {
         logger.info("Get partners by email = " + email);
         return service.findAllByEmailLike(email);
     }
+
+    @GetMapping("/find-by-email/page")
+    public PageDto<PartnerDto> findPartnersByEmailPage(@RequestParam(name = "email") String email,
+                                                       @RequestParam(name = "after", required = false) String after,
+                                                       @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get partners by email = " + email + ", page after " + after);
+        return service.findAllByEmailLike(email, after, limit);
+    }
 }
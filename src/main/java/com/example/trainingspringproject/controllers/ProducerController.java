@@ -1,5 +1,7 @@
 package com.example.trainingspringproject.controllers;
 
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.ProducerDto;
 import com.example.trainingspringproject.services.ProducerService;
 import lombok.RequiredArgsConstructor;
@@ -42,12 +44,25 @@ public class ProducerController {
         return service.findById(id);
     }
 
+    @GetMapping("/find-by-ids")
+    public BatchDto<ProducerDto> findProducersByIds(@RequestParam(name = "ids") List<Long> ids) {
+        logger.info("Get " + ids.size() + " producers by ids");
+        return service.findAllByIds(ids);
+    }
+
     @GetMapping("/all")
     public List<ProducerDto> findAllProducers() {
         logger.info("Get all producers");
         return service.findAll();
     }
 
+    @GetMapping("/page")
+    public PageDto<ProducerDto> findProducersPage(@RequestParam(name = "after", required = false) String after,
+                                                  @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get all producers, page after " + after);
+        return service.findAll(after, limit);
+    }
+
     @GetMapping("/find-by-name")
     public ProducerDto findProducerByName(@RequestParam(name = "name") String name) {
         logger.info("Get producer by name = " + name);
@@ -59,4 +74,12 @@ public class ProducerController {
         logger.info("Get producers by address = " + address);
         return service.findAllByAddressLike(address);
     }
+
+    @GetMapping("/find-by-address/page")
+    public PageDto<ProducerDto> findProducersByAddressPage(@RequestParam(name = "address") String address,
+                                                           @RequestParam(name = "after", required = false) String after,
+                                                           @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get producers by address = " + address + ", page after " + after);
+        return service.findAllByAddressLike(address, after, limit);
+    }
 }
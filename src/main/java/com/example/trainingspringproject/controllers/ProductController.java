@@ -1,5 +1,9 @@
 package com.example.trainingspringproject.controllers;
 
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import com.example.trainingspringproject.models.dtos.ProductAvailabilityDto;
 import com.example.trainingspringproject.models.dtos.ProductDto;
 import com.example.trainingspringproject.services.ProductService;
 import lombok.RequiredArgsConstructor;
@@ -42,27 +46,77 @@ public class ProductController {
         return service.findById(id);
     }
 
+    @GetMapping("/find-by-ids")
+    public BatchDto<ProductDto> findProductsByIds(@RequestParam(name = "ids") List<Long> ids) {
+        logger.info("Get " + ids.size() + " products by ids");
+        return service.findAllByIds(ids);
+    }
+
     @GetMapping("/all")
     public List<ProductDto> findAllProducts() {
         logger.info("Get all products");
         return service.findAll();
     }
 
+    @GetMapping("/page")
+    public PageDto<ProductDto> findProductsPage(@RequestParam(name = "after", required = false) String after,
+                                                @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get all products, page after " + after);
+        return service.findAll(after, limit);
+    }
+
     @GetMapping("/find-by-name")
     public List<ProductDto> findProductsByName(@RequestParam(name = "name") String name) {
         logger.info("Get products by name = " + name);
         return service.findAllByNameLike(name);
     }
 
+    @GetMapping("/find-by-name/page")
+    public PageDto<ProductDto> findProductsByNamePage(@RequestParam(name = "name") String name,
+                                                      @RequestParam(name = "after", required = false) String after,
+                                                      @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get products by name = " + name + ", page after " + after);
+        return service.findAllByNameLike(name, after, limit);
+    }
+
     @GetMapping("/find-by-producer-id")
     public List<ProductDto> findProductsByProducerId(@RequestParam(name = "producer-id") Long producerId) {
         logger.info("Get products by producer id = " + producerId);
         return service.findAllByProducerId(producerId);
     }
 
+    @GetMapping("/find-by-producer-id/page")
+    public PageDto<ProductDto> findProductsByProducerIdPage(@RequestParam(name = "producer-id") Long producerId,
+                                                            @RequestParam(name = "after", required = false) String after,
+                                                            @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get products by producer id = " + producerId + ", page after " + after);
+        return service.findAllByProducerId(producerId, after, limit);
+    }
+
     @GetMapping("/find-by-group-id")
     public List<ProductDto> findProductsByGroupId(@RequestParam(name = "group-id") Long groupId) {
         logger.info("Get products by product group id = " + groupId);
         return service.findAllByProductGroupId(groupId);
     }
+
+    @GetMapping("/find-by-group-id/page")
+    public PageDto<ProductDto> findProductsByGroupIdPage(@RequestParam(name = "group-id") Long groupId,
+                                                         @RequestParam(name = "after", required = false) String after,
+                                                         @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get products by product group id = " + groupId + ", page after " + after);
+        return service.findAllByProductGroupId(groupId, after, limit);
+    }
+
+    @GetMapping("/search")
+    public List<ProductDto> searchProducts(@RequestParam(name = "q") String query,
+                                           @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Search products by query = " + query);
+        return service.search(query, limit);
+    }
+
+    @PostMapping("/availability")
+    public List<ProductAvailabilityDto> checkProductsAvailability(@Valid @RequestBody List<ItemRequestDto> items) {
+        logger.info("Check availability of " + items.size() + " products");
+        return service.checkAvailability(items);
+    }
 }
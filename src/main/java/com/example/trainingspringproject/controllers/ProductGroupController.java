@@ -1,5 +1,7 @@
 package com.example.trainingspringproject.controllers;
 
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.ProductGroupDto;
 import com.example.trainingspringproject.services.ProductGroupService;
 import lombok.RequiredArgsConstructor;
@@ -42,12 +44,25 @@ public class ProductGroupController {
         return service.findById(id);
     }
 
+    @GetMapping("/find-by-ids")
+    public BatchDto<ProductGroupDto> findProductGroupsByIds(@RequestParam(name = "ids") List<Long> ids) {
+        logger.info("Get " + ids.size() + " product groups by ids");
+        return service.findAllByIds(ids);
+    }
+
     @GetMapping("/all")
     public List<ProductGroupDto> findAllProductGroups() {
         logger.info("Get all product groups");
         return service.findAll();
     }
 
+    @GetMapping("/page")
+    public PageDto<ProductGroupDto> findProductGroupsPage(@RequestParam(name = "after", required = false) String after,
+                                                          @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get all product groups, page after " + after);
+        return service.findAll(after, limit);
+    }
+
     @GetMapping("/find-by-name")
     public ProductGroupDto findProductGroupByName(@RequestParam(name = "name") String name) {
         logger.info("Get product group by name = " + name);
@@ -0,0 +1,45 @@
+package com.example.trainingspringproject.controllers;
+
+import com.example.trainingspringproject.models.dtos.RebuildReportDto;
+import com.example.trainingspringproject.models.dtos.SalesReportDto;
+import com.example.trainingspringproject.models.enums.ReportDimension;
+import com.example.trainingspringproject.models.enums.ReportPeriod;
+import com.example.trainingspringproject.services.SalesReportService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/report")
+@RequiredArgsConstructor
+public class ReportController {
+    private final SalesReportService service;
+
+    Logger logger = LoggerFactory.getLogger(ReportController.class);
+
+    @GetMapping("/sales")
+    public List<SalesReportDto> getSalesReport(@RequestParam(name = "by", defaultValue = "PRODUCT") ReportDimension by,
+                                               @RequestParam(name = "period", defaultValue = "TOTAL") ReportPeriod period,
+                                               @RequestParam(name = "from")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam(name = "to")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("Get sales report by " + by + " per " + period + " from " + from + " to " + to);
+        return service.report(by, period, from, to);
+    }
+
+    //без границ пересчитывается весь период, за который есть накладные
+    @PostMapping("/sales/rebuild")
+    public RebuildReportDto rebuildSales(@RequestParam(name = "from", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam(name = "to", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("Rebuild sales aggregates from " + from + " to " + to);
+        return service.rebuild(from, to);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.trainingspringproject.controllers;
 
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.WorkerDto;
 import com.example.trainingspringproject.services.WorkerService;
 import lombok.RequiredArgsConstructor;
@@ -42,12 +44,25 @@ public class WorkerController {
         return service.findById(id);
     }
 
+    @GetMapping("/find-by-ids")
+    public BatchDto<WorkerDto> findWorkersByIds(@RequestParam(name = "ids") List<Long> ids) {
+        logger.info("Get " + ids.size() + " workers by ids");
+        return service.findAllByIds(ids);
+    }
+
     @GetMapping("/all")
     public List<WorkerDto> findAllWorkers() {
         logger.info("Get all workers");
         return service.findAll();
     }
 
+    @GetMapping("/page")
+    public PageDto<WorkerDto> findWorkersPage(@RequestParam(name = "after", required = false) String after,
+                                              @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get all workers, page after " + after);
+        return service.findAll(after, limit);
+    }
+
     @GetMapping("/find-by-name")
     public WorkerDto findWorkerByName(@RequestParam(name = "name") String name) {
         logger.info("Get worker by name = " + name);
@@ -59,4 +74,12 @@ public class WorkerController {
         logger.info("Get workers by job = " + job);
         return service.findAllByJob(job);
     }
+
+    @GetMapping("/find-by-job/page")
+    public PageDto<WorkerDto> findWorkersByJobPage(@RequestParam(name = "job") String job,
+                                                   @RequestParam(name = "after", required = false) String after,
+                                                   @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.info("Get workers by job = " + job + ", page after " + after);
+        return service.findAllByJob(job, after, limit);
+    }
 }
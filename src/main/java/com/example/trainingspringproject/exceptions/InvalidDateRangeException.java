@@ -0,0 +1,9 @@
+package com.example.trainingspringproject.exceptions;
+
+import java.time.LocalDate;
+
+public class InvalidDateRangeException extends RuntimeException {
+    public InvalidDateRangeException(LocalDate from, LocalDate to) {
+        super("Invalid date range: " + from + " is after " + to + ".");
+    }
+}
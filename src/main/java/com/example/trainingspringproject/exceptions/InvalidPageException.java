@@ -0,0 +1,7 @@
+package com.example.trainingspringproject.exceptions;
+
+public class InvalidPageException extends RuntimeException {
+    public InvalidPageException(String message) {
+        super("Invalid page request: " + message + ".");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.trainingspringproject.exceptions;
+
+public class PostingQueueFullException extends RuntimeException {
+    public PostingQueueFullException(int capacity) {
+        super("Posting queue is full! Capacity: " + capacity + " invoices. Retry later.");
+    }
+}
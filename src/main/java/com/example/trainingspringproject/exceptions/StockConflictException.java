@@ -0,0 +1,9 @@
+package com.example.trainingspringproject.exceptions;
+
+import java.util.Collection;
+
+public class StockConflictException extends RuntimeException {
+    public StockConflictException(Collection<Long> productIds, int attempts) {
+        super("Stock of products " + productIds + " was changed concurrently, gave up after " + attempts + " attempts.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.trainingspringproject.exceptions;
+
+public class TooManyResultsException extends RuntimeException {
+    public TooManyResultsException(String entity, String criteria, int cap) {
+        super("More than " + cap + " entities found! Entity: " + entity + ", criteria: " + criteria
+                + ". Use the paged endpoint instead.");
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDto<T> {
+    //найденные записи в порядке id запроса, повторы id отдаются один раз
+    private List<T> items;
+
+    private List<Long> missing;
+}
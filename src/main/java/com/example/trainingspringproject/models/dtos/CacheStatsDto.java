@@ -0,0 +1,40 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+    private static final String NULL_ERR_MESSAGE = " in cache stats is a required parameter.";
+    private static final String POSITIVE_ZERO_ERR_MESSAGE = " in cache stats must be positive or zero.";
+
+    @NotBlank(message = "Cache name in cache stats can't be blank.")
+    private String name;
+
+    @NotNull(message = "Size" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Size" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Long size;
+
+    @NotNull(message = "Hits" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Hits" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Long hits;
+
+    @NotNull(message = "Misses" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Misses" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Long misses;
+
+    @NotNull(message = "Evictions" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Evictions" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Long evictions;
+
+    @NotNull(message = "Hit rate" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Hit rate" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Double hitRate;
+}
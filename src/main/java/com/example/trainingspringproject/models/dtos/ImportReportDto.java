@@ -0,0 +1,28 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReportDto {
+    private static final String NULL_ERR_MESSAGE = " in import report is a required parameter.";
+    private static final String POSITIVE_ZERO_ERR_MESSAGE = " in import report must be positive or zero.";
+
+    @NotNull(message = "Imported count" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Imported count" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Integer imported;
+
+    @NotNull(message = "Failed count" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Failed count" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Integer failed;
+
+    @NotNull(message = "Results list" + NULL_ERR_MESSAGE)
+    private List<ImportResultDto> results;
+}
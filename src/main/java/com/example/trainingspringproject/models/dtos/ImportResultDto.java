@@ -0,0 +1,23 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDto {
+    //номер накладной во входном потоке, с нуля
+    @NotNull(message = "Index in import result is a required parameter.")
+    @PositiveOrZero(message = "Index in import result must be positive or zero.")
+    private Integer index;
+
+    //null, если накладная не проведена
+    private Long invoiceId;
+
+    private String error;
+}
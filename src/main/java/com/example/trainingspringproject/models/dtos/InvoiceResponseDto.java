@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -34,4 +35,9 @@ public class InvoiceResponseDto {
 
     @NotNull(message = "Items list" + NULL_ERR_MESSAGE)
     private List<ItemResponseDto> items;
+
+    //заголовок накладной из запроса select new ..., строки добавляются позже
+    public InvoiceResponseDto(Long id, String partnerName, String workerName, TransactionType type, LocalDate date) {
+        this(id, partnerName, workerName, type, date, new ArrayList<>());
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDto<T> {
+    @NotNull(message = "Items list in page is a required parameter.")
+    private List<T> items;
+
+    //курсор следующей страницы; null - страница последняя
+    private String next;
+}
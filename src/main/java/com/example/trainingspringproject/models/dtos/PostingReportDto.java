@@ -0,0 +1,27 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingReportDto {
+    private static final String NULL_ERR_MESSAGE = " in posting report is a required parameter.";
+    private static final String POSITIVE_ZERO_ERR_MESSAGE = " in posting report must be positive or zero.";
+
+    @NotNull(message = "Invoice ID" + NULL_ERR_MESSAGE)
+    private Long invoiceId;
+
+    @NotNull(message = "Items count" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Items count" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Integer items;
+
+    @NotNull(message = "Statements count" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Statements count" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Long statements;
+}
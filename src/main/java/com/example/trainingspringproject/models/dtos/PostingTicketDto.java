@@ -0,0 +1,26 @@
+package com.example.trainingspringproject.models.dtos;
+
+import com.example.trainingspringproject.models.enums.PostingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingTicketDto {
+    @NotBlank(message = "Ticket in posting ticket can't be blank.")
+    private String ticket;
+
+    @NotNull(message = "Status in posting ticket is a required parameter.")
+    private PostingStatus status;
+
+    //заполняется при DONE
+    private PostingReportDto report;
+
+    //заполняется при FAILED
+    private String error;
+}
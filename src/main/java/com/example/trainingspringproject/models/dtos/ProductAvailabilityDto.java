@@ -0,0 +1,17 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductAvailabilityDto {
+    private Long productId;
+    private Integer required;
+    //для неизвестного товара остаток 0 и цены нет
+    private Integer available;
+    private Double outcomePrice;
+    private boolean canFulfil;
+}
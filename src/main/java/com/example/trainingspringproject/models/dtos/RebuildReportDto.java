@@ -0,0 +1,29 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RebuildReportDto {
+    private static final String NULL_ERR_MESSAGE = " in rebuild report is a required parameter.";
+    private static final String POSITIVE_ZERO_ERR_MESSAGE = " in rebuild report must be positive or zero.";
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    @NotNull(message = "Chunks count" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Chunks count" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Integer chunks;
+
+    @NotNull(message = "Rows count" + NULL_ERR_MESSAGE)
+    @PositiveOrZero(message = "Rows count" + POSITIVE_ZERO_ERR_MESSAGE)
+    private Long rows;
+}
@@ -0,0 +1,42 @@
+package com.example.trainingspringproject.models.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportDto {
+    private static final String NULL_ERR_MESSAGE = " in sales report is a required parameter.";
+    private static final String BLANK_ERR_MESSAGE = " in sales report can't be blank.";
+
+    //начало дня или месяца; null для итога за весь диапазон
+    private LocalDate period;
+
+    @NotNull(message = "ID" + NULL_ERR_MESSAGE)
+    private Long id;
+
+    @NotBlank(message = "Name" + BLANK_ERR_MESSAGE)
+    private String name;
+
+    @NotNull(message = "Income units" + NULL_ERR_MESSAGE)
+    private Long incomeUnits;
+
+    @NotNull(message = "Income amount" + NULL_ERR_MESSAGE)
+    private Double incomeAmount;
+
+    @NotNull(message = "Outcome units" + NULL_ERR_MESSAGE)
+    private Long outcomeUnits;
+
+    @NotNull(message = "Revenue" + NULL_ERR_MESSAGE)
+    private Double revenue;
+
+    //выручка минус себестоимость проданного по текущей приходной цене товара
+    @NotNull(message = "Margin" + NULL_ERR_MESSAGE)
+    private Double margin;
+}
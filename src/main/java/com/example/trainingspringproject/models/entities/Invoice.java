@@ -9,6 +9,11 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "invoice")
+//строки накладной в DTO читаются отдельной проекцией одним запросом на пачку накладных
+@NamedEntityGraph(name = Invoice.FOR_DTO, attributeNodes = {
+        @NamedAttributeNode("partner"),
+        @NamedAttributeNode("worker")
+})
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,16 +21,21 @@ import java.util.Objects;
 @Setter
 @ToString
 public class Invoice {
+    public static final String FOR_DTO = "Invoice.forDto";
+
     @Column(name = "id")
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_id_seq")
+    @SequenceGenerator(name = "invoice_id_seq", sequenceName = "invoice_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "partner_id", nullable = false)
     private Partner partner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "worker_id", nullable = false)
     private Worker worker;
 
@@ -1,12 +1,17 @@
 package com.example.trainingspringproject.models.entities;
 
+import com.example.trainingspringproject.config.CacheConfig;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.Objects;
 
 @Entity
 @Table(name = "partner")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.PARTNER_REGION)
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +21,8 @@ import java.util.Objects;
 public class Partner {
     @Column(name = "id")
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "partner_id_seq")
+    @SequenceGenerator(name = "partner_id_seq", sequenceName = "partner_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", unique = true, nullable = false)
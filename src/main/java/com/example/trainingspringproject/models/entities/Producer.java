@@ -1,12 +1,17 @@
 package com.example.trainingspringproject.models.entities;
 
+import com.example.trainingspringproject.config.CacheConfig;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.Objects;
 
 @Entity
 @Table(name = "producer")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.PRODUCER_REGION)
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +21,8 @@ import java.util.Objects;
 public class Producer {
     @Column(name = "id")
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producer_id_seq")
+    @SequenceGenerator(name = "producer_id_seq", sequenceName = "producer_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", unique = true, nullable = false)
@@ -1,14 +1,21 @@
 package com.example.trainingspringproject.models.entities;
 
 import lombok.*;
+import org.hibernate.annotations.Formula;
 
 import javax.persistence.*;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Entity
 @Table(name = "product")
+@NamedEntityGraph(name = Product.WITH_GROUP_AND_PRODUCER, attributeNodes = {
+        @NamedAttributeNode("productGroup"),
+        @NamedAttributeNode("producer")
+})
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,16 +23,21 @@ import java.util.Objects;
 @Setter
 @ToString
 public class Product {
+    public static final String WITH_GROUP_AND_PRODUCER = "Product.withGroupAndProducer";
+
     @Column(name = "id")
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_seq")
+    @SequenceGenerator(name = "product_id_seq", sequenceName = "product_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "group_id", nullable = false)
     private ProductGroup productGroup;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "producer_id", nullable = false)
     private Producer producer;
 
@@ -47,6 +59,30 @@ public class Product {
     @Positive
     private Double outcomePrice;
 
+    //остаток вместе с полосами product_stripe (функция stock_of из V06); в quantity лежит только полоса самого товара
+    @Formula("stock_of(id)")
+    @Setter(AccessLevel.NONE)
+    private Integer stock;
+
+    //name, description, группа и производитель через пробел, как concat_ws в V08
+    @Column(name = "search_text", nullable = false)
+    @ToString.Exclude
+    private String searchText;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    private void fillSearchText() {
+        searchText = Stream.of(name, description,
+                        productGroup == null ? null : productGroup.getName(),
+                        producer == null ? null : producer.getName())
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
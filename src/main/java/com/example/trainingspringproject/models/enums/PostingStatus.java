@@ -0,0 +1,9 @@
+package com.example.trainingspringproject.models.enums;
+
+public enum PostingStatus {
+    //ждет в очереди или завершения накладной с общими товарами
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
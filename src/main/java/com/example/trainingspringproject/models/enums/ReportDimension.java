@@ -0,0 +1,17 @@
+package com.example.trainingspringproject.models.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public enum ReportDimension {
+    PRODUCT("p.id", "p.name"),
+    PRODUCT_GROUP("g.id", "g.name"),
+    PRODUCER("pr.id", "pr.name"),
+    PARTNER("pa.id", "pa.name");
+
+    //колонки запроса отчета, см. DailySalesRepository
+    private final String idColumn;
+    private final String nameColumn;
+}
@@ -0,0 +1,15 @@
+package com.example.trainingspringproject.models.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public enum ReportPeriod {
+    DAY("d.day"),
+    MONTH("date_trunc('month', d.day)::date"),
+    //одна строка на весь диапазон дат
+    TOTAL("null::date");
+
+    private final String column;
+}
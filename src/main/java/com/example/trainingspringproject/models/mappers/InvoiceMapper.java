@@ -3,22 +3,26 @@ package com.example.trainingspringproject.models.mappers;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
 import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
 import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
-import com.example.trainingspringproject.models.dtos.ItemResponseDto;
 import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.projections.InvoiceItem;
 import com.example.trainingspringproject.repositories.ItemRepository;
-import com.example.trainingspringproject.repositories.PartnerRepository;
-import com.example.trainingspringproject.repositories.WorkerRepository;
+import com.example.trainingspringproject.repositories.ReferenceCache;
 import org.mapstruct.Mapper;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Mapper(componentModel = "spring", uses = ItemMapper.class)
 public abstract class InvoiceMapper {
+    //ограничение на размер IN-списка в одном запросе
+    private static final int ITEMS_CHUNK_SIZE = 1000;
+
     @Autowired
-    private PartnerRepository partnerRepository;
-    @Autowired
-    private WorkerRepository workerRepository;
+    private ReferenceCache referenceCache;
     @Autowired
     private ItemRepository itemRepository;
     @Autowired
@@ -27,27 +31,50 @@ public abstract class InvoiceMapper {
     public Invoice dtoToEntity(InvoiceRequestDto dto) {
         Invoice entity = new Invoice();
         entity.setType(dto.getType());
-        entity.setWorker(workerRepository.findById(dto.getWorkerId())
+        entity.setWorker(referenceCache.findWorkerById(dto.getWorkerId())
                 .orElseThrow(() -> new NothingFoundException("Worker", "id = " + dto.getWorkerId())));
-        entity.setPartner(partnerRepository.findById(dto.getPartnerId())
+        entity.setPartner(referenceCache.findPartnerById(dto.getPartnerId())
                 .orElseThrow(() -> new NothingFoundException("Partner", "id = " + dto.getPartnerId())));
         return entity;
     }
 
     public InvoiceResponseDto entityToDto(Invoice entity) {
-        InvoiceResponseDto dto = new InvoiceResponseDto();
-        dto.setId(entity.getId());
-        dto.setType(entity.getType());
-        dto.setDate(entity.getDate());
-        dto.setPartnerName(entity.getPartner().getName());
-        dto.setWorkerName(entity.getWorker().getName());
-        List<ItemResponseDto> list = itemMapper.entityToDto(itemRepository.findAllByInvoiceId(entity.getId()));
-        if (list.isEmpty())
-            throw new NothingFoundException("Item", "invoice id = " + entity.getId());
-        dto.setItems(list);
-        return dto;
+        return entityToDto(List.of(entity)).get(0);
+    }
+
+    public List<InvoiceResponseDto> entityToDto(Iterable<Invoice> entities) {
+        List<InvoiceResponseDto> result = new ArrayList<>();
+        for (Invoice entity : entities)
+            result.add(new InvoiceResponseDto(entity.getId(), entity.getPartner().getName(),
+                    entity.getWorker().getName(), entity.getType(), entity.getDate()));
+        return fillItems(result);
+    }
+
+    //строки всех накладных читаются одним запросом на пачку и раскладываются по накладным в памяти
+    public List<InvoiceResponseDto> fillItems(List<InvoiceResponseDto> dtos) {
+        Map<Long, InvoiceResponseDto> byId = new HashMap<>();
+        for (InvoiceResponseDto dto : dtos)
+            byId.put(dto.getId(), dto);
+
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += ITEMS_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ITEMS_CHUNK_SIZE, ids.size()));
+            LocalDate first = LocalDate.MAX;
+            LocalDate last = LocalDate.MIN;
+            for (Long id : chunk) {
+                LocalDate date = byId.get(id).getDate();
+                first = date.isBefore(first) ? date : first;
+                last = date.isAfter(last) ? date : last;
+            }
+            for (InvoiceItem item : itemRepository.findAllItemsByInvoiceIdIn(chunk, first, last))
+                byId.get(item.getInvoiceId()).getItems().add(itemMapper.projectionToDto(item));
+        }
+
+        for (InvoiceResponseDto dto : dtos)
+            if (dto.getItems().isEmpty())
+                throw new NothingFoundException("Item", "invoice id = " + dto.getId());
+        return dtos;
     }
 
     public abstract List<Invoice> dtoToEntity(Iterable<InvoiceRequestDto> dto);
-    public abstract List<InvoiceResponseDto> entityToDto(Iterable<Invoice> entity);
 }
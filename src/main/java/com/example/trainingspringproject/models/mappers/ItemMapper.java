@@ -4,6 +4,7 @@ import com.example.trainingspringproject.exceptions.NothingFoundException;
 import com.example.trainingspringproject.models.dtos.ItemRequestDto;
 import com.example.trainingspringproject.models.dtos.ItemResponseDto;
 import com.example.trainingspringproject.models.entities.Item;
+import com.example.trainingspringproject.models.projections.InvoiceItem;
 import com.example.trainingspringproject.repositories.InvoiceRepository;
 import com.example.trainingspringproject.repositories.ProductRepository;
 import org.mapstruct.Mapper;
@@ -24,12 +25,14 @@ public abstract class ItemMapper {
         item.setQuantity(dto.getQuantity());
         item.setInvoice(invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new NothingFoundException("Invoice", "id = " + invoiceId)));
+        item.setInvoiceDate(item.getInvoice().getDate());
         item.setProduct(productRepository.findById(dto.getProductId())
                 .orElseThrow(() -> new NothingFoundException("Product", "id = " + dto.getProductId())));
         return item;
     }
     @Mapping(target = "productId", expression = "java(entity.getProduct().getId())")
     public abstract ItemResponseDto entityToDto(Item entity);
+    public abstract ItemResponseDto projectionToDto(InvoiceItem projection);
 
     public abstract List<Item> dtoToEntity(Iterable<ItemRequestDto> dto);
     public abstract List<ItemResponseDto> entityToDto(Iterable<Item> entity);
@@ -3,8 +3,7 @@ package com.example.trainingspringproject.models.mappers;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
 import com.example.trainingspringproject.models.dtos.ProductDto;
 import com.example.trainingspringproject.models.entities.Product;
-import com.example.trainingspringproject.repositories.ProducerRepository;
-import com.example.trainingspringproject.repositories.ProductGroupRepository;
+import com.example.trainingspringproject.repositories.ReferenceCache;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,9 +13,7 @@ import java.util.List;
 @Mapper(componentModel = "spring")
 public abstract class ProductMapper {
     @Autowired
-    private ProducerRepository producerRepository;
-    @Autowired
-    private ProductGroupRepository groupRepository;
+    private ReferenceCache referenceCache;
 
     public Product dtoToEntity(ProductDto dto) {
         Product product = new Product();
@@ -26,14 +23,15 @@ public abstract class ProductMapper {
         product.setDescription(dto.getDescription());
         product.setIncomePrice(dto.getIncomePrice());
         product.setOutcomePrice(dto.getOutcomePrice());
-        product.setProductGroup(groupRepository.findByName(dto.getProductGroupName())
+        product.setProductGroup(referenceCache.findProductGroupByName(dto.getProductGroupName())
                 .orElseThrow(() -> new NothingFoundException("Product group", "name = " + dto.getProductGroupName())));
-        product.setProducer(producerRepository.findByName(dto.getProducerName())
+        product.setProducer(referenceCache.findProducerByName(dto.getProducerName())
                 .orElseThrow(() -> new NothingFoundException("Producer", "name = " + dto.getProducerName())));
         return product;
     }
     @Mapping(target = "productGroupName", expression = "java(entity.getProductGroup().getName())")
     @Mapping(target = "producerName", expression = "java(entity.getProducer().getName())")
+    @Mapping(target = "quantity", source = "stock")
     public abstract ProductDto entityToDto(Product entity);
 
     public abstract List<Product> dtoToEntity(Iterable<ProductDto> dto);
@@ -0,0 +1,9 @@
+package com.example.trainingspringproject.models.projections;
+
+public interface InvoiceItem {
+    Long getInvoiceId();
+    Long getId();
+    Long getProductId();
+    Integer getQuantity();
+    Double getPrice();
+}
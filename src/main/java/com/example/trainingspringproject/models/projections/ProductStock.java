@@ -0,0 +1,10 @@
+package com.example.trainingspringproject.models.projections;
+
+public interface ProductStock {
+    Long getId();
+    String getName();
+    Integer getQuantity();
+    Double getIncomePrice();
+    Double getOutcomePrice();
+    Long getVersion();
+}
@@ -0,0 +1,172 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.models.dtos.SalesReportDto;
+import com.example.trainingspringproject.models.enums.ReportDimension;
+import com.example.trainingspringproject.models.enums.ReportPeriod;
+import com.example.trainingspringproject.config.WarehouseProperties;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+//таблица daily_sales без сущности: пишется только приращениями и пересчетом, читается только отчетами
+@Repository
+public class DailySalesRepository {
+    //пространство advisory-блокировок по дням: проводки берут разделяемую, пересчет — исключительную
+    private static final int DAY_LOCK = 7001;
+
+    private static final String INSERT = "INSERT INTO daily_sales (day, partner_id, product_id, stripe, " +
+            "income_units, income_amount, outcome_units, outcome_amount, outcome_cost) ";
+    private static final String MERGE = " ON CONFLICT (day, partner_id, product_id, stripe) DO UPDATE SET " +
+            "income_units = daily_sales.income_units + EXCLUDED.income_units, " +
+            "income_amount = daily_sales.income_amount + EXCLUDED.income_amount, " +
+            "outcome_units = daily_sales.outcome_units + EXCLUDED.outcome_units, " +
+            "outcome_amount = daily_sales.outcome_amount + EXCLUDED.outcome_amount, " +
+            "outcome_cost = daily_sales.outcome_cost + EXCLUDED.outcome_cost";
+    private static final String ADD = INSERT + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)" + MERGE;
+    //цена прихода удаленной накладной не хранится: себестоимость вычитается по средней за день
+    private static final String SUBTRACT_INVOICE = INSERT +
+            "SELECT s.day, s.partner_id, s.product_id, ?, -s.income_units, -s.income_amount, " +
+            "-s.outcome_units, -s.outcome_amount, -s.outcome_units * COALESCE(" + unitCost("s") + ", 0) " +
+            "FROM (" + aggregate("i.id = ? AND i.date = ? AND it.invoice_date = ?") + ") s" + MERGE;
+    //себестоимость пересчитанных дней берется из заменяемых строк, цена прихода товара — только для новых ключей
+    private static final String SAVE_UNIT_COSTS =
+            "INSERT INTO daily_unit_cost SELECT k.day, k.partner_id, k.product_id, " + unitCost("k") + " " +
+            "FROM (SELECT DISTINCT day, partner_id, product_id FROM daily_sales WHERE day BETWEEN ? AND ?) k";
+    private static final String REBUILD = INSERT +
+            "SELECT a.day, a.partner_id, a.product_id, 0, a.income_units, a.income_amount, a.outcome_units, " +
+            "a.outcome_amount, a.outcome_units * COALESCE(c.unit_cost, p.income_price) " +
+            "FROM (" + aggregate("i.date BETWEEN ? AND ? AND it.invoice_date BETWEEN ? AND ?") + ") a " +
+            "JOIN product p ON p.id = a.product_id " +
+            "LEFT JOIN daily_unit_cost c ON c.day = a.day AND c.partner_id = a.partner_id AND c.product_id = a.product_id";
+    private static final String REPORT =
+            "SELECT %1$s AS period, %2$s AS id, %3$s AS name, SUM(d.income_units), SUM(d.income_amount), " +
+            "SUM(d.outcome_units), SUM(d.outcome_amount), SUM(d.outcome_amount - d.outcome_cost) " +
+            "FROM daily_sales d JOIN product p ON p.id = d.product_id JOIN prod_group g ON g.id = p.group_id " +
+            "JOIN producer pr ON pr.id = p.producer_id JOIN partner pa ON pa.id = d.partner_id " +
+            "WHERE d.day BETWEEN ? AND ? GROUP BY %1$s, %2$s, %3$s ORDER BY %1$s, %2$s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int stripes;
+
+    public DailySalesRepository(JdbcTemplate jdbcTemplate, WarehouseProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stripes = properties.getReports().getStripes();
+    }
+
+    //дата накладной повторяется для item: без условия на invoice_date читались бы все секции item
+    private static String aggregate(String condition) {
+        return "SELECT i.date AS day, i.partner_id, it.product_id, " +
+                "SUM(CASE WHEN i.type = 0 THEN it.quantity ELSE 0 END) AS income_units, " +
+                "SUM(CASE WHEN i.type = 0 THEN it.quantity * it.price::DOUBLE PRECISION ELSE 0 END) AS income_amount, " +
+                "SUM(CASE WHEN i.type = 1 THEN it.quantity ELSE 0 END) AS outcome_units, " +
+                "SUM(CASE WHEN i.type = 1 THEN it.quantity * it.price::DOUBLE PRECISION ELSE 0 END) AS outcome_amount " +
+                "FROM invoice i JOIN item it ON it.invoice_id = i.id AND it.invoice_date = i.date WHERE " + condition + " " +
+                "GROUP BY i.date, i.partner_id, it.product_id";
+    }
+
+    //средняя себестоимость единицы по всем полосам ключа
+    private static String unitCost(String key) {
+        return "(SELECT SUM(d.outcome_cost) / NULLIF(SUM(d.outcome_units), 0) FROM daily_sales d " +
+                "WHERE d.day = " + key + ".day AND d.partner_id = " + key + ".partner_id AND d.product_id = " + key + ".product_id)";
+    }
+
+    //приращения должны быть уникальны по ключу и идти в порядке ключа
+    public void add(Collection<Delta> deltas) {
+        if (deltas.isEmpty())
+            return;
+        int stripe = stripe();
+        TreeSet<LocalDate> days = new TreeSet<>();
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            days.add(delta.getDay());
+            args.add(new Object[]{Date.valueOf(delta.getDay()), delta.getPartnerId(), delta.getProductId(), stripe,
+                    delta.getIncomeUnits(), delta.getIncomeAmount(), delta.getOutcomeUnits(), delta.getOutcomeAmount(),
+                    delta.getOutcomeCost()});
+        }
+        days.forEach(this::lockDay);
+        StatementCounter.add(1);
+        jdbcTemplate.batchUpdate(ADD, args);
+    }
+
+    //вызывается до удаления строк накладной
+    public void subtractInvoice(Long invoiceId) {
+        LocalDate day = jdbcTemplate.queryForObject("SELECT date FROM invoice WHERE id = ?", LocalDate.class, invoiceId);
+        lockDay(day);
+        StatementCounter.add(2);
+        jdbcTemplate.update(SUBTRACT_INVOICE, stripe(), invoiceId, Date.valueOf(day), Date.valueOf(day));
+    }
+
+    //пересчет диапазона дней с нуля; проводки за эти дни ждут его коммита
+    public long rebuild(LocalDate from, LocalDate to) {
+        StatementCounter.add(5);
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, (d::date - DATE '1970-01-01')) " +
+                "FROM generate_series(?::date, ?::date, INTERVAL '1 day') d", rs -> {
+        }, DAY_LOCK, Date.valueOf(from), Date.valueOf(to));
+        jdbcTemplate.execute("CREATE TEMP TABLE daily_unit_cost (day DATE, partner_id BIGINT, product_id BIGINT, " +
+                "unit_cost DOUBLE PRECISION) ON COMMIT DROP");
+        jdbcTemplate.update(SAVE_UNIT_COSTS, Date.valueOf(from), Date.valueOf(to));
+        jdbcTemplate.update("DELETE FROM daily_sales WHERE day BETWEEN ? AND ?", Date.valueOf(from), Date.valueOf(to));
+        return jdbcTemplate.update(REBUILD, Date.valueOf(from), Date.valueOf(to), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<SalesReportDto> report(ReportDimension by, ReportPeriod period, LocalDate from, LocalDate to) {
+        StatementCounter.add(1);
+        return jdbcTemplate.query(String.format(REPORT, period.getColumn(), by.getIdColumn(), by.getNameColumn()),
+                (rs, rowNum) -> new SalesReportDto(rs.getObject(1, LocalDate.class), rs.getLong(2), rs.getString(3),
+                        rs.getLong(4), rs.getDouble(5), rs.getLong(6), rs.getDouble(7), rs.getDouble(8)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<LocalDate> findInvoiceDateRange() {
+        StatementCounter.add(1);
+        return jdbcTemplate.query("SELECT min(date), max(date) FROM invoice",
+                (rs, rowNum) -> {
+                    List<LocalDate> range = new ArrayList<>();
+                    range.add(rs.getObject(1, LocalDate.class));
+                    range.add(rs.getObject(2, LocalDate.class));
+                    return range;
+                }).get(0);
+    }
+
+    //полоса по потоку, как у остатков: одновременные проводки одного товара пишут в разные строки
+    private int stripe() {
+        return (int) Math.floorMod(Thread.currentThread().getId(), (long) stripes);
+    }
+
+    private void lockDay(LocalDate day) {
+        StatementCounter.add(1);
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(?, ?)", rs -> {
+        }, DAY_LOCK, (int) day.toEpochDay());
+    }
+
+    @Value
+    public static class Delta {
+        public static final Comparator<Delta> KEY_ORDER = Comparator.comparing(Delta::getDay)
+                .thenComparing(Delta::getPartnerId)
+                .thenComparing(Delta::getProductId);
+
+        LocalDate day;
+        Long partnerId;
+        Long productId;
+        long incomeUnits;
+        double incomeAmount;
+        long outcomeUnits;
+        double outcomeAmount;
+        //units × цена прихода на момент проводки
+        double outcomeCost;
+
+        public Delta plus(Delta other) {
+            return new Delta(day, partnerId, productId, incomeUnits + other.incomeUnits, incomeAmount + other.incomeAmount,
+                    outcomeUnits + other.outcomeUnits, outcomeAmount + other.outcomeAmount, outcomeCost + other.outcomeCost);
+        }
+    }
+}
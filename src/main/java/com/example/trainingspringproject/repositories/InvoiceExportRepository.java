@@ -0,0 +1,12 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.enums.TransactionType;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+public interface InvoiceExportRepository {
+    //отдает накладные по одной, в порядке id; фильтры, равные null, не применяются
+    void exportAll(LocalDate from, LocalDate to, TransactionType type, Consumer<InvoiceResponseDto> consumer);
+}
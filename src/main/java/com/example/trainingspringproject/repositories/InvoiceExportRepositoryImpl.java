@@ -0,0 +1,97 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.dtos.ItemResponseDto;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class InvoiceExportRepositoryImpl implements InvoiceExportRepository {
+    //строки одной накладной идут подряд, поэтому в памяти держится только текущая накладная
+    private static final String SELECT_INVOICES =
+            "SELECT i.id, i.type, i.date, p.name AS partner_name, w.name AS worker_name, " +
+                    "it.id AS item_id, it.product_id, it.quantity, it.price " +
+                    "FROM invoice i " +
+                    "JOIN partner p ON p.id = i.partner_id " +
+                    "JOIN worker w ON w.id = i.worker_id " +
+                    "JOIN item it ON it.invoice_id = i.id AND it.invoice_date = i.date";
+    private static final String ORDER = " ORDER BY i.id, it.id";
+    //без транзакции драйвер PostgreSQL игнорирует fetch size и читает всю выборку сразу
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void exportAll(LocalDate from, LocalDate to, TransactionType type, Consumer<InvoiceResponseDto> consumer) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        //диапазон повторяется для item: планировщик не переносит неравенства через соединение,
+        //а без них строки читались бы из всех секций item
+        if (from != null) {
+            conditions.add("i.date >= ? AND it.invoice_date >= ?");
+            args.add(from);
+            args.add(from);
+        }
+        if (to != null) {
+            conditions.add("i.date <= ? AND it.invoice_date <= ?");
+            args.add(to);
+            args.add(to);
+        }
+        if (type != null) {
+            conditions.add("i.type = ?");
+            args.add(type.ordinal());
+        }
+        String sql = SELECT_INVOICES + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) + ORDER;
+
+        InvoiceCollector collector = new InvoiceCollector(consumer);
+        StatementCounter.add(1);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++)
+                statement.setObject(i + 1, args.get(i));
+            return statement;
+        }, collector);
+        collector.finish();
+    }
+
+    private static class InvoiceCollector implements RowCallbackHandler {
+        private final Consumer<InvoiceResponseDto> consumer;
+        private InvoiceResponseDto current;
+
+        InvoiceCollector(Consumer<InvoiceResponseDto> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || !current.getId().equals(id)) {
+                finish();
+                current = new InvoiceResponseDto(id, rs.getString("partner_name"), rs.getString("worker_name"),
+                        TransactionType.values()[rs.getInt("type")], rs.getObject("date", LocalDate.class),
+                        new ArrayList<>());
+            }
+            current.getItems().add(new ItemResponseDto(rs.getLong("item_id"), rs.getLong("product_id"),
+                    rs.getInt("quantity"), rs.getDouble("price")));
+        }
+
+        void finish() {
+            if (current != null)
+                consumer.accept(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+//секции invoice и item создаются и отсоединяются функциями из V09 всегда парами за один месяц
+@Repository
+@RequiredArgsConstructor
+public class InvoicePartitionRepository {
+    //месяц берется из границ секции (FOR VALUES FROM ('...') TO ('...')), а не из ее имени;
+    //у секции DEFAULT нижней границы нет
+    private static final String FIND_MONTHS =
+            "SELECT first_day FROM (SELECT " +
+            "(regexp_match(pg_get_expr(c.relpartbound, c.oid), 'FROM \\(''([^'']+)''\\)'))[1]::date AS first_day " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'invoice'::regclass) bounds " +
+            "WHERE first_day IS NOT NULL ORDER BY first_day";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int createPartitions(LocalDate from, LocalDate to) {
+        StatementCounter.add(1);
+        Integer created = jdbcTemplate.queryForObject("SELECT create_invoice_partitions(?, ?)", Integer.class, from, to);
+        return created == null ? 0 : created;
+    }
+
+    public boolean detachPartition(LocalDate month) {
+        StatementCounter.add(1);
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT detach_invoice_partition(?)", Boolean.class, month));
+    }
+
+    //накладные в invoice_default: месяцы, для которых секции не нашлось
+    public long countUnpartitioned() {
+        StatementCounter.add(1);
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_default", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    //первые дни месяцев, секции которых присоединены к invoice
+    public List<LocalDate> findAttachedMonths() {
+        StatementCounter.add(1);
+        return jdbcTemplate.queryForList(FIND_MONTHS, LocalDate.class);
+    }
+}
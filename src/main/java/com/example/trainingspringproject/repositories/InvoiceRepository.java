@@ -1,15 +1,51 @@
 package com.example.trainingspringproject.repositories;
 
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
 import com.example.trainingspringproject.models.entities.Invoice;
 import com.example.trainingspringproject.models.enums.TransactionType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface InvoiceRepository extends CrudRepository<Invoice, Long> {
-    List<Invoice> findAllByPartnerId(Long partnerId);
-    List<Invoice> findAllByWorkerId(Long workerId);
-    List<Invoice> findAllByType(TransactionType type);
-    List<Invoice> findAllByDate(LocalDate date);
+public interface InvoiceRepository extends CrudRepository<Invoice, Long>, InvoiceExportRepository {
+    @Override
+    @EntityGraph(Invoice.FOR_DTO)
+    Optional<Invoice> findById(Long id);
+
+    @Override
+    @EntityGraph(Invoice.FOR_DTO)
+    Iterable<Invoice> findAll();
+
+    //заголовки накладных сразу в DTO, строки к ним дочитывает InvoiceMapper.fillItems
+    String SELECT_DTO = "select new com.example.trainingspringproject.models.dtos.InvoiceResponseDto(" +
+            "i.id, p.name, w.name, i.type, i.date) from Invoice i join i.partner p join i.worker w ";
+
+    @Query(SELECT_DTO + "where i.id > :id")
+    List<InvoiceResponseDto> findDtosByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where i.id in :ids")
+    List<InvoiceResponseDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "where p.id = :partnerId and i.id > :id")
+    List<InvoiceResponseDto> findDtosByPartnerIdAndIdGreaterThan(@Param("partnerId") Long partnerId,
+                                                                 @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where w.id = :workerId and i.id > :id")
+    List<InvoiceResponseDto> findDtosByWorkerIdAndIdGreaterThan(@Param("workerId") Long workerId,
+                                                                @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where i.type = :type and i.id > :id")
+    List<InvoiceResponseDto> findDtosByTypeAndIdGreaterThan(@Param("type") TransactionType type,
+                                                            @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where i.date = :date and i.id > :id")
+    List<InvoiceResponseDto> findDtosByDateAndIdGreaterThan(@Param("date") LocalDate date,
+                                                            @Param("id") Long id, Pageable pageable);
 }
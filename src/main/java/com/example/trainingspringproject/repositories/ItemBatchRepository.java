@@ -0,0 +1,9 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.models.entities.Item;
+
+import java.util.List;
+
+public interface ItemBatchRepository {
+    void insertAll(List<Item> items);
+}
@@ -0,0 +1,38 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.entities.Item;
+import com.example.trainingspringproject.models.entities.Product;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class ItemBatchRepositoryImpl implements ItemBatchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    public void insertAll(List<Item> items) {
+        if (items.isEmpty())
+            return;
+        //id берутся из последовательности блоками, поэтому Hibernate собирает вставки
+        //в JDBC-батчи по hibernate.jdbc.batch_size
+        for (int from = 0; from < items.size(); from += batchSize) {
+            List<Item> batch = items.subList(from, Math.min(from + batchSize, items.size()));
+            for (Item item : batch) {
+                //у Product есть @Version: экземпляр с одним id без версии Hibernate счел бы новым
+                item.setInvoice(entityManager.getReference(Invoice.class, item.getInvoice().getId()));
+                item.setProduct(entityManager.getReference(Product.class, item.getProduct().getId()));
+                entityManager.persist(item);
+            }
+            //отчет о проводке считает запросы, поэтому строки уходят в базу сразу, а не при коммите.
+            //записанные строки больше не меняются: без отсоединения контекст рос бы с размером пачки импорта
+            entityManager.flush();
+            batch.forEach(entityManager::detach);
+        }
+    }
+}
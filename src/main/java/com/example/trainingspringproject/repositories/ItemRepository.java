@@ -1,10 +1,29 @@
 package com.example.trainingspringproject.repositories;
 
 import com.example.trainingspringproject.models.entities.Item;
+import com.example.trainingspringproject.models.projections.InvoiceItem;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
-public interface ItemRepository extends CrudRepository<Item, Long> {
+public interface ItemRepository extends CrudRepository<Item, Long>, ItemBatchRepository {
     List<Item> findAllByInvoiceId(Long invoiceId);
+
+    //строки накладных без загрузки товаров: для DTO достаточно id товара.
+    //диапазон дат накладных отсекает секции item других месяцев
+    @Query("select i.invoice.id as invoiceId, i.id as id, i.product.id as productId, " +
+            "i.quantity as quantity, i.price as price " +
+            "from Item i where i.invoice.id in :invoiceIds and i.invoiceDate between :from and :to " +
+            "order by i.invoice.id, i.id")
+    List<InvoiceItem> findAllItemsByInvoiceIdIn(@Param("invoiceIds") Collection<Long> invoiceIds,
+                                                @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from Item i where i.invoice.id = :invoiceId")
+    int deleteAllByInvoiceId(@Param("invoiceId") Long invoiceId);
 }
@@ -1,14 +1,41 @@
 package com.example.trainingspringproject.repositories;
 
+import com.example.trainingspringproject.models.dtos.PartnerDto;
 import com.example.trainingspringproject.models.entities.Partner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface PartnerRepository extends CrudRepository<Partner, Long> {
+    //в кэше запросов лежит только id, сама запись берется из региона сущности
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Partner> findByName(String name);
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Partner> findByRequisites(String requisites);
-    List<Partner> findAllByAddressLike(String address);
-    List<Partner> findAllByEmailLike(String email);
+
+    String SELECT_DTO = "select new com.example.trainingspringproject.models.dtos.PartnerDto(" +
+            "p.id, p.name, p.address, p.email, p.requisites) from Partner p ";
+
+    @Query(SELECT_DTO + "where p.id > :id")
+    List<PartnerDto> findDtosByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where p.id in :ids")
+    List<PartnerDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "where p.address like :address and p.id > :id")
+    List<PartnerDto> findDtosByAddressLikeAndIdGreaterThan(@Param("address") String address, @Param("id") Long id,
+                                                           Pageable pageable);
+
+    @Query(SELECT_DTO + "where p.email like :email and p.id > :id")
+    List<PartnerDto> findDtosByEmailLikeAndIdGreaterThan(@Param("email") String email, @Param("id") Long id,
+                                                         Pageable pageable);
 }
@@ -1,12 +1,34 @@
 package com.example.trainingspringproject.repositories;
 
+import com.example.trainingspringproject.models.dtos.ProducerDto;
 import com.example.trainingspringproject.models.entities.Producer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface ProducerRepository extends CrudRepository<Producer, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Producer> findByName(String name);
-    List<Producer> findAllByAddressLike(String address);
+
+    String SELECT_DTO = "select new com.example.trainingspringproject.models.dtos.ProducerDto(p.id, p.name, p.address) " +
+            "from Producer p ";
+
+    @Query(SELECT_DTO + "where p.id > :id")
+    List<ProducerDto> findDtosByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where p.id in :ids")
+    List<ProducerDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "where p.address like :address and p.id > :id")
+    List<ProducerDto> findDtosByAddressLikeAndIdGreaterThan(@Param("address") String address, @Param("id") Long id,
+                                                            Pageable pageable);
 }
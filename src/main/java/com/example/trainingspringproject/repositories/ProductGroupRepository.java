@@ -1,10 +1,30 @@
 package com.example.trainingspringproject.repositories;
 
+import com.example.trainingspringproject.models.dtos.ProductGroupDto;
 import com.example.trainingspringproject.models.entities.ProductGroup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface ProductGroupRepository extends CrudRepository<ProductGroup, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<ProductGroup> findByName(String name);
+
+    String SELECT_DTO = "select new com.example.trainingspringproject.models.dtos.ProductGroupDto(g.id, g.name) " +
+            "from ProductGroup g ";
+
+    @Query(SELECT_DTO + "where g.id > :id")
+    List<ProductGroupDto> findDtosByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where g.id in :ids")
+    List<ProductGroupDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,12 +1,68 @@
 package com.example.trainingspringproject.repositories;
 
+import com.example.trainingspringproject.models.dtos.ProductDto;
 import com.example.trainingspringproject.models.entities.Product;
+import com.example.trainingspringproject.models.projections.ProductStock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends CrudRepository<Product, Long> {
-    List<Product> findAllByNameLike(String name);
-    List<Product> findAllByProducerId(Long producerId);
-    List<Product> findAllByProductGroupId(Long productGroupId);
+public interface ProductRepository extends CrudRepository<Product, Long>, ProductStockRepository,
+        ProductSearchRepository {
+    @Override
+    @EntityGraph(Product.WITH_GROUP_AND_PRODUCER)
+    Optional<Product> findById(Long id);
+
+    @Override
+    @EntityGraph(Product.WITH_GROUP_AND_PRODUCER)
+    Iterable<Product> findAll();
+
+    @Query("select p.id as id, p.name as name, p.stock as quantity, p.incomePrice as incomePrice, " +
+            "p.outcomePrice as outcomePrice, p.version as version from Product p where p.id in :ids")
+    List<ProductStock> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    //списки отдаются сразу в DTO, без сущностей в контексте
+    String SELECT_DTO = "select new com.example.trainingspringproject.models.dtos.ProductDto(" +
+            "p.id, p.name, p.description, g.name, pr.name, p.stock, p.incomePrice, p.outcomePrice) " +
+            "from Product p join p.productGroup g join p.producer pr ";
+
+    @Query(SELECT_DTO + "where p.id > :id")
+    List<ProductDto> findDtosByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where p.id in :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "where p.name like :name and p.id > :id")
+    List<ProductDto> findDtosByNameLikeAndIdGreaterThan(@Param("name") String name, @Param("id") Long id,
+                                                        Pageable pageable);
+
+    @Query(SELECT_DTO + "where pr.id = :producerId and p.id > :id")
+    List<ProductDto> findDtosByProducerIdAndIdGreaterThan(@Param("producerId") Long producerId, @Param("id") Long id,
+                                                          Pageable pageable);
+
+    @Query(SELECT_DTO + "where g.id = :groupId and p.id > :id")
+    List<ProductDto> findDtosByProductGroupIdAndIdGreaterThan(@Param("groupId") Long groupId, @Param("id") Long id,
+                                                              Pageable pageable);
+
+    //переименование группы или производителя меняет текст поиска всех его товаров
+    String REFRESH_SEARCH_TEXT = "UPDATE product p SET search_text = concat_ws(' ', p.name, p.description, g.name, pr.name) " +
+            "FROM prod_group g, producer pr WHERE g.id = p.group_id AND pr.id = p.producer_id ";
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = REFRESH_SEARCH_TEXT + "AND p.group_id = :groupId", nativeQuery = true)
+    int refreshSearchTextByGroupId(@Param("groupId") Long groupId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = REFRESH_SEARCH_TEXT + "AND p.producer_id = :producerId", nativeQuery = true)
+    int refreshSearchTextByProducerId(@Param("producerId") Long producerId);
 }
@@ -0,0 +1,10 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.models.dtos.ProductDto;
+
+import java.util.List;
+
+public interface ProductSearchRepository {
+    //text — запрос как есть, для триграмм; prefixQuery — tsquery вида 'слово:* & слово:*'
+    List<ProductDto> search(String text, String prefixQuery, int limit);
+}
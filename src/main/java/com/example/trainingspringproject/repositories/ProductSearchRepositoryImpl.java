@@ -0,0 +1,34 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.models.dtos.ProductDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+    //сначала top-K по индексам и рангу, затем соединение только этих строк со справочниками.
+    //остаток считается той же функцией stock_of, что и Product.stock
+    private static final String SEARCH =
+            "SELECT p.id, p.name, p.description, g.name, pr.name, " +
+            "stock_of(p.id), " +
+            "p.income_price, p.outcome_price " +
+            "FROM (SELECT id, ts_rank(search_vector, q) + word_similarity(?, search_text) AS rank " +
+            "      FROM product, to_tsquery('simple', ?) q " +
+            "      WHERE search_vector @@ q OR ? <% search_text " +
+            "      ORDER BY rank DESC, id LIMIT ?) r " +
+            "JOIN product p ON p.id = r.id JOIN prod_group g ON g.id = p.group_id JOIN producer pr ON pr.id = p.producer_id " +
+            "ORDER BY r.rank DESC, r.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ProductDto> search(String text, String prefixQuery, int limit) {
+        StatementCounter.add(1);
+        return jdbcTemplate.query(SEARCH, (rs, rowNum) -> new ProductDto(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getString(5), rs.getInt(6), rs.getDouble(7), rs.getDouble(8)),
+                text, prefixQuery, text, limit);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.trainingspringproject.repositories;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProductStockRepository {
+    int[] changeQuantities(Map<Long, Integer> deltas);
+    int[] compareAndSetQuantities(Map<Long, Integer> quantities, Map<Long, Long> expectedVersions);
+
+    //полоса 0 — строка самого товара, полосы 1..N-1 — строки product_stripe
+    boolean changeStripeQuantity(Long productId, int stripe, int delta);
+    Map<Integer, Integer> lockStripes(Long productId);
+    void setStripeQuantities(Long productId, Map<Integer, Integer> quantities);
+    boolean hasStripes();
+    void rebuildStripes(Collection<Long> productIds, int stripes);
+    void clearStripes(Long productId);
+}
@@ -0,0 +1,129 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+    //количество не может уйти в минус: такая строка просто не обновится
+    private static final String CHANGE_QUANTITY =
+            "UPDATE product SET quantity = quantity + ?, version = version + 1 WHERE id = ? AND quantity + ? >= 0";
+    private static final String COMPARE_AND_SET_QUANTITY =
+            "UPDATE product SET quantity = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String CHANGE_STRIPE_QUANTITY =
+            "UPDATE product_stripe SET quantity = quantity + ? WHERE product_id = ? AND stripe = ? AND quantity + ? >= 0";
+    private static final String SET_QUANTITY =
+            "UPDATE product SET quantity = ?, version = version + 1 WHERE id = ?";
+    private static final String SET_STRIPE_QUANTITY =
+            "UPDATE product_stripe SET quantity = ? WHERE product_id = ? AND stripe = ?";
+    //полосы товаров не из списка и полосы сверх нужного числа сливаются обратно в строку товара
+    private static final String FOLD_STRIPES =
+            "WITH folded AS (DELETE FROM product_stripe WHERE NOT (product_id = ANY(?) AND stripe < ?) " +
+                    "RETURNING product_id, quantity) " +
+            "UPDATE product p SET quantity = p.quantity + f.quantity, version = p.version + 1 " +
+            "FROM (SELECT product_id, SUM(quantity) AS quantity FROM folded GROUP BY product_id) f " +
+            "WHERE p.id = f.product_id";
+    private static final String CREATE_STRIPES =
+            "INSERT INTO product_stripe (product_id, stripe, quantity) " +
+            "SELECT p.id, s, 0 FROM product p CROSS JOIN generate_series(1, ? - 1) s WHERE p.id = ANY(?) " +
+            "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] changeQuantities(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty())
+            return new int[0];
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> args.add(new Object[]{delta, id, delta}));
+        StatementCounter.add(1);
+        return jdbcTemplate.batchUpdate(CHANGE_QUANTITY, args);
+    }
+
+    @Override
+    public int[] compareAndSetQuantities(Map<Long, Integer> quantities, Map<Long, Long> expectedVersions) {
+        if (quantities.isEmpty())
+            return new int[0];
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> args.add(new Object[]{quantity, id, expectedVersions.get(id)}));
+        StatementCounter.add(1);
+        return jdbcTemplate.batchUpdate(COMPARE_AND_SET_QUANTITY, args);
+    }
+
+    @Override
+    public boolean changeStripeQuantity(Long productId, int stripe, int delta) {
+        StatementCounter.add(1);
+        if (stripe == 0)
+            return jdbcTemplate.update(CHANGE_QUANTITY, delta, productId, delta) != 0;
+        return jdbcTemplate.update(CHANGE_STRIPE_QUANTITY, delta, productId, stripe, delta) != 0;
+    }
+
+    //блокирует строку товара и все его полосы, всегда в одном порядке: товар, затем полосы по возрастанию
+    @Override
+    public Map<Integer, Integer> lockStripes(Long productId) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        StatementCounter.add(2);
+        jdbcTemplate.query("SELECT quantity FROM product WHERE id = ? FOR UPDATE",
+                rs -> {
+                    quantities.put(0, rs.getInt(1));
+                }, productId);
+        jdbcTemplate.query("SELECT stripe, quantity FROM product_stripe WHERE product_id = ? ORDER BY stripe FOR UPDATE",
+                rs -> {
+                    quantities.put(rs.getInt(1), rs.getInt(2));
+                }, productId);
+        return quantities;
+    }
+
+    @Override
+    public void setStripeQuantities(Long productId, Map<Integer, Integer> quantities) {
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((stripe, quantity) -> {
+            if (stripe == 0) {
+                StatementCounter.add(1);
+                jdbcTemplate.update(SET_QUANTITY, quantity, productId);
+            } else {
+                args.add(new Object[]{quantity, productId, stripe});
+            }
+        });
+        if (!args.isEmpty()) {
+            StatementCounter.add(1);
+            jdbcTemplate.batchUpdate(SET_STRIPE_QUANTITY, args);
+        }
+    }
+
+    @Override
+    public boolean hasStripes() {
+        StatementCounter.add(1);
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS(SELECT 1 FROM product_stripe)",
+                Boolean.class));
+    }
+
+    //несколько экземпляров приложения пересобирают полосы по очереди
+    @Override
+    public void rebuildStripes(Collection<Long> productIds, int stripes) {
+        Long[] ids = productIds.toArray(new Long[0]);
+        StatementCounter.add(3);
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(7003)");
+        jdbcTemplate.update(FOLD_STRIPES, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setInt(2, stripes);
+        });
+        jdbcTemplate.update(CREATE_STRIPES, ps -> {
+            ps.setInt(1, stripes);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids));
+        });
+    }
+
+    @Override
+    public void clearStripes(Long productId) {
+        StatementCounter.add(1);
+        jdbcTemplate.update("UPDATE product_stripe SET quantity = 0 WHERE product_id = ?", productId);
+    }
+}
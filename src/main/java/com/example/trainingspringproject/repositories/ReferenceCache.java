@@ -0,0 +1,43 @@
+package com.example.trainingspringproject.repositories;
+
+import com.example.trainingspringproject.config.CacheConfig;
+import com.example.trainingspringproject.models.entities.Partner;
+import com.example.trainingspringproject.models.entities.Producer;
+import com.example.trainingspringproject.models.entities.ProductGroup;
+import com.example.trainingspringproject.models.entities.Worker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+//справочники для мапперов; сервисы читают и пишут их мимо кэша и сбрасывают его при изменениях.
+//закэшированные сущности общие для всех потоков и не должны изменяться
+@Component
+@RequiredArgsConstructor
+public class ReferenceCache {
+    private final ProductGroupRepository productGroupRepository;
+    private final ProducerRepository producerRepository;
+    private final WorkerRepository workerRepository;
+    private final PartnerRepository partnerRepository;
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_GROUPS_BY_NAME, unless = "#result == null")
+    public Optional<ProductGroup> findProductGroupByName(String name) {
+        return productGroupRepository.findByName(name);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCERS_BY_NAME, unless = "#result == null")
+    public Optional<Producer> findProducerByName(String name) {
+        return producerRepository.findByName(name);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.WORKERS_BY_ID, unless = "#result == null")
+    public Optional<Worker> findWorkerById(Long id) {
+        return workerRepository.findById(id);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PARTNERS_BY_ID, unless = "#result == null")
+    public Optional<Partner> findPartnerById(Long id) {
+        return partnerRepository.findById(id);
+    }
+}
@@ -1,12 +1,33 @@
 package com.example.trainingspringproject.repositories;
 
+import com.example.trainingspringproject.models.dtos.WorkerDto;
 import com.example.trainingspringproject.models.entities.Worker;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface WorkerRepository extends CrudRepository<Worker, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Worker> findByName(String name);
-    List<Worker> findAllByJob(String job);
+
+    String SELECT_DTO = "select new com.example.trainingspringproject.models.dtos.WorkerDto(w.id, w.name, w.job) " +
+            "from Worker w ";
+
+    @Query(SELECT_DTO + "where w.id > :id")
+    List<WorkerDto> findDtosByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where w.id in :ids")
+    List<WorkerDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "where w.job = :job and w.id > :id")
+    List<WorkerDto> findDtosByJobAndIdGreaterThan(@Param("job") String job, @Param("id") Long id, Pageable pageable);
 }
@@ -1,5 +1,8 @@
 package com.example.trainingspringproject.services;
 
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+
 import javax.validation.Valid;
 import java.util.List;
 
@@ -8,5 +11,7 @@ public interface BaseService<T> {
     void update(@Valid T dto);
     void delete(Long id);
     T findById(Long id);
+    BatchDto<T> findAllByIds(List<Long> ids);
     List<T> findAll();
+    PageDto<T> findAll(String after, Integer limit);
 }
@@ -0,0 +1,9 @@
+package com.example.trainingspringproject.services;
+
+import com.example.trainingspringproject.models.dtos.CacheStatsDto;
+
+import java.util.List;
+
+public interface CacheService {
+    List<CacheStatsDto> getStats();
+}
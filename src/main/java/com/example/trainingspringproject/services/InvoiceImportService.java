@@ -0,0 +1,10 @@
+package com.example.trainingspringproject.services;
+
+import com.example.trainingspringproject.models.dtos.ImportReportDto;
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+
+import java.util.Iterator;
+
+public interface InvoiceImportService {
+    ImportReportDto importAll(Iterator<InvoiceRequestDto> dtos);
+}
@@ -0,0 +1,9 @@
+package com.example.trainingspringproject.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface InvoicePartitionService {
+    int createFuturePartitions();
+    List<LocalDate> detachExpiredPartitions();
+}
@@ -0,0 +1,11 @@
+package com.example.trainingspringproject.services;
+
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.PostingTicketDto;
+
+import javax.validation.Valid;
+
+public interface InvoicePostingService {
+    PostingTicketDto submit(@Valid InvoiceRequestDto dto);
+    PostingTicketDto findByTicket(String ticket);
+}
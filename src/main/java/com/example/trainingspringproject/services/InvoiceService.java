@@ -1,20 +1,32 @@
 package com.example.trainingspringproject.services;
 
+import com.example.trainingspringproject.models.dtos.BatchDto;
 import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
 import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import com.example.trainingspringproject.models.dtos.PostingReportDto;
 import com.example.trainingspringproject.models.enums.TransactionType;
 
 import javax.validation.Valid;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface InvoiceService {
-    void create(@Valid InvoiceRequestDto dto);
+    PostingReportDto create(@Valid InvoiceRequestDto dto);
+    List<Long> createAll(@Valid List<InvoiceRequestDto> dtos);
     void delete(Long id);
     InvoiceResponseDto findById(Long id);
+    BatchDto<InvoiceResponseDto> findAllByIds(List<Long> ids);
     List<InvoiceResponseDto> findAll();
+    PageDto<InvoiceResponseDto> findAll(String after, Integer limit);
     List<InvoiceResponseDto> findAllByPartnerId(Long id);
+    PageDto<InvoiceResponseDto> findAllByPartnerId(Long id, String after, Integer limit);
     List<InvoiceResponseDto> findAllByWorkerId(Long id);
+    PageDto<InvoiceResponseDto> findAllByWorkerId(Long id, String after, Integer limit);
     List<InvoiceResponseDto> findAllByType(TransactionType type);
+    PageDto<InvoiceResponseDto> findAllByType(TransactionType type, String after, Integer limit);
     List<InvoiceResponseDto> findAllByDate(LocalDate date);
+    PageDto<InvoiceResponseDto> findAllByDate(LocalDate date, String after, Integer limit);
+    void exportAll(LocalDate from, LocalDate to, TransactionType type, Consumer<InvoiceResponseDto> consumer);
 }
@@ -2,12 +2,18 @@ package com.example.trainingspringproject.services;
 
 import com.example.trainingspringproject.models.dtos.ItemRequestDto;
 import com.example.trainingspringproject.models.dtos.ItemResponseDto;
+import com.example.trainingspringproject.models.entities.Invoice;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Map;
 
 public interface ItemService {
     void create(@Valid ItemRequestDto requestDto, Long invoiceId, double price);
+    List<ItemResponseDto> createAll(@Valid List<ItemRequestDto> requestDtos, Invoice invoice, Map<Long, Double> prices);
+    List<ItemResponseDto> createAll(List<Invoice> invoices, Map<Long, List<ItemRequestDto>> requestDtos,
+                                    Map<Long, Map<Long, Double>> prices);
     void delete(Long id);
+    void deleteAllByInvoiceId(Long invoiceId);
     List<ItemResponseDto> findAllByInvoiceId(Long invoiceId);
 }
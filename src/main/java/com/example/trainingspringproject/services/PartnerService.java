@@ -1,5 +1,6 @@
 package com.example.trainingspringproject.services;
 
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.PartnerDto;
 
 import java.util.List;
@@ -8,5 +9,7 @@ public interface PartnerService extends BaseService<PartnerDto> {
     PartnerDto findByName(String name);
     PartnerDto findByRequisites(String requisites);
     List<PartnerDto> findAllByAddressLike(String address);
+    PageDto<PartnerDto> findAllByAddressLike(String address, String after, Integer limit);
     List<PartnerDto> findAllByEmailLike(String email);
+    PageDto<PartnerDto> findAllByEmailLike(String email, String after, Integer limit);
 }
@@ -1,5 +1,6 @@
 package com.example.trainingspringproject.services;
 
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.ProducerDto;
 
 import java.util.List;
@@ -7,4 +8,5 @@ import java.util.List;
 public interface ProducerService extends BaseService<ProducerDto> {
     ProducerDto findByName(String name);
     List<ProducerDto> findAllByAddressLike(String address);
+    PageDto<ProducerDto> findAllByAddressLike(String address, String after, Integer limit);
 }
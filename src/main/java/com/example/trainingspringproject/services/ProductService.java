@@ -1,13 +1,27 @@
 package com.example.trainingspringproject.services;
 
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import com.example.trainingspringproject.models.dtos.ProductAvailabilityDto;
 import com.example.trainingspringproject.models.dtos.ProductDto;
+import com.example.trainingspringproject.models.projections.ProductStock;
 
+import javax.validation.Valid;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService extends BaseService<ProductDto> {
     List<ProductDto> findAllByNameLike(String name);
+    PageDto<ProductDto> findAllByNameLike(String name, String after, Integer limit);
     List<ProductDto> findAllByProducerId(Long producerId);
+    PageDto<ProductDto> findAllByProducerId(Long producerId, String after, Integer limit);
     List<ProductDto> findAllByProductGroupId(Long groupId);
+    PageDto<ProductDto> findAllByProductGroupId(Long groupId, String after, Integer limit);
+    List<ProductDto> search(String query, Integer limit);
+    List<ProductAvailabilityDto> checkAvailability(@Valid List<ItemRequestDto> items);
     void income(Long productId, int quantity);
     void outcome(Long productId, int quantity);
+    Map<Long, ProductStock> income(@Valid List<ItemRequestDto> items);
+    Map<Long, ProductStock> outcome(@Valid List<ItemRequestDto> items);
+    Map<Long, ProductStock> changeStock(List<Map<Long, Integer>> movements);
 }
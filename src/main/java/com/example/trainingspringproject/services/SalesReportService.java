@@ -0,0 +1,20 @@
+package com.example.trainingspringproject.services;
+
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.RebuildReportDto;
+import com.example.trainingspringproject.models.dtos.SalesReportDto;
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.enums.ReportDimension;
+import com.example.trainingspringproject.models.enums.ReportPeriod;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface SalesReportService {
+    void add(List<Invoice> invoices, Map<Long, List<ItemRequestDto>> items, Map<Long, Map<Long, Double>> prices,
+             Map<Long, Double> incomePrices);
+    void remove(Long invoiceId);
+    List<SalesReportDto> report(ReportDimension by, ReportPeriod period, LocalDate from, LocalDate to);
+    RebuildReportDto rebuild(LocalDate from, LocalDate to);
+}
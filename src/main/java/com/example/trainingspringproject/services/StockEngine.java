@@ -0,0 +1,9 @@
+package com.example.trainingspringproject.services;
+
+import java.util.List;
+import java.util.Map;
+
+public interface StockEngine {
+    //возвращает id товаров, остаток которых ушел бы в минус; их остаток не меняется
+    List<Long> changeQuantities(Map<Long, Integer> deltas);
+}
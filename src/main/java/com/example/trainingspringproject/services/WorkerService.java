@@ -1,5 +1,6 @@
 package com.example.trainingspringproject.services;
 
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.WorkerDto;
 
 import java.util.List;
@@ -7,4 +8,5 @@ import java.util.List;
 public interface WorkerService extends BaseService<WorkerDto> {
     WorkerDto findByName(String name);
     List<WorkerDto> findAllByJob(String job);
+    PageDto<WorkerDto> findAllByJob(String job, String after, Integer limit);
 }
@@ -0,0 +1,26 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class AtomicStockEngine implements StockEngine {
+    private final ProductRepository repository;
+
+    @Override
+    public List<Long> changeQuantities(Map<Long, Integer> deltas) {
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        int[] updated = repository.changeQuantities(deltas);
+
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++)
+            if (updated[i] == 0)
+                rejected.add(ids.get(i));
+        return rejected;
+    }
+}
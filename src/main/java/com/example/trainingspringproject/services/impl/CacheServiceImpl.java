@@ -0,0 +1,41 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.models.dtos.CacheStatsDto;
+import com.example.trainingspringproject.services.CacheService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CacheServiceImpl implements CacheService {
+    private final CacheManager cacheManager;
+    private final javax.cache.CacheManager hibernateCacheManager;
+
+    @Override
+    public List<CacheStatsDto> getStats() {
+        List<CacheStatsDto> list = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache))
+                continue;
+            list.add(toDto(name, (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()));
+        }
+        //регионы второго уровня Hibernate
+        for (String name : hibernateCacheManager.getCacheNames())
+            list.add(toDto(name, hibernateCacheManager.getCache(name)
+                    .unwrap(com.github.benmanes.caffeine.cache.Cache.class)));
+        return list;
+    }
+
+    private static CacheStatsDto toDto(String name, com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+        CacheStats stats = nativeCache.stats();
+        return new CacheStatsDto(name, nativeCache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.models.dtos.ImportReportDto;
+import com.example.trainingspringproject.models.dtos.ImportResultDto;
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.services.InvoiceImportService;
+import com.example.trainingspringproject.services.InvoiceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+//импорт без общей транзакции: каждая пачка фиксируется сама и не откатывается ошибками следующих
+@Service
+public class InvoiceImportServiceImpl implements InvoiceImportService {
+    private final InvoiceService invoiceService;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    Logger logger = LoggerFactory.getLogger(InvoiceImportServiceImpl.class);
+
+    public InvoiceImportServiceImpl(InvoiceService invoiceService, Validator validator, EntityManager entityManager,
+                                   WarehouseProperties properties) {
+        this.invoiceService = invoiceService;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.chunkSize = properties.getBulkImport().getChunkSize();
+    }
+
+    @Override
+    public ImportReportDto importAll(Iterator<InvoiceRequestDto> dtos) {
+        List<ImportResultDto> results = new ArrayList<>();
+        List<InvoiceRequestDto> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        int index = 0;
+        try {
+            for (; dtos.hasNext(); index++) {
+                InvoiceRequestDto dto = dtos.next();
+                String error = validate(dto);
+                if (error != null) {
+                    results.add(new ImportResultDto(index, null, error));
+                    continue;
+                }
+                chunk.add(dto);
+                indexes.add(index);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, indexes, results);
+                    chunk.clear();
+                    indexes.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            //после ошибки разбора дальше поток не читается, но уже разобранные накладные проводятся
+            logger.error("Import stopped at invoice " + index + ": " + e.getMessage(), e);
+            results.add(new ImportResultDto(index, null, "Malformed invoice: " + e.getMessage()));
+        }
+        importChunk(chunk, indexes, results);
+
+        results.sort(Comparator.comparing(ImportResultDto::getIndex));
+        int imported = (int) results.stream().filter(result -> result.getInvoiceId() != null).count();
+        return new ImportReportDto(imported, results.size() - imported, results);
+    }
+
+    private void importChunk(List<InvoiceRequestDto> chunk, List<Integer> indexes, List<ImportResultDto> results) {
+        if (chunk.isEmpty())
+            return;
+        try {
+            doImportChunk(chunk, indexes, results);
+        } finally {
+            //при open-in-view контекст живет весь запрос: накладные зафиксированных пачек из него убираются
+            entityManager.clear();
+        }
+    }
+
+    private void doImportChunk(List<InvoiceRequestDto> chunk, List<Integer> indexes, List<ImportResultDto> results) {
+        try {
+            List<Long> ids = invoiceService.createAll(chunk);
+            for (int i = 0; i < ids.size(); i++)
+                results.add(new ImportResultDto(indexes.get(i), ids.get(i), null));
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Import chunk from invoice " + indexes.get(0) + " rolled back: " + e.getMessage());
+        }
+        //пачка откатилась целиком: накладные проводятся по одной, чтобы ошибка осталась только у виноватых
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                results.add(new ImportResultDto(indexes.get(i), invoiceService.create(chunk.get(i)).getInvoiceId(), null));
+            } catch (RuntimeException e) {
+                results.add(new ImportResultDto(indexes.get(i), null, e.getMessage()));
+            }
+        }
+    }
+
+    //строки накладной сами по себе не валидируются вместе с ней, поэтому проверяются отдельно
+    private String validate(InvoiceRequestDto dto) {
+        if (dto == null)
+            return "Invoice can't be null.";
+        List<String> messages = new ArrayList<>();
+        validator.validate(dto).forEach(violation -> messages.add(violation.getMessage()));
+        if (dto.getItems() != null)
+            for (ItemRequestDto item : dto.getItems()) {
+                if (item == null)
+                    messages.add("Item can't be null.");
+                else
+                    validator.validate(item).forEach(violation -> messages.add(violation.getMessage()));
+            }
+        return messages.isEmpty() ? null : String.join(" ", messages);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.repositories.InvoicePartitionRepository;
+import com.example.trainingspringproject.services.InvoicePartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+//накладная всегда датируется текущим днем, поэтому секции нужны только на ближайшие месяцы вперед
+@Service
+public class InvoicePartitionServiceImpl implements InvoicePartitionService {
+    private final InvoicePartitionRepository repository;
+    private final Clock clock;
+    private final int monthsAhead;
+    private final int retainMonths;
+
+    Logger logger = LoggerFactory.getLogger(InvoicePartitionServiceImpl.class);
+
+    public InvoicePartitionServiceImpl(InvoicePartitionRepository repository, WarehouseProperties properties) {
+        this(repository, properties, Clock.systemDefaultZone());
+    }
+
+    InvoicePartitionServiceImpl(InvoicePartitionRepository repository, WarehouseProperties properties, Clock clock) {
+        this.repository = repository;
+        this.clock = clock;
+        this.monthsAhead = properties.getPartitions().getMonthsAhead();
+        this.retainMonths = properties.getPartitions().getRetainMonths();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${warehouse.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        int created = createFuturePartitions();
+        List<LocalDate> detached = detachExpiredPartitions();
+        logger.info("Invoice partitions maintained: " + created + " months created, detached " + detached);
+        //проводки не падают без секции месяца, поэтому пропущенное создание секций видно только здесь
+        long unpartitioned = repository.countUnpartitioned();
+        if (unpartitioned > 0)
+            logger.warn(unpartitioned + " invoices are in invoice_default: no partition covers their month");
+    }
+
+    @Override
+    public int createFuturePartitions() {
+        LocalDate today = LocalDate.now(clock);
+        return repository.createPartitions(today.withDayOfMonth(1), today.plusMonths(monthsAhead));
+    }
+
+    //отсоединяются месяцы старше retain-months; 0 — хранить все
+    @Override
+    public List<LocalDate> detachExpiredPartitions() {
+        List<LocalDate> detached = new ArrayList<>();
+        if (retainMonths <= 0)
+            return detached;
+        LocalDate oldestKept = LocalDate.now(clock).withDayOfMonth(1).minusMonths(retainMonths - 1L);
+        for (LocalDate month : repository.findAttachedMonths())
+            if (month.isBefore(oldestKept) && repository.detachPartition(month))
+                detached.add(month);
+        return detached;
+    }
+}
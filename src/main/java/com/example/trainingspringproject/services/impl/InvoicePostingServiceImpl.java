@@ -0,0 +1,141 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.exceptions.PostingQueueFullException;
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PostingReportDto;
+import com.example.trainingspringproject.models.dtos.PostingTicketDto;
+import com.example.trainingspringproject.models.enums.PostingStatus;
+import com.example.trainingspringproject.services.InvoicePostingService;
+import com.example.trainingspringproject.services.InvoiceService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import javax.annotation.PreDestroy;
+import javax.validation.Valid;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+//проводка вне потока запроса: запрос только ставит накладную в очередь и сразу получает билет.
+//накладные с общими товарами проводятся строго в порядке приема, остальные — параллельно.
+//очередь и билеты живут только в памяти: при остановке принятые накладные дорабатываются,
+//но при падении процесса непроведенные накладные и билеты теряются, клиент должен переотправить их
+@Service
+@Validated
+public class InvoicePostingServiceImpl implements InvoicePostingService {
+    private final InvoiceService invoiceService;
+    private final ExecutorService executor;
+    private final int queueCapacity;
+    //одно разрешение — одна принятая и еще не проведенная накладная
+    private final Semaphore permits;
+    private final Cache<String, PostingTicketDto> tickets;
+    //последняя принятая проводка по каждому товару, следующая накладная с этим товаром стартует после нее
+    private final Map<Long, CompletableFuture<Void>> tails = new HashMap<>();
+    private volatile boolean stopped;
+
+    Logger logger = LoggerFactory.getLogger(InvoicePostingServiceImpl.class);
+
+    public InvoicePostingServiceImpl(InvoiceService invoiceService, WarehouseProperties properties, MeterRegistry registry) {
+        WarehouseProperties.Posting posting = properties.getPosting();
+        this.invoiceService = invoiceService;
+        this.executor = Executors.newFixedThreadPool(posting.getWorkers(), new CustomizableThreadFactory("invoice-posting-"));
+        this.queueCapacity = posting.getQueueCapacity();
+        this.permits = new Semaphore(queueCapacity);
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(posting.getTicketTtl())
+                .maximumSize(posting.getMaxTickets())
+                .build();
+        registry.gauge("warehouse.posting.queued", permits, p -> queueCapacity - p.availablePermits());
+    }
+
+    @Override
+    public PostingTicketDto submit(@Valid InvoiceRequestDto dto) {
+        //поток запроса не ждет места в очереди; после остановки новые накладные не принимаются
+        if (stopped || !permits.tryAcquire())
+            throw new PostingQueueFullException(queueCapacity);
+
+        PostingTicketDto queued = new PostingTicketDto(UUID.randomUUID().toString(), PostingStatus.QUEUED, null, null);
+        tickets.put(queued.getTicket(), queued);
+        Set<Long> productIds = new TreeSet<>();
+        for (ItemRequestDto item : dto.getItems())
+            productIds.add(item.getProductId());
+
+        synchronized (tails) {
+            CompletableFuture<?>[] previous = productIds.stream()
+                    .map(tails::get)
+                    .filter(Objects::nonNull)
+                    .toArray(CompletableFuture[]::new);
+            //исход предыдущих проводок не важен: следующая накладная ждет только их завершения
+            CompletableFuture<Void> task = CompletableFuture.allOf(previous)
+                    .handle((result, e) -> null)
+                    .thenRunAsync(() -> post(queued.getTicket(), dto), executor);
+            productIds.forEach(id -> tails.put(id, task));
+            task.whenComplete((result, e) -> {
+                //сюда попадают ошибки вне post: Error из проводки или отказ остановленного пула
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    logger.error("Posting " + queued.getTicket() + " failed: " + cause.getMessage(), cause);
+                    tickets.put(queued.getTicket(),
+                            new PostingTicketDto(queued.getTicket(), PostingStatus.FAILED, null, String.valueOf(cause)));
+                }
+                permits.release();
+                synchronized (tails) {
+                    productIds.forEach(id -> tails.remove(id, task));
+                }
+            });
+        }
+        return queued;
+    }
+
+    @Override
+    public PostingTicketDto findByTicket(String ticket) {
+        PostingTicketDto dto = tickets.getIfPresent(ticket);
+        if (dto == null)
+            throw new NothingFoundException("Posting ticket", "ticket = " + ticket);
+        return dto;
+    }
+
+    //ошибка проводки не прерывает цепочку: следующие накладные по тем же товарам проводятся как обычно
+    private void post(String ticket, InvoiceRequestDto dto) {
+        tickets.put(ticket, new PostingTicketDto(ticket, PostingStatus.RUNNING, null, null));
+        try {
+            PostingReportDto report = invoiceService.create(dto);
+            tickets.put(ticket, new PostingTicketDto(ticket, PostingStatus.DONE, report, null));
+        } catch (Exception e) {
+            logger.error("Posting " + ticket + " failed: " + e.getMessage(), e);
+            tickets.put(ticket, new PostingTicketDto(ticket, PostingStatus.FAILED, null, e.getMessage()));
+        }
+    }
+
+    //пул закрывается только после того, как вернулись все разрешения: ожидающие в цепочках накладные
+    //попадают в пул позже своих предшественников и иначе были бы отклонены
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (stopped)
+            return;
+        stopped = true;
+        if (!permits.tryAcquire(queueCapacity, 30, TimeUnit.SECONDS))
+            logger.warn("Invoice posting pool stopped with " + (queueCapacity - permits.availablePermits())
+                    + " invoices not posted");
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.CacheConfig;
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.dtos.ItemResponseDto;
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.mappers.InvoiceMapper;
+import com.example.trainingspringproject.repositories.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+//проведенная накладная не меняется до удаления, поэтому собранный ответ можно хранить без срока жизни.
+//закэшированные DTO общие для всех запросов и не должны изменяться
+@Component
+@RequiredArgsConstructor
+public class InvoiceResponseCache {
+    private final InvoiceRepository repository;
+    private final InvoiceMapper mapper;
+
+    @Cacheable(cacheNames = CacheConfig.INVOICES_BY_ID, unless = "#result == null")
+    public Optional<InvoiceResponseDto> findById(Long id) {
+        return repository.findById(id).map(mapper::entityToDto);
+    }
+
+    //ответ собирается из того, что уже есть при проводке, без повторного чтения из базы
+    @CachePut(cacheNames = CacheConfig.INVOICES_BY_ID, key = "#invoice.id")
+    public InvoiceResponseDto put(Invoice invoice, List<ItemResponseDto> items) {
+        return new InvoiceResponseDto(invoice.getId(), invoice.getPartner().getName(), invoice.getWorker().getName(),
+                invoice.getType(), invoice.getDate(), items);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.INVOICES_BY_ID)
+    public void evict(Long id) {
+    }
+}
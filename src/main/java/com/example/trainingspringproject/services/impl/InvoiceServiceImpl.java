@@ -1,17 +1,25 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.RetryOnConflict;
+import com.example.trainingspringproject.config.StatementCounter;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
 import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
 import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
 import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import com.example.trainingspringproject.models.dtos.PostingReportDto;
 import com.example.trainingspringproject.models.entities.Invoice;
 import com.example.trainingspringproject.models.enums.TransactionType;
 import com.example.trainingspringproject.models.mappers.InvoiceMapper;
+import com.example.trainingspringproject.models.projections.ProductStock;
 import com.example.trainingspringproject.repositories.InvoiceRepository;
 import com.example.trainingspringproject.services.InvoiceService;
 import com.example.trainingspringproject.services.ItemService;
 import com.example.trainingspringproject.services.ProductService;
+import com.example.trainingspringproject.services.SalesReportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -19,7 +27,14 @@ import org.springframework.validation.annotation.Validated;
 
 import javax.validation.Valid;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 @Service
 @Validated
@@ -27,75 +42,188 @@ import java.util.List;
 public class InvoiceServiceImpl implements InvoiceService {
     private final InvoiceRepository repository;
     private final InvoiceMapper mapper;
+    private final KeysetPager pager;
     private final ItemService itemService;
     private final ProductService productService;
+    private final InvoiceResponseCache responseCache;
+    private final SalesReportService salesReportService;
 
     @Override
+    @RetryOnConflict
     @Transactional
-    public void create(@Valid InvoiceRequestDto dto) {
+    public PostingReportDto create(@Valid InvoiceRequestDto dto) {
+        long statements = StatementCounter.current();
+
         Invoice invoice = mapper.dtoToEntity(dto);
         invoice.setDate(LocalDate.now());
         repository.save(invoice);
 
+        //все товары накладной читаются и списываются/приходуются пачкой, а не построчно
         List<ItemRequestDto> items = dto.getItems();
-        for (ItemRequestDto item: items) {
-            switch (dto.getType()) {
-                case INCOME:
-                    productService.income(item.getProductId(), item.getQuantity());
-                    itemService.create(item, invoice.getId(), productService.findById(item.getProductId()).getIncomePrice());
-                    break;
-                case OUTCOME:
-                    productService.outcome(item.getProductId(), item.getQuantity());
-                    itemService.create(item, invoice.getId(), productService.findById(item.getProductId()).getOutcomePrice());
-                    break;
-            }
+        Collection<ProductStock> products = (dto.getType() == TransactionType.INCOME
+                ? productService.income(items) : productService.outcome(items)).values();
+        Map<Long, Double> prices = prices(products, dto.getType());
+        responseCache.put(invoice, itemService.createAll(items, invoice, prices));
+        salesReportService.add(List.of(invoice), Map.of(invoice.getId(), items), Map.of(invoice.getId(), prices),
+                prices(products, TransactionType.INCOME));
+
+        return new PostingReportDto(invoice.getId(), items.size(), StatementCounter.current() - statements);
+    }
+
+    //пачка накладных в одной транзакции: изменения остатка суммируются по товару, поэтому на товар
+    //приходится один-два UPDATE, сколько бы строк пачки его ни затрагивали. остаток проверяется
+    //накладная за накладной в порядке пачки, ошибка в любой накладной откатывает всю пачку
+    @Override
+    @RetryOnConflict
+    @Transactional
+    public List<Long> createAll(@Valid List<InvoiceRequestDto> dtos) {
+        List<Invoice> invoices = new ArrayList<>(dtos.size());
+        List<Map<Long, Integer>> movements = new ArrayList<>(dtos.size());
+        for (InvoiceRequestDto dto : dtos) {
+            Invoice invoice = mapper.dtoToEntity(dto);
+            invoice.setDate(LocalDate.now());
+            invoices.add(invoice);
+            int sign = dto.getType() == TransactionType.INCOME ? 1 : -1;
+            Map<Long, Integer> deltas = new TreeMap<>();
+            for (ItemRequestDto item : dto.getItems())
+                deltas.merge(item.getProductId(), sign * item.getQuantity(), Integer::sum);
+            movements.add(deltas);
+        }
+        repository.saveAll(invoices);
+
+        Collection<ProductStock> products = productService.changeStock(movements).values();
+        Map<Long, Double> incomePrices = prices(products, TransactionType.INCOME);
+        Map<Long, Double> outcomePrices = prices(products, TransactionType.OUTCOME);
+
+        List<Long> ids = new ArrayList<>(dtos.size());
+        Map<Long, List<ItemRequestDto>> items = new LinkedHashMap<>();
+        Map<Long, Map<Long, Double>> prices = new HashMap<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            Long id = invoices.get(i).getId();
+            ids.add(id);
+            items.put(id, dtos.get(i).getItems());
+            prices.put(id, dtos.get(i).getType() == TransactionType.INCOME ? incomePrices : outcomePrices);
         }
+        itemService.createAll(invoices, items, prices);
+        salesReportService.add(invoices, items, prices, incomePrices);
+        return ids;
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
-        repository.delete(getByIdOrElseThrow(id));
+        Invoice invoice = getByIdOrElseThrow(id);
+        //итоги вычитаются по строкам накладной, поэтому до их удаления
+        salesReportService.remove(id);
+        itemService.deleteAllByInvoiceId(id);
+        repository.delete(invoice);
+        responseCache.evict(id);
     }
 
     @Override
     public InvoiceResponseDto findById(Long id) {
-        return mapper.entityToDto(getByIdOrElseThrow(id));
+        return responseCache.findById(id)
+                .orElseThrow(() -> new NothingFoundException("Invoice", "id = " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BatchDto<InvoiceResponseDto> findAllByIds(List<Long> ids) {
+        return pager.byIds(ids, chunk -> mapper.fillItems(repository.findDtosByIdIn(chunk)), InvoiceResponseDto::getId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InvoiceResponseDto> findAll() {
-        List<Invoice> list = (List<Invoice>) repository.findAll();
+        List<InvoiceResponseDto> list = repository.findDtosByIdGreaterThan(0L, pager.unpaged());
         checkEmptyList(list, "all");
-        return mapper.entityToDto(list);
+        return mapper.fillItems(pager.checkCap(list, "Invoice", "all"));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PageDto<InvoiceResponseDto> findAll(String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<InvoiceResponseDto> list = repository.findDtosByIdGreaterThan(pager.after(after), page);
+        return pager.toPage(list, page, InvoiceResponseDto::getId, mapper::fillItems);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<InvoiceResponseDto> findAllByPartnerId(Long id) {
-        List<Invoice> list = repository.findAllByPartnerId(id);
+        List<InvoiceResponseDto> list = repository.findDtosByPartnerIdAndIdGreaterThan(id, 0L, pager.unpaged());
         checkEmptyList(list, "partner id = " + id);
-        return mapper.entityToDto(list);
+        return mapper.fillItems(pager.checkCap(list, "Invoice", "partner id = " + id));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PageDto<InvoiceResponseDto> findAllByPartnerId(Long id, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<InvoiceResponseDto> list = repository.findDtosByPartnerIdAndIdGreaterThan(id, pager.after(after), page);
+        return pager.toPage(list, page, InvoiceResponseDto::getId, mapper::fillItems);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<InvoiceResponseDto> findAllByWorkerId(Long id) {
-        List<Invoice> list = repository.findAllByWorkerId(id);
+        List<InvoiceResponseDto> list = repository.findDtosByWorkerIdAndIdGreaterThan(id, 0L, pager.unpaged());
         checkEmptyList(list, "worker id = " + id);
-        return mapper.entityToDto(list);
+        return mapper.fillItems(pager.checkCap(list, "Invoice", "worker id = " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<InvoiceResponseDto> findAllByWorkerId(Long id, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<InvoiceResponseDto> list = repository.findDtosByWorkerIdAndIdGreaterThan(id, pager.after(after), page);
+        return pager.toPage(list, page, InvoiceResponseDto::getId, mapper::fillItems);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InvoiceResponseDto> findAllByType(TransactionType type) {
-        List<Invoice> list = repository.findAllByType(type);
+        List<InvoiceResponseDto> list = repository.findDtosByTypeAndIdGreaterThan(type, 0L, pager.unpaged());
         checkEmptyList(list, "type = " + type);
-        return mapper.entityToDto(list);
+        return mapper.fillItems(pager.checkCap(list, "Invoice", "type = " + type));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<InvoiceResponseDto> findAllByType(TransactionType type, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<InvoiceResponseDto> list = repository.findDtosByTypeAndIdGreaterThan(type, pager.after(after), page);
+        return pager.toPage(list, page, InvoiceResponseDto::getId, mapper::fillItems);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InvoiceResponseDto> findAllByDate(LocalDate date) {
-        List<Invoice> list = repository.findAllByDate(date);
+        List<InvoiceResponseDto> list = repository.findDtosByDateAndIdGreaterThan(date, 0L, pager.unpaged());
         checkEmptyList(list, "date = " + date.toString());
-        return mapper.entityToDto(list);
+        return mapper.fillItems(pager.checkCap(list, "Invoice", "date = " + date.toString()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<InvoiceResponseDto> findAllByDate(LocalDate date, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<InvoiceResponseDto> list = repository.findDtosByDateAndIdGreaterThan(date, pager.after(after), page);
+        return pager.toPage(list, page, InvoiceResponseDto::getId, mapper::fillItems);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(LocalDate from, LocalDate to, TransactionType type, Consumer<InvoiceResponseDto> consumer) {
+        repository.exportAll(from, to, type, consumer);
+    }
+
+    //цены строк накладной: приход по цене прихода, расход по цене расхода
+    private static Map<Long, Double> prices(Collection<ProductStock> products, TransactionType type) {
+        Map<Long, Double> prices = new HashMap<>();
+        for (ProductStock product : products)
+            prices.put(product.getId(), type == TransactionType.INCOME ? product.getIncomePrice() : product.getOutcomePrice());
+        return prices;
     }
 
     private Invoice getByIdOrElseThrow(Long id) {
@@ -103,7 +231,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                 .orElseThrow(() -> new NothingFoundException("Invoice", "id = " + id));
     }
 
-    private void checkEmptyList(List<Invoice> list, String exceptionMessage) {
+    private void checkEmptyList(List<?> list, String exceptionMessage) {
         if (CollectionUtils.isEmpty(list))
             throw new NothingFoundException("Invoice", exceptionMessage);
     }
@@ -3,7 +3,9 @@ package com.example.trainingspringproject.services.impl;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
 import com.example.trainingspringproject.models.dtos.ItemRequestDto;
 import com.example.trainingspringproject.models.dtos.ItemResponseDto;
+import com.example.trainingspringproject.models.entities.Invoice;
 import com.example.trainingspringproject.models.entities.Item;
+import com.example.trainingspringproject.models.entities.Product;
 import com.example.trainingspringproject.models.mappers.ItemMapper;
 import com.example.trainingspringproject.repositories.ItemRepository;
 import com.example.trainingspringproject.services.ItemService;
@@ -14,7 +16,9 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.validation.annotation.Validated;
 
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Validated
@@ -31,11 +35,43 @@ public class ItemServiceImpl implements ItemService {
         repository.save(item);
     }
 
+    @Override
+    @Transactional
+    public List<ItemResponseDto> createAll(@Valid List<ItemRequestDto> requestDtos, Invoice invoice, Map<Long, Double> prices) {
+        return createAll(List.of(invoice), Map.of(invoice.getId(), requestDtos), Map.of(invoice.getId(), prices));
+    }
+
+    //строки и цены по id накладной: строки всех накладных уходят в базу одним батчем
+    @Override
+    @Transactional
+    public List<ItemResponseDto> createAll(List<Invoice> invoices, Map<Long, List<ItemRequestDto>> requestDtos,
+                                           Map<Long, Map<Long, Double>> prices) {
+        List<Item> items = new ArrayList<>();
+        for (Invoice invoice : invoices) {
+            //накладная и товары уже загружены вызывающим кодом, достаточно ссылок по id
+            Map<Long, Double> invoicePrices = prices.get(invoice.getId());
+            for (ItemRequestDto dto : requestDtos.get(invoice.getId())) {
+                Product product = new Product();
+                product.setId(dto.getProductId());
+                items.add(new Item(null, invoice, invoice.getDate(), product, dto.getQuantity(),
+                        invoicePrices.get(dto.getProductId())));
+            }
+        }
+        repository.insertAll(items);
+        return mapper.entityToDto(items);
+    }
+
     @Override
     public void delete(Long id) {
         repository.delete(getByIdOrElseThrow(id));
     }
 
+    @Override
+    @Transactional
+    public void deleteAllByInvoiceId(Long invoiceId) {
+        repository.deleteAllByInvoiceId(invoiceId);
+    }
+
     @Override
     public List<ItemResponseDto> findAllByInvoiceId(Long invoiceId) {
         List<Item> list = repository.findAllByInvoiceId(invoiceId);
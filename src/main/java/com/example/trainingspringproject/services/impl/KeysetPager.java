@@ -0,0 +1,109 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.InvalidPageException;
+import com.example.trainingspringproject.exceptions.TooManyResultsException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.function.Function;
+
+//постраничная выборка по ключу: WHERE id > :after ORDER BY id LIMIT :limit + 1
+@Component
+@RequiredArgsConstructor
+public class KeysetPager {
+    private static final Sort BY_ID = Sort.by("id");
+
+    private final WarehouseProperties properties;
+
+    public Long after(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return 0L;
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (id < 0)
+                throw new InvalidPageException("cursor " + cursor);
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageException("cursor " + cursor);
+        }
+    }
+
+    //на одну запись больше, чем отдается: так видно, есть ли следующая страница
+    public Pageable page(Integer limit) {
+        WarehouseProperties.Paging paging = properties.getPaging();
+        if (limit == null)
+            limit = paging.getDefaultLimit();
+        if (limit < 1 || limit > paging.getMaxLimit())
+            throw new InvalidPageException("limit must be between 1 and " + paging.getMaxLimit());
+        return PageRequest.of(0, limit + 1, BY_ID);
+    }
+
+    public Pageable unpaged() {
+        return PageRequest.of(0, properties.getPaging().getUnpagedCap() + 1, BY_ID);
+    }
+
+    public <E> List<E> checkCap(List<E> list, String entity, String criteria) {
+        int cap = properties.getPaging().getUnpagedCap();
+        if (list.size() > cap)
+            throw new TooManyResultsException(entity, criteria, cap);
+        return list;
+    }
+
+    public <E, D> PageDto<D> toPage(List<E> entities, Pageable page, Function<E, Long> id,
+                                    Function<List<E>, List<D>> mapper) {
+        int limit = page.getPageSize() - 1;
+        if (entities.size() <= limit)
+            return new PageDto<>(mapper.apply(entities), null);
+        List<E> items = entities.subList(0, limit);
+        return new PageDto<>(mapper.apply(items), encode(id.apply(items.get(limit - 1))));
+    }
+
+    //выборка уже в DTO: преобразовывать нечего
+    public <D> PageDto<D> toPage(List<D> dtos, Pageable page, Function<D, Long> id) {
+        return toPage(dtos, page, id, Function.identity());
+    }
+
+    //выборка по списку id пачками IN (...): ненайденные id перечисляются в ответе, а не приводят к ошибке
+    public <D> BatchDto<D> byIds(List<Long> ids, Function<List<Long>, List<D>> query, Function<D, Long> id) {
+        WarehouseProperties.Paging paging = properties.getPaging();
+        if (ids.size() > paging.getMaxIds())
+            throw new InvalidPageException("no more than " + paging.getMaxIds() + " ids per request");
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+
+        Map<Long, D> found = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += paging.getIdsChunkSize()) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + paging.getIdsChunkSize(), distinct.size()));
+            for (D dto : query.apply(chunk))
+                found.put(id.apply(dto), dto);
+        }
+
+        List<D> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long key : distinct) {
+            D dto = found.get(key);
+            if (dto == null)
+                missing.add(key);
+            else
+                items.add(dto);
+        }
+        return new BatchDto<>(items, missing);
+    }
+
+    private String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
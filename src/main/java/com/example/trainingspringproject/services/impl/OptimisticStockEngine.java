@@ -0,0 +1,74 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.exceptions.StockConflictException;
+import com.example.trainingspringproject.models.projections.ProductStock;
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@RequiredArgsConstructor
+public class OptimisticStockEngine implements StockEngine {
+    private final ProductRepository repository;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    @Override
+    public List<Long> changeQuantities(Map<Long, Integer> deltas) {
+        List<Long> rejected = new ArrayList<>();
+        Map<Long, Integer> remaining = new LinkedHashMap<>(deltas);
+
+        for (int attempt = 1; !remaining.isEmpty(); attempt++) {
+            if (attempt > maxAttempts)
+                throw new StockConflictException(remaining.keySet(), maxAttempts);
+            if (attempt > 1 && !pause(attempt))
+                throw new StockConflictException(remaining.keySet(), attempt - 1);
+
+            //порядок обновления по id, а не по порядку строк из базы
+            Map<Long, Integer> quantities = new TreeMap<>();
+            Map<Long, Long> versions = new HashMap<>();
+            List<ProductStock> products = repository.findStockByIdIn(remaining.keySet());
+            if (products.size() < remaining.size())
+                throw new NothingFoundException("Product", "id in " + remaining.keySet());
+            for (ProductStock product : products) {
+                int quantity = product.getQuantity() + remaining.get(product.getId());
+                if (quantity < 0) {
+                    rejected.add(product.getId());
+                    remaining.remove(product.getId());
+                } else {
+                    quantities.put(product.getId(), quantity);
+                    versions.put(product.getId(), product.getVersion());
+                }
+            }
+
+            //строки, версия которых успела измениться, перечитываются на следующей попытке
+            List<Long> ids = new ArrayList<>(quantities.keySet());
+            int[] updated = repository.compareAndSetQuantities(quantities, versions);
+            for (int i = 0; i < updated.length; i++)
+                if (updated[i] != 0)
+                    remaining.remove(ids.get(i));
+        }
+        return rejected;
+    }
+
+    //случайная пауза, растущая с номером попытки, чтобы конкуренты не столкнулись снова
+    private boolean pause(int attempt) {
+        long bound = backoff.toMillis() * (attempt - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.CacheConfig;
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.PartnerDto;
 import com.example.trainingspringproject.models.entities.Partner;
 import com.example.trainingspringproject.models.mappers.PartnerMapper;
 import com.example.trainingspringproject.repositories.PartnerRepository;
 import com.example.trainingspringproject.services.PartnerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -22,9 +27,11 @@ import java.util.List;
 public class PartnerServiceImpl implements PartnerService {
     private final PartnerRepository repository;
     private final PartnerMapper mapper;
+    private final KeysetPager pager;
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PARTNERS_BY_ID, allEntries = true)
     public void create(@Valid PartnerDto dto) {
         // проверка уникальности в базе
         checkName(dto.getName());
@@ -37,6 +44,7 @@ public class PartnerServiceImpl implements PartnerService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PARTNERS_BY_ID, allEntries = true)
     public void update(@Valid PartnerDto dto) {
         //проверка существования записи с нужным id
         Partner oldData = getByIdOrElseThrow(dto.getId());
@@ -53,6 +61,7 @@ public class PartnerServiceImpl implements PartnerService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PARTNERS_BY_ID, allEntries = true)
     public void delete(Long id) {
         repository.delete(getByIdOrElseThrow(id));
     }
@@ -63,10 +72,25 @@ public class PartnerServiceImpl implements PartnerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public BatchDto<PartnerDto> findAllByIds(List<Long> ids) {
+        return pager.byIds(ids, repository::findDtosByIdIn, PartnerDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<PartnerDto> findAll() {
-        List<Partner> list = (List<Partner>) repository.findAll();
+        List<PartnerDto> list = repository.findDtosByIdGreaterThan(0L, pager.unpaged());
         checkEmptyList(list, "all");
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Partner", "all");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<PartnerDto> findAll(String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<PartnerDto> list = repository.findDtosByIdGreaterThan(pager.after(after), page);
+        return pager.toPage(list, page, PartnerDto::getId);
     }
 
     @Override
@@ -82,17 +106,35 @@ public class PartnerServiceImpl implements PartnerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PartnerDto> findAllByAddressLike(String address) {
-        List<Partner> list = repository.findAllByAddressLike(address);
+        List<PartnerDto> list = repository.findDtosByAddressLikeAndIdGreaterThan(address, 0L, pager.unpaged());
         checkEmptyList(list, "address = " + address);
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Partner", "address = " + address);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PageDto<PartnerDto> findAllByAddressLike(String address, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<PartnerDto> list = repository.findDtosByAddressLikeAndIdGreaterThan(address, pager.after(after), page);
+        return pager.toPage(list, page, PartnerDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<PartnerDto> findAllByEmailLike(String email) {
-        List<Partner> list = repository.findAllByEmailLike(email);
+        List<PartnerDto> list = repository.findDtosByEmailLikeAndIdGreaterThan(email, 0L, pager.unpaged());
         checkEmptyList(list, "email = " + email);
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Partner", "email = " + email);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<PartnerDto> findAllByEmailLike(String email, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<PartnerDto> list = repository.findDtosByEmailLikeAndIdGreaterThan(email, pager.after(after), page);
+        return pager.toPage(list, page, PartnerDto::getId);
     }
 
     private void checkName(String name) {
@@ -110,7 +152,7 @@ public class PartnerServiceImpl implements PartnerService {
                 .orElseThrow(() -> new NothingFoundException("Partner", "id = " + id));
     }
 
-    private void checkEmptyList(List<Partner> list, String exceptionMessage) {
+    private void checkEmptyList(List<?> list, String exceptionMessage) {
         if (CollectionUtils.isEmpty(list))
             throw new NothingFoundException("Partner", exceptionMessage);
     }
@@ -1,12 +1,18 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.CacheConfig;
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.ProducerDto;
 import com.example.trainingspringproject.models.entities.Producer;
 import com.example.trainingspringproject.models.mappers.ProducerMapper;
 import com.example.trainingspringproject.repositories.ProducerRepository;
+import com.example.trainingspringproject.repositories.ProductRepository;
 import com.example.trainingspringproject.services.ProducerService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -20,14 +26,20 @@ import java.util.List;
 public class ProducerServiceImpl implements ProducerService {
     private final ProducerRepository repository;
     private final ProducerMapper mapper;
+    private final KeysetPager pager;
+    private final ProductRepository productRepository;
 
-    public ProducerServiceImpl(ProducerRepository repository, ProducerMapper mapper) {
+    public ProducerServiceImpl(ProducerRepository repository, ProducerMapper mapper, KeysetPager pager,
+                               ProductRepository productRepository) {
         this.repository = repository;
         this.mapper = mapper;
+        this.pager = pager;
+        this.productRepository = productRepository;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCERS_BY_NAME, allEntries = true)
     public void create(@Valid ProducerDto dto) {
         //проверка нарушения уникальности name
         checkName(dto.getName());
@@ -39,19 +51,25 @@ public class ProducerServiceImpl implements ProducerService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCERS_BY_NAME, allEntries = true)
     public void update(@Valid ProducerDto dto) {
         //проверка существования записи с нужным id
         Producer oldData = getByIdOrElseThrow(dto.getId());
         //если произошло изменение поля name, надо проверить, не нарушает ли новое значение уникальности в базе
-        if (!dto.getName().equals(oldData.getName()))
+        boolean renamed = !dto.getName().equals(oldData.getName());
+        if (renamed)
             checkName(dto.getName());
 
         Producer newData = mapper.dtoToEntity(dto);
         newData.setId(oldData.getId());
         repository.save(newData);
+        //название входит в поисковый текст товаров
+        if (renamed)
+            productRepository.refreshSearchTextByProducerId(newData.getId());
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCERS_BY_NAME, allEntries = true)
     public void delete(Long id) {
         repository.delete(getByIdOrElseThrow(id));
     }
@@ -62,10 +80,25 @@ public class ProducerServiceImpl implements ProducerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public BatchDto<ProducerDto> findAllByIds(List<Long> ids) {
+        return pager.byIds(ids, repository::findDtosByIdIn, ProducerDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ProducerDto> findAll() {
-        List<Producer> list = (List<Producer>) repository.findAll();
+        List<ProducerDto> list = repository.findDtosByIdGreaterThan(0L, pager.unpaged());
         checkEmptyList(list, "all");
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Producer", "all");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<ProducerDto> findAll(String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<ProducerDto> list = repository.findDtosByIdGreaterThan(pager.after(after), page);
+        return pager.toPage(list, page, ProducerDto::getId);
     }
 
     @Override
@@ -75,10 +108,19 @@ public class ProducerServiceImpl implements ProducerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProducerDto> findAllByAddressLike(String address) {
-        List<Producer> list = repository.findAllByAddressLike(address);
+        List<ProducerDto> list = repository.findDtosByAddressLikeAndIdGreaterThan(address, 0L, pager.unpaged());
         checkEmptyList(list, "address = " + address);
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Producer", "address = " + address);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<ProducerDto> findAllByAddressLike(String address, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<ProducerDto> list = repository.findDtosByAddressLikeAndIdGreaterThan(address, pager.after(after), page);
+        return pager.toPage(list, page, ProducerDto::getId);
     }
 
     private void checkName(String name) {
@@ -91,7 +133,7 @@ public class ProducerServiceImpl implements ProducerService {
                 .orElseThrow(() -> new NothingFoundException("Producer", "id = " + id));
     }
 
-    private void checkEmptyList(List<Producer> list, String exceptionMessage) {
+    private void checkEmptyList(List<?> list, String exceptionMessage) {
         if (CollectionUtils.isEmpty(list))
             throw new NothingFoundException("Producer", exceptionMessage);
     }
@@ -1,12 +1,18 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.CacheConfig;
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.ProductGroupDto;
 import com.example.trainingspringproject.models.entities.ProductGroup;
 import com.example.trainingspringproject.models.mappers.ProductGroupMapper;
 import com.example.trainingspringproject.repositories.ProductGroupRepository;
+import com.example.trainingspringproject.repositories.ProductRepository;
 import com.example.trainingspringproject.services.ProductGroupService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -20,14 +26,20 @@ import java.util.List;
 public class ProductGroupServiceImpl implements ProductGroupService {
     private final ProductGroupRepository repository;
     private final ProductGroupMapper mapper;
+    private final KeysetPager pager;
+    private final ProductRepository productRepository;
 
-    public ProductGroupServiceImpl(ProductGroupRepository repository, ProductGroupMapper mapper) {
+    public ProductGroupServiceImpl(ProductGroupRepository repository, ProductGroupMapper mapper, KeysetPager pager,
+                                   ProductRepository productRepository) {
         this.repository = repository;
         this.mapper = mapper;
+        this.pager = pager;
+        this.productRepository = productRepository;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_GROUPS_BY_NAME, allEntries = true)
     public void create(@Valid ProductGroupDto dto) {
         //проверка уникальности name
         checkName(dto.getName());
@@ -39,19 +51,25 @@ public class ProductGroupServiceImpl implements ProductGroupService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_GROUPS_BY_NAME, allEntries = true)
     public void update(@Valid ProductGroupDto dto) {
         //проверка существования записи с нужным id
         ProductGroup oldData = getByIdOrElseThrow(dto.getId());
         //если произошло изменение поля name, надо проверить, не нарушает ли новое значение уникальности в базе
-        if (!dto.getName().equals(oldData.getName()))
+        boolean renamed = !dto.getName().equals(oldData.getName());
+        if (renamed)
             checkName(dto.getName());
 
         ProductGroup newData = mapper.dtoToEntity(dto);
         newData.setId(oldData.getId());
         repository.save(newData);
+        //название входит в поисковый текст товаров
+        if (renamed)
+            productRepository.refreshSearchTextByGroupId(newData.getId());
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_GROUPS_BY_NAME, allEntries = true)
     public void delete(Long id) {
         repository.delete(getByIdOrElseThrow(id));
     }
@@ -62,10 +80,25 @@ public class ProductGroupServiceImpl implements ProductGroupService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public BatchDto<ProductGroupDto> findAllByIds(List<Long> ids) {
+        return pager.byIds(ids, repository::findDtosByIdIn, ProductGroupDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ProductGroupDto> findAll() {
-        List<ProductGroup> list = (List<ProductGroup>) repository.findAll();
+        List<ProductGroupDto> list = repository.findDtosByIdGreaterThan(0L, pager.unpaged());
         checkEmptyList(list, "all");
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Product group", "all");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<ProductGroupDto> findAll(String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<ProductGroupDto> list = repository.findDtosByIdGreaterThan(pager.after(after), page);
+        return pager.toPage(list, page, ProductGroupDto::getId);
     }
 
     @Override
@@ -84,7 +117,7 @@ public class ProductGroupServiceImpl implements ProductGroupService {
                 .orElseThrow(() -> new NothingFoundException("Product group", "id = " + id));
     }
 
-    private void checkEmptyList(List<ProductGroup> list, String exception) {
+    private void checkEmptyList(List<?> list, String exception) {
         if (CollectionUtils.isEmpty(list))
             throw new NothingFoundException("Product group", exception);
     }
@@ -1,29 +1,67 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.CacheConfig;
+import com.example.trainingspringproject.config.RetryOnConflict;
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.InvalidPageException;
 import com.example.trainingspringproject.exceptions.NotEnoughProductsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import com.example.trainingspringproject.models.dtos.ProductAvailabilityDto;
 import com.example.trainingspringproject.models.dtos.ProductDto;
 import com.example.trainingspringproject.models.entities.Product;
 import com.example.trainingspringproject.models.mappers.ProductMapper;
+import com.example.trainingspringproject.models.projections.ProductStock;
 import com.example.trainingspringproject.repositories.ProductRepository;
 import com.example.trainingspringproject.services.ProductService;
+import com.example.trainingspringproject.services.StockEngine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.springframework.validation.annotation.Validated;
 
 import javax.validation.Valid;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Service
 @Validated
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository repository;
     private final ProductMapper mapper;
+    private final StockEngine stockEngine;
+    private final KeysetPager pager;
+    private final WarehouseProperties.Search search;
+    private final int maxAvailabilityItems;
+    //снимок остатков для проверки корзины; null, если отключен
+    private final Cache stockSnapshot;
 
-    public ProductServiceImpl(ProductRepository repository, ProductMapper mapper) {
+    public ProductServiceImpl(ProductRepository repository, ProductMapper mapper, StockEngine stockEngine, KeysetPager pager,
+                              CacheManager cacheManager, WarehouseProperties properties) {
         this.repository = repository;
         this.mapper = mapper;
+        this.stockEngine = stockEngine;
+        this.pager = pager;
+        this.search = properties.getSearch();
+        this.maxAvailabilityItems = properties.getAvailability().getMaxItems();
+        //кэш регистрируется только при ненулевом warehouse.availability.snapshot-ttl
+        this.stockSnapshot = cacheManager.getCache(CacheConfig.STOCK_SNAPSHOT);
     }
 
     @Override
@@ -39,6 +77,10 @@ public class ProductServiceImpl implements ProductService {
         Product oldData = getByIdOrElseThrow(dto.getId());
         Product newData = mapper.dtoToEntity(dto);
         newData.setId(oldData.getId());
+        newData.setVersion(oldData.getVersion());
+        //новый остаток целиком ложится в строку товара
+        if (!Objects.equals(oldData.getStock(), oldData.getQuantity()))
+            repository.clearStripes(oldData.getId());
         repository.save(newData);
     }
 
@@ -53,49 +95,246 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public BatchDto<ProductDto> findAllByIds(List<Long> ids) {
+        return pager.byIds(ids, repository::findDtosByIdIn, ProductDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> findAll() {
-        List<Product> list = (List<Product>) repository.findAll();
+        List<ProductDto> list = repository.findDtosByIdGreaterThan(0L, pager.unpaged());
         checkEmptyList(list, "all");
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Product", "all");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<ProductDto> findAll(String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<ProductDto> list = repository.findDtosByIdGreaterThan(pager.after(after), page);
+        return pager.toPage(list, page, ProductDto::getId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> findAllByNameLike(String name) {
-        List<Product> list = repository.findAllByNameLike(name);
+        List<ProductDto> list = repository.findDtosByNameLikeAndIdGreaterThan(name, 0L, pager.unpaged());
         checkEmptyList(list, "name = " + name);
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Product", "name = " + name);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PageDto<ProductDto> findAllByNameLike(String name, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<ProductDto> list = repository.findDtosByNameLikeAndIdGreaterThan(name, pager.after(after), page);
+        return pager.toPage(list, page, ProductDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> findAllByProducerId(Long producerId) {
-        List<Product> list = repository.findAllByProducerId(producerId);
+        List<ProductDto> list = repository.findDtosByProducerIdAndIdGreaterThan(producerId, 0L, pager.unpaged());
         checkEmptyList(list, "producer id = " + producerId);
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Product", "producer id = " + producerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<ProductDto> findAllByProducerId(Long producerId, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<ProductDto> list = repository.findDtosByProducerIdAndIdGreaterThan(producerId, pager.after(after), page);
+        return pager.toPage(list, page, ProductDto::getId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> findAllByProductGroupId(Long groupId) {
-        List<Product> list = repository.findAllByProductGroupId(groupId);
+        List<ProductDto> list = repository.findDtosByProductGroupIdAndIdGreaterThan(groupId, 0L, pager.unpaged());
         checkEmptyList(list, "group id = " + groupId);
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Product", "group id = " + groupId);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PageDto<ProductDto> findAllByProductGroupId(Long groupId, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<ProductDto> list = repository.findDtosByProductGroupIdAndIdGreaterThan(groupId, pager.after(after), page);
+        return pager.toPage(list, page, ProductDto::getId);
+    }
+
+    //каждое слово запроса ищется как префикс слова товара, опечатки ловит сходство триграмм.
+    //пустой результат не ошибка: поиск отдает лучшие совпадения, а не выборку по условию
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> search(String query, Integer limit) {
+        int size = limit == null ? search.getDefaultLimit() : limit;
+        if (size < 1 || size > search.getMaxLimit())
+            throw new InvalidPageException("limit must be between 1 and " + search.getMaxLimit());
+
+        String text = query == null ? "" : query.trim().toLowerCase();
+        String prefixQuery = Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+        if (prefixQuery.isEmpty())
+            return List.of();
+        return repository.search(text, prefixQuery, size);
+    }
+
+    //одна строка ответа на товар, в порядке первого упоминания; строки с одним товаром складываются.
+    //все остатки читаются одним запросом вместе с полосами, без сущностей и справочников
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductAvailabilityDto> checkAvailability(@Valid List<ItemRequestDto> items) {
+        if (items.size() > maxAvailabilityItems)
+            throw new InvalidPageException("no more than " + maxAvailabilityItems + " products per availability request");
+        Map<Long, Integer> required = new LinkedHashMap<>();
+        for (ItemRequestDto item : items)
+            required.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+
+        Map<Long, ProductStock> stock = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : required.keySet()) {
+            Cache.ValueWrapper cached = stockSnapshot == null ? null : stockSnapshot.get(id);
+            if (cached == null)
+                missing.add(id);
+            else
+                stock.put(id, (ProductStock) cached.get());
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, ProductStock> loaded = loadStock(missing);
+            stock.putAll(loaded);
+            if (stockSnapshot != null)
+                loaded.forEach(stockSnapshot::put);
+        }
+
+        List<ProductAvailabilityDto> result = new ArrayList<>(required.size());
+        required.forEach((id, quantity) -> {
+            ProductStock product = stock.get(id);
+            int available = product == null ? 0 : product.getQuantity();
+            result.add(new ProductAvailabilityDto(id, quantity, available,
+                    product == null ? null : product.getOutcomePrice(), available >= quantity));
+        });
+        return result;
+    }
+
+    //отсутствующие товары тоже попадают в снимок (как null), чтобы не запрашивать их снова
+    private Map<Long, ProductStock> loadStock(Set<Long> ids) {
+        Map<Long, ProductStock> stock = new HashMap<>();
+        ids.forEach(id -> stock.put(id, null));
+        for (ProductStock product : repository.findStockByIdIn(ids))
+            stock.put(product.getId(), product);
+        return stock;
+    }
+
+    @Override
+    @RetryOnConflict
     @Transactional
     public void income(Long productId, int quantity) {
-        Product product = getByIdOrElseThrow(productId);
-        product.setQuantity(product.getQuantity() + quantity);
-        repository.save(product);
+        income(List.of(new ItemRequestDto(productId, quantity)));
     }
 
     @Override
+    @RetryOnConflict
     @Transactional
     public void outcome(Long productId, int quantity) {
-        Product product = getByIdOrElseThrow(productId);
-        if (product.getQuantity() < quantity)
-            throw new NotEnoughProductsException(quantity, product.getQuantity(), product.getName());
-        product.setQuantity(product.getQuantity() - quantity);
-        repository.save(product);
+        outcome(List.of(new ItemRequestDto(productId, quantity)));
+    }
+
+    @Override
+    @RetryOnConflict
+    @Transactional
+    public Map<Long, ProductStock> income(@Valid List<ItemRequestDto> items) {
+        Map<Long, Integer> deltas = mergeQuantities(items);
+        Map<Long, ProductStock> products = getStockOrElseThrow(deltas.keySet());
+        changeQuantities(deltas, products);
+        return products;
+    }
+
+    @Override
+    @RetryOnConflict
+    @Transactional
+    public Map<Long, ProductStock> outcome(@Valid List<ItemRequestDto> items) {
+        Map<Long, Integer> deltas = mergeQuantities(items);
+        Map<Long, ProductStock> products = getStockOrElseThrow(deltas.keySet());
+        //проверка остатков в памяти, до любой записи в базу
+        deltas.forEach((id, quantity) -> {
+            ProductStock product = products.get(id);
+            if (product.getQuantity() < quantity)
+                throw new NotEnoughProductsException(quantity, product.getQuantity(), product.getName());
+        });
+        deltas.replaceAll((id, quantity) -> -quantity);
+        changeQuantities(deltas, products);
+        return products;
+    }
+
+    //изменения остатка по накладным в порядке проводки: приход положительный, расход отрицательный.
+    //остаток проверяется после каждой накладной, приход дальше по списку не покрывает более ранний расход
+    @Override
+    @RetryOnConflict
+    @Transactional
+    public Map<Long, ProductStock> changeStock(List<Map<Long, Integer>> movements) {
+        Set<Long> ids = new TreeSet<>();
+        movements.forEach(movement -> ids.addAll(movement.keySet()));
+        Map<Long, ProductStock> products = getStockOrElseThrow(ids);
+        Map<Long, Integer> totals = new TreeMap<>();
+        Map<Long, Integer> lowest = new HashMap<>();
+        for (Map<Long, Integer> movement : movements)
+            movement.forEach((id, delta) -> {
+                int total = totals.merge(id, delta, Integer::sum);
+                ProductStock product = products.get(id);
+                if (product.getQuantity() + total < 0)
+                    throw new NotEnoughProductsException(-delta, product.getQuantity() + total - delta,
+                            product.getName());
+                lowest.merge(id, Math.min(total, 0), Math::min);
+            });
+
+        //остаток мог уменьшиться после чтения, поэтому сначала списывается самая глубокая просадка по товару,
+        //и движок проверяет именно ее, а не итог. приход после просадки идет вторым проходом
+        //по уже заблокированным строкам, так что порядок блокировок по id не нарушается
+        Map<Long, Integer> first = new TreeMap<>();
+        Map<Long, Integer> rest = new TreeMap<>();
+        totals.forEach((id, total) -> {
+            int head = lowest.get(id) < 0 ? lowest.get(id) : total;
+            if (head != 0)
+                first.put(id, head);
+            if (total != head)
+                rest.put(id, total - head);
+        });
+        changeQuantities(first, products);
+        if (!rest.isEmpty())
+            changeQuantities(rest, products);
+        return products;
+    }
+
+    //несколько строк накладной с одним товаром дают одно изменение остатка.
+    //строки товаров блокируются по возрастанию id: встречные накладные с общими товарами не ловят deadlock
+    private Map<Long, Integer> mergeQuantities(List<ItemRequestDto> items) {
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (ItemRequestDto item : items)
+            deltas.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        return deltas;
+    }
+
+    private Map<Long, ProductStock> getStockOrElseThrow(Collection<Long> ids) {
+        Map<Long, ProductStock> products = new HashMap<>();
+        for (ProductStock product : repository.findStockByIdIn(ids))
+            products.put(product.getId(), product);
+        for (Long id : ids)
+            if (!products.containsKey(id))
+                throw new NothingFoundException("Product", "id = " + id);
+        return products;
+    }
+
+    private void changeQuantities(Map<Long, Integer> deltas, Map<Long, ProductStock> products) {
+        //остаток мог измениться после чтения: такие товары движок не трогает и возвращает
+        List<Long> rejected = stockEngine.changeQuantities(deltas);
+        if (!rejected.isEmpty()) {
+            ProductStock product = products.get(rejected.get(0));
+            throw new NotEnoughProductsException(-deltas.get(product.getId()), product.getQuantity(), product.getName());
+        }
     }
 
     private Product getByIdOrElseThrow(Long id) {
@@ -103,7 +342,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new NothingFoundException("Product", "id = " + id));
     }
 
-    private void checkEmptyList(List<Product> list, String exceptionMessage) {
+    private void checkEmptyList(List<?> list, String exceptionMessage) {
         if (CollectionUtils.isEmpty(list))
             throw new NothingFoundException("Product", exceptionMessage);
     }
@@ -0,0 +1,123 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.ExecutorConfig;
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.InvalidDateRangeException;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.RebuildReportDto;
+import com.example.trainingspringproject.models.dtos.SalesReportDto;
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.enums.ReportDimension;
+import com.example.trainingspringproject.models.enums.ReportPeriod;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.repositories.DailySalesRepository;
+import com.example.trainingspringproject.repositories.DailySalesRepository.Delta;
+import com.example.trainingspringproject.services.SalesReportService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+@Service
+public class SalesReportServiceImpl implements SalesReportService {
+    private final DailySalesRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor rebuildExecutor;
+    private final int rebuildChunkDays;
+
+    public SalesReportServiceImpl(DailySalesRepository repository, TransactionTemplate transactionTemplate,
+                                  @Qualifier(ExecutorConfig.REPORT_REBUILD_EXECUTOR) AsyncTaskExecutor rebuildExecutor,
+                                  WarehouseProperties properties) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildExecutor = rebuildExecutor;
+        this.rebuildChunkDays = properties.getReports().getRebuildChunkDays();
+    }
+
+    //строки всех накладных сливаются по ключу (день, контрагент, товар): одна строка daily_sales — одно приращение.
+    //себестоимость расхода фиксируется по цене прихода товара на момент проводки
+    @Override
+    @Transactional
+    public void add(List<Invoice> invoices, Map<Long, List<ItemRequestDto>> items, Map<Long, Map<Long, Double>> prices,
+                    Map<Long, Double> incomePrices) {
+        Map<Delta, Delta> deltas = new TreeMap<>(Delta.KEY_ORDER);
+        for (Invoice invoice : invoices) {
+            Map<Long, Double> invoicePrices = prices.get(invoice.getId());
+            boolean income = invoice.getType() == TransactionType.INCOME;
+            for (ItemRequestDto item : items.get(invoice.getId())) {
+                long units = item.getQuantity();
+                double amount = units * invoicePrices.get(item.getProductId());
+                double cost = income ? 0 : units * incomePrices.get(item.getProductId());
+                Delta delta = new Delta(invoice.getDate(), invoice.getPartner().getId(), item.getProductId(),
+                        income ? units : 0, income ? amount : 0, income ? 0 : units, income ? 0 : amount, cost);
+                deltas.merge(delta, delta, Delta::plus);
+            }
+        }
+        repository.add(deltas.values());
+    }
+
+    @Override
+    @Transactional
+    public void remove(Long invoiceId) {
+        repository.subtractInvoice(invoiceId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesReportDto> report(ReportDimension by, ReportPeriod period, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return repository.report(by, period, from, to);
+    }
+
+    //диапазон режется на куски по rebuild-chunk-days, каждый пересчитывается в своей транзакции параллельно
+    @Override
+    public RebuildReportDto rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            List<LocalDate> range = repository.findInvoiceDateRange();
+            from = from == null ? range.get(0) : from;
+            to = to == null ? range.get(1) : to;
+            if (from == null || to == null)
+                return new RebuildReportDto(null, null, 0, 0L);
+        }
+        checkRange(from, to);
+
+        List<Future<Long>> futures = new ArrayList<>();
+        try {
+            for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(rebuildChunkDays)) {
+                LocalDate chunkFrom = start;
+                LocalDate end = start.plusDays(rebuildChunkDays - 1L);
+                LocalDate chunkTo = end.isAfter(to) ? to : end;
+                futures.add(rebuildExecutor.submit(
+                        () -> transactionTemplate.execute(status -> repository.rebuild(chunkFrom, chunkTo))));
+            }
+            long rows = 0;
+            for (Future<Long> future : futures)
+                rows += future.get();
+            return new RebuildReportDto(from, to, futures.size(), rows);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            //после ошибки оставшиеся куски этого пересчета не нужны
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to))
+            throw new InvalidDateRangeException(from, to);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+//остаток "горячего" товара разложен на несколько строк: писатели расходятся по разным полосам
+//и не ждут блокировку одной строки product. остальные товары уходят в обычный движок
+@RequiredArgsConstructor
+public class StripedStockEngine implements StockEngine {
+    private final StockEngine delegate;
+    private final ProductRepository repository;
+    private final Set<Long> stripedProducts;
+    private final int stripes;
+
+    //приводит полосы в базе к настройкам: лишние сливаются в строку товара, недостающие создаются.
+    //запускается после старта приложения одной транзакцией. полосы пересобираются и при пустом списке,
+    //если в базе они еще остались: товары, убранные из списка, возвращают остаток в свою строку
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildStripes() {
+        if (stripedProducts.isEmpty() && !repository.hasStripes())
+            return;
+        repository.rebuildStripes(stripedProducts, stripes);
+    }
+
+    //товары обновляются строго по возрастанию id, как и в обычных движках: подряд идущие обычные товары
+    //уходят в делегат одной пачкой, "горячие" — между ними
+    @Override
+    public List<Long> changeQuantities(Map<Long, Integer> deltas) {
+        List<Long> rejected = new ArrayList<>();
+        Map<Long, Integer> plain = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> delta : new TreeMap<>(deltas).entrySet()) {
+            if (!stripedProducts.contains(delta.getKey())) {
+                plain.put(delta.getKey(), delta.getValue());
+                continue;
+            }
+            changePlain(plain, rejected);
+            if (!changeStriped(delta.getKey(), delta.getValue()))
+                rejected.add(delta.getKey());
+        }
+        changePlain(plain, rejected);
+        return rejected;
+    }
+
+    private void changePlain(Map<Long, Integer> plain, List<Long> rejected) {
+        if (plain.isEmpty())
+            return;
+        rejected.addAll(delegate.changeQuantities(plain));
+        plain.clear();
+    }
+
+    //своя полоса у каждого потока: писатели расходятся по полосам, а повторное изменение товара
+    //в той же транзакции попадает в уже заблокированную ею строку
+    private boolean changeStriped(Long id, int delta) {
+        int own = (int) Math.floorMod(Thread.currentThread().getId(), (long) stripes);
+        //полосы товара, добавленного в список уже после запуска, еще не созданы
+        if (delta >= 0)
+            return repository.changeStripeQuantity(id, own, delta) || repository.changeStripeQuantity(id, 0, delta);
+
+        if (repository.changeStripeQuantity(id, own, delta))
+            return true;
+        //остальные полосы — по возрастанию номера, как их блокирует drain
+        for (int stripe = 0; stripe < stripes; stripe++)
+            if (stripe != own && repository.changeStripeQuantity(id, stripe, delta))
+                return true;
+        return drain(id, -delta);
+    }
+
+    //ни в одной полосе не хватает целиком: списание собирается с нескольких полос под блокировкой всех
+    private boolean drain(Long id, int quantity) {
+        Map<Integer, Integer> quantities = repository.lockStripes(id);
+        if (quantities.isEmpty())
+            return false;
+        int total = quantities.values().stream().mapToInt(Integer::intValue).sum();
+        if (total < quantity)
+            return false;
+
+        Map<Integer, Integer> changed = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> stripe : quantities.entrySet()) {
+            if (quantity == 0)
+                break;
+            int taken = Math.min(stripe.getValue(), quantity);
+            if (taken > 0) {
+                changed.put(stripe.getKey(), stripe.getValue() - taken);
+                quantity -= taken;
+            }
+        }
+        repository.setStripeQuantities(id, changed);
+        return true;
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.CacheConfig;
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
 import com.example.trainingspringproject.models.dtos.WorkerDto;
 import com.example.trainingspringproject.models.entities.Worker;
 import com.example.trainingspringproject.models.mappers.WorkerMapper;
 import com.example.trainingspringproject.repositories.WorkerRepository;
 import com.example.trainingspringproject.services.WorkerService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -20,14 +25,17 @@ import java.util.List;
 public class WorkerServiceImpl implements WorkerService {
     private final WorkerRepository repository;
     private final WorkerMapper mapper;
+    private final KeysetPager pager;
 
-    public WorkerServiceImpl(WorkerRepository repository, WorkerMapper mapper) {
+    public WorkerServiceImpl(WorkerRepository repository, WorkerMapper mapper, KeysetPager pager) {
         this.repository = repository;
         this.mapper = mapper;
+        this.pager = pager;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.WORKERS_BY_ID, allEntries = true)
     public void create(@Valid WorkerDto dto) {
         //проверка нарушения уникальности name
         checkName(dto.getName());
@@ -39,6 +47,7 @@ public class WorkerServiceImpl implements WorkerService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.WORKERS_BY_ID, allEntries = true)
     public void update(@Valid WorkerDto dto) {
         //проверка существования записи с нужным id
         Worker oldData = getByIdOrElseThrow(dto.getId());
@@ -52,6 +61,7 @@ public class WorkerServiceImpl implements WorkerService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.WORKERS_BY_ID, allEntries = true)
     public void delete(Long id) {
         repository.delete(getByIdOrElseThrow(id));
     }
@@ -62,10 +72,25 @@ public class WorkerServiceImpl implements WorkerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public BatchDto<WorkerDto> findAllByIds(List<Long> ids) {
+        return pager.byIds(ids, repository::findDtosByIdIn, WorkerDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<WorkerDto> findAll() {
-        List<Worker> list = (List<Worker>) repository.findAll();
+        List<WorkerDto> list = repository.findDtosByIdGreaterThan(0L, pager.unpaged());
         checkEmptyList(list, "all");
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Worker", "all");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<WorkerDto> findAll(String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<WorkerDto> list = repository.findDtosByIdGreaterThan(pager.after(after), page);
+        return pager.toPage(list, page, WorkerDto::getId);
     }
 
     @Override
@@ -75,10 +100,19 @@ public class WorkerServiceImpl implements WorkerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<WorkerDto> findAllByJob(String job) {
-        List<Worker> list = repository.findAllByJob(job);
+        List<WorkerDto> list = repository.findDtosByJobAndIdGreaterThan(job, 0L, pager.unpaged());
         checkEmptyList(list, "job = " + job);
-        return mapper.entityToDto(list);
+        return pager.checkCap(list, "Worker", "job = " + job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<WorkerDto> findAllByJob(String job, String after, Integer limit) {
+        Pageable page = pager.page(limit);
+        List<WorkerDto> list = repository.findDtosByJobAndIdGreaterThan(job, pager.after(after), page);
+        return pager.toPage(list, page, WorkerDto::getId);
     }
 
     private void checkName(String name) {
@@ -91,7 +125,7 @@ public class WorkerServiceImpl implements WorkerService {
                 .orElseThrow(() -> new NothingFoundException("Worker", "id = " + id));
     }
 
-    private void checkEmptyList(List<Worker> list, String exceptionMessage) {
+    private void checkEmptyList(List<?> list, String exceptionMessage) {
         if (CollectionUtils.isEmpty(list))
             throw new NothingFoundException("Worker", exceptionMessage);
     }
@@ -0,0 +1,2 @@
+ALTER TABLE Product
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,20 @@
+-- внешние ключи: составные с id, чтобы постраничная выборка (fk = ? AND id > ? ORDER BY id) шла по индексу без сортировки
+CREATE INDEX item_invoice_id_idx ON Item (invoice_id, id);
+CREATE INDEX item_product_id_idx ON Item (product_id);
+CREATE INDEX invoice_partner_id_idx ON Invoice (partner_id, id);
+CREATE INDEX invoice_worker_id_idx ON Invoice (worker_id, id);
+CREATE INDEX product_producer_id_idx ON Product (producer_id, id);
+CREATE INDEX product_group_id_idx ON Product (group_id, id);
+
+-- выборки накладных по дате и типу, выгрузка по диапазону дат
+CREATE INDEX invoice_date_type_idx ON Invoice (date, type);
+CREATE INDEX invoice_type_id_idx ON Invoice (type, id);
+
+CREATE INDEX worker_job_idx ON Worker (job, id);
+
+-- триграммы для поиска по LIKE '%...%'
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX product_name_trgm_idx ON Product USING GIN (name gin_trgm_ops);
+CREATE INDEX partner_address_trgm_idx ON Partner USING GIN (address gin_trgm_ops);
+CREATE INDEX partner_email_trgm_idx ON Partner USING GIN (email gin_trgm_ops);
+CREATE INDEX producer_address_trgm_idx ON Producer USING GIN (address gin_trgm_ops);
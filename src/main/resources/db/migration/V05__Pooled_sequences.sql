@@ -0,0 +1,22 @@
+-- последовательности вместо IDENTITY: Hibernate берет id блоками по 50 (pooled) и может батчить вставки.
+-- pooled считает значение последовательности верхней границей блока, поэтому следующий nextval = max(id) + 50
+ALTER SEQUENCE prod_group_id_seq INCREMENT BY 50;
+SELECT setval('prod_group_id_seq', COALESCE(max(id), 0) + 50, false) FROM Prod_group;
+
+ALTER SEQUENCE producer_id_seq INCREMENT BY 50;
+SELECT setval('producer_id_seq', COALESCE(max(id), 0) + 50, false) FROM Producer;
+
+ALTER SEQUENCE product_id_seq INCREMENT BY 50;
+SELECT setval('product_id_seq', COALESCE(max(id), 0) + 50, false) FROM Product;
+
+ALTER SEQUENCE worker_id_seq INCREMENT BY 50;
+SELECT setval('worker_id_seq', COALESCE(max(id), 0) + 50, false) FROM Worker;
+
+ALTER SEQUENCE partner_id_seq INCREMENT BY 50;
+SELECT setval('partner_id_seq', COALESCE(max(id), 0) + 50, false) FROM Partner;
+
+ALTER SEQUENCE invoice_id_seq INCREMENT BY 50;
+SELECT setval('invoice_id_seq', COALESCE(max(id), 0) + 50, false) FROM Invoice;
+
+ALTER SEQUENCE item_id_seq INCREMENT BY 50;
+SELECT setval('item_id_seq', COALESCE(max(id), 0) + 50, false) FROM Item;
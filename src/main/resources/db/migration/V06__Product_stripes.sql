@@ -0,0 +1,16 @@
+-- полосы остатка "горячих" товаров: остаток товара = product.quantity + сумма его полос
+CREATE TABLE Product_stripe
+(
+    product_id      BIGINT      NOT NULL REFERENCES Product(id) ON DELETE CASCADE,
+    stripe          INTEGER     NOT NULL CHECK (stripe > 0),
+    quantity        INTEGER     NOT NULL CHECK (quantity >= 0),
+    PRIMARY KEY (product_id, stripe)
+);
+
+-- полный остаток товара: его строка плюс все полосы. одно выражение на все места, где читается остаток
+CREATE FUNCTION stock_of(BIGINT) RETURNS INTEGER AS
+$$
+SELECT p.quantity + COALESCE((SELECT SUM(s.quantity) FROM product_stripe s WHERE s.product_id = p.id), 0)::INTEGER
+FROM product p
+WHERE p.id = $1
+$$ LANGUAGE sql STABLE;
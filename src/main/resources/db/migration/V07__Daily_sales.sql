@@ -0,0 +1,33 @@
+-- итоги по дню, контрагенту и товару; обновляются в транзакции проводки и удаления накладной.
+-- проводки одного товара пишут в разные полосы (stripe) и не ждут друг друга на одной строке, отчеты суммируют полосы.
+-- себестоимость расхода считается по цене прихода на момент проводки и дальше не пересчитывается
+CREATE TABLE Daily_sales
+(
+    day             DATE                NOT NULL,
+    partner_id      BIGINT              NOT NULL REFERENCES Partner(id),
+    product_id      BIGINT              NOT NULL REFERENCES Product(id),
+    stripe          SMALLINT            NOT NULL DEFAULT 0,
+    income_units    BIGINT              NOT NULL DEFAULT 0,
+    income_amount   DOUBLE PRECISION    NOT NULL DEFAULT 0,
+    outcome_units   BIGINT              NOT NULL DEFAULT 0,
+    outcome_amount  DOUBLE PRECISION    NOT NULL DEFAULT 0,
+    outcome_cost    DOUBLE PRECISION    NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, partner_id, product_id, stripe)
+);
+
+CREATE INDEX daily_sales_product_id_idx ON Daily_sales (product_id);
+CREATE INDEX daily_sales_partner_id_idx ON Daily_sales (partner_id, day);
+
+-- для уже проведенных накладных другой цены прихода, кроме текущей, нет
+INSERT INTO daily_sales (day, partner_id, product_id, income_units, income_amount, outcome_units, outcome_amount,
+                         outcome_cost)
+SELECT i.date, i.partner_id, it.product_id,
+       SUM(CASE WHEN i.type = 0 THEN it.quantity ELSE 0 END),
+       SUM(CASE WHEN i.type = 0 THEN it.quantity * it.price::DOUBLE PRECISION ELSE 0 END),
+       SUM(CASE WHEN i.type = 1 THEN it.quantity ELSE 0 END),
+       SUM(CASE WHEN i.type = 1 THEN it.quantity * it.price::DOUBLE PRECISION ELSE 0 END),
+       SUM(CASE WHEN i.type = 1 THEN it.quantity * p.income_price ELSE 0 END)
+FROM invoice i
+         JOIN item it ON it.invoice_id = i.id
+         JOIN product p ON p.id = it.product_id
+GROUP BY i.date, i.partner_id, it.product_id;
@@ -0,0 +1,16 @@
+-- текст для поиска товара: название, описание, группа и производитель; пишется приложением
+ALTER TABLE Product
+    ADD COLUMN search_text TEXT NOT NULL DEFAULT '';
+
+UPDATE product p
+SET search_text = concat_ws(' ', p.name, p.description, g.name, pr.name)
+FROM prod_group g,
+     producer pr
+WHERE g.id = p.group_id
+  AND pr.id = p.producer_id;
+
+-- полнотекстовый индекс для совпадений по префиксу слов, триграммы для опечаток
+ALTER TABLE Product
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (to_tsvector('simple', search_text)) STORED;
+CREATE INDEX product_search_vector_idx ON Product USING GIN (search_vector);
+CREATE INDEX product_search_text_trgm_idx ON Product USING GIN (search_text gin_trgm_ops);
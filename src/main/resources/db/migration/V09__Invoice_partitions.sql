@@ -0,0 +1,132 @@
+-- накладные и их строки секционируются по месяцам даты накладной. строки лежат в секции того же месяца,
+-- поэтому выборки по диапазону дат читают только нужные секции, а старый месяц отсоединяется целиком.
+-- ключ секционирования обязан входить в первичный ключ: id накладной по-прежнему уникален за счет последовательности
+ALTER SEQUENCE invoice_id_seq OWNED BY NONE;
+ALTER SEQUENCE item_id_seq OWNED BY NONE;
+ALTER TABLE Item RENAME TO item_unpartitioned;
+ALTER TABLE Invoice RENAME TO invoice_unpartitioned;
+
+CREATE TABLE Invoice
+(
+    id              BIGINT      NOT NULL DEFAULT nextval('invoice_id_seq'),
+    partner_id      BIGINT      NOT NULL REFERENCES Partner(id),
+    worker_id       BIGINT      NOT NULL REFERENCES Worker(id),
+    type            INTEGER     NOT NULL,
+    date            DATE        NOT NULL
+) PARTITION BY RANGE (date);
+
+CREATE TABLE Item
+(
+    id              BIGINT      NOT NULL DEFAULT nextval('item_id_seq'),
+    invoice_id      BIGINT      NOT NULL,
+    invoice_date    DATE        NOT NULL,
+    product_id      BIGINT      NOT NULL REFERENCES Product(id),
+    quantity        INTEGER     NOT NULL CHECK (quantity > 0),
+    price           REAL        NOT NULL CHECK (price > 0)
+) PARTITION BY RANGE (invoice_date);
+
+-- строки месяца без секции попадают в DEFAULT, а не роняют проводку. в норме секции пусты:
+-- create_invoice_partitions переносит из них строки созданного месяца, задача обслуживания
+-- предупреждает в логе, если в invoice_default что-то осталось
+CREATE TABLE invoice_default PARTITION OF invoice DEFAULT;
+CREATE TABLE item_default PARTITION OF item DEFAULT;
+
+-- секции invoice_yYYYYmMM и item_yYYYYmMM для каждого месяца диапазона, уже существующие пропускаются
+CREATE FUNCTION create_invoice_partitions(from_day DATE, to_day DATE) RETURNS INTEGER AS
+$$
+DECLARE
+    month_start DATE    := date_trunc('month', from_day)::DATE;
+    month_end   DATE;
+    created     INTEGER := 0;
+    suffix      TEXT;
+    moved       BOOLEAN;
+BEGIN
+    -- несколько экземпляров приложения обслуживают секции по очереди
+    PERFORM pg_advisory_xact_lock(7002);
+    WHILE month_start <= to_day
+        LOOP
+            suffix := to_char(month_start, '"y"YYYY"m"MM');
+            month_end := (month_start + INTERVAL '1 month')::DATE;
+            IF to_regclass('invoice_' || suffix) IS NULL THEN
+                -- секция не создается, пока в DEFAULT есть строки ее диапазона: они временно выносятся
+                -- и после создания секций вставляются обратно через родительские таблицы
+                moved := EXISTS(SELECT 1 FROM invoice_default WHERE date >= month_start AND date < month_end);
+                IF moved THEN
+                    CREATE TEMP TABLE moved_invoice AS
+                        SELECT * FROM invoice_default WHERE date >= month_start AND date < month_end;
+                    CREATE TEMP TABLE moved_item AS
+                        SELECT * FROM item_default WHERE invoice_date >= month_start AND invoice_date < month_end;
+                    DELETE FROM item_default WHERE invoice_date >= month_start AND invoice_date < month_end;
+                    DELETE FROM invoice_default WHERE date >= month_start AND date < month_end;
+                END IF;
+                EXECUTE format('CREATE TABLE %I PARTITION OF invoice FOR VALUES FROM (%L) TO (%L)',
+                               'invoice_' || suffix, month_start, month_end);
+                EXECUTE format('CREATE TABLE %I PARTITION OF item FOR VALUES FROM (%L) TO (%L)',
+                               'item_' || suffix, month_start, month_end);
+                IF moved THEN
+                    INSERT INTO invoice SELECT * FROM moved_invoice;
+                    INSERT INTO item SELECT * FROM moved_item;
+                    DROP TABLE moved_item;
+                    DROP TABLE moved_invoice;
+                END IF;
+                created := created + 1;
+            END IF;
+            month_start := month_end;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- отсоединенные секции остаются обычными таблицами: их можно выгрузить и удалить или присоединить обратно.
+-- сначала строки, затем накладные: иначе внешний ключ строк не даст убрать накладные из invoice
+CREATE FUNCTION detach_invoice_partition(month_start DATE) RETURNS BOOLEAN AS
+$$
+DECLARE
+    suffix TEXT := to_char(month_start, '"y"YYYY"m"MM');
+BEGIN
+    IF NOT EXISTS(SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass('invoice_' || suffix)) THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('ALTER TABLE item DETACH PARTITION %I', 'item_' || suffix);
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT item_invoice_fk', 'item_' || suffix);
+    EXECUTE format('ALTER TABLE invoice DETACH PARTITION %I', 'invoice_' || suffix);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_invoice_partitions(COALESCE((SELECT min(date) FROM invoice_unpartitioned), CURRENT_DATE),
+                                 (CURRENT_DATE + INTERVAL '3 months')::DATE);
+
+INSERT INTO invoice (id, partner_id, worker_id, type, date)
+SELECT id, partner_id, worker_id, type, date
+FROM invoice_unpartitioned;
+
+INSERT INTO item (id, invoice_id, invoice_date, product_id, quantity, price)
+SELECT it.id, it.invoice_id, i.date, it.product_id, it.quantity, it.price
+FROM item_unpartitioned it
+         JOIN invoice_unpartitioned i ON i.id = it.invoice_id;
+
+DROP TABLE item_unpartitioned;
+DROP TABLE invoice_unpartitioned;
+
+ALTER SEQUENCE invoice_id_seq OWNED BY Invoice.id;
+ALTER SEQUENCE item_id_seq OWNED BY Item.id;
+
+-- ключи и индексы на родительских таблицах создаются во всех секциях, в том числе будущих.
+-- ключ секционирования обязан входить в уникальный ключ, поэтому база не проверяет уникальность id отдельно.
+-- ее гарантирует только последовательность: id накладных и строк берутся из invoice_id_seq и item_id_seq
+-- (DEFAULT столбца и генератор Hibernate), явные id пишет лишь перенос данных выше, где они уже уникальны.
+-- запись с явным id в обход последовательности может дать дубликат, который findById и кэши не отличат
+ALTER TABLE Invoice ADD CONSTRAINT invoice_pkey PRIMARY KEY (id, date);
+ALTER TABLE Item ADD CONSTRAINT item_pkey PRIMARY KEY (id, invoice_date);
+ALTER TABLE Item ADD CONSTRAINT item_invoice_fk FOREIGN KEY (invoice_id, invoice_date) REFERENCES Invoice (id, date);
+
+CREATE INDEX item_invoice_id_idx ON Item (invoice_id, id);
+CREATE INDEX item_product_id_idx ON Item (product_id);
+CREATE INDEX invoice_partner_id_idx ON Invoice (partner_id, id);
+CREATE INDEX invoice_worker_id_idx ON Invoice (worker_id, id);
+CREATE INDEX invoice_date_type_idx ON Invoice (date, type);
+CREATE INDEX invoice_type_id_idx ON Invoice (type, id);
+
+ANALYZE Invoice;
+ANALYZE Item;
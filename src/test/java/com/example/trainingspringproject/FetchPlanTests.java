@@ -0,0 +1,116 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.entities.Item;
+import com.example.trainingspringproject.models.entities.Product;
+import com.example.trainingspringproject.repositories.InvoiceRepository;
+import com.example.trainingspringproject.repositories.ItemRepository;
+import com.example.trainingspringproject.repositories.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnitUtil;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+//каждый finder укладывается в один запрос вместе с атрибутами своего графа,
+//а связи вне графа остаются незагруженными
+@SpringBootTest
+@Transactional
+class FetchPlanTests {
+    private static final LocalDate DATE = LocalDate.of(1999, 12, 30);
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private PersistenceUnitUtil util;
+    private Long invoiceId;
+    private Long productId;
+
+    @BeforeEach
+    void init() {
+        util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Long> products = jdbcTemplate.queryForList("SELECT id FROM product ORDER BY id LIMIT 3", Long.class);
+        productId = products.get(0);
+        jdbcTemplate.queryForObject("SELECT create_invoice_partitions(?, ?)", Integer.class, DATE, DATE);
+        for (int i = 0; i < 20; i++) {
+            invoiceId = jdbcTemplate.queryForObject(
+                    "INSERT INTO invoice (partner_id, worker_id, type, date) " +
+                            "VALUES ((SELECT min(id) FROM partner), (SELECT min(id) FROM worker), 0, ?) RETURNING id",
+                    Long.class, DATE);
+            for (Long product : products)
+                jdbcTemplate.update("INSERT INTO item (invoice_id, invoice_date, product_id, quantity, price) " +
+                        "VALUES (?, ?, ?, 1, 1.0)", invoiceId, DATE, product);
+        }
+    }
+
+    @Test
+    void invoiceFinders_thenLoadPartnerAndWorkerInOneStatement() {
+        assertInvoices(() -> List.of(invoiceRepository.findById(invoiceId).orElseThrow()));
+    }
+
+    @Test
+    void productFinders_thenLoadGroupAndProducerInOneStatement() {
+        assertProducts(() -> List.of(productRepository.findById(productId).orElseThrow()));
+    }
+
+    @Test
+    void itemFinder_thenLoadNoAssociations() {
+        entityManager.clear();
+        long statements = StatementCounter.current();
+
+        List<Item> items = itemRepository.findAllByInvoiceId(invoiceId);
+
+        Assertions.assertEquals(1, StatementCounter.current() - statements);
+        Assertions.assertEquals(3, items.size());
+        for (Item item : items) {
+            Assertions.assertFalse(util.isLoaded(item.getInvoice()));
+            Assertions.assertFalse(util.isLoaded(item.getProduct()));
+        }
+    }
+
+    private void assertInvoices(Supplier<List<Invoice>> finder) {
+        entityManager.clear();
+        long statements = StatementCounter.current();
+
+        List<Invoice> invoices = finder.get();
+        invoices.forEach(invoice -> {
+            invoice.getPartner().getName();
+            invoice.getWorker().getName();
+        });
+
+        Assertions.assertFalse(invoices.isEmpty());
+        Assertions.assertEquals(1, StatementCounter.current() - statements);
+    }
+
+    private void assertProducts(Supplier<List<Product>> finder) {
+        entityManager.clear();
+        long statements = StatementCounter.current();
+
+        List<Product> products = finder.get();
+        products.forEach(product -> {
+            product.getProductGroup().getName();
+            product.getProducer().getName();
+        });
+
+        Assertions.assertFalse(products.isEmpty());
+        Assertions.assertEquals(1, StatementCounter.current() - statements);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+//выгрузка на тестовых данных из V02__Load_test_data.sql
+@SpringBootTest
+class InvoiceExportTests {
+    private static final LocalDate DATE = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Test
+    void exportAll_whenFilteredByDateAndType_thenInvoiceCollectedWithAllItemsInOneStatement() {
+        List<InvoiceResponseDto> invoices = new ArrayList<>();
+        long statements = StatementCounter.current();
+
+        invoiceService.exportAll(DATE, DATE, TransactionType.INCOME, invoices::add);
+
+        Assertions.assertEquals(1, StatementCounter.current() - statements);
+        Assertions.assertEquals(1, invoices.size());
+        Assertions.assertEquals(TransactionType.INCOME, invoices.get(0).getType());
+        Assertions.assertEquals("Partner 2", invoices.get(0).getPartnerName());
+        Assertions.assertEquals(3, invoices.get(0).getItems().size());
+    }
+
+    @Test
+    void exportAll_whenNoFilters_thenEveryInvoiceExportedOnceInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+
+        invoiceService.exportAll(null, null, null, invoice -> ids.add(invoice.getId()));
+
+        Assertions.assertTrue(ids.size() >= 2);
+        for (int i = 1; i < ids.size(); i++)
+            Assertions.assertTrue(ids.get(i - 1) < ids.get(i));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.repositories.InvoicePartitionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+//секции создаются и отсоединяются внутри транзакции теста и откатываются вместе с ней
+@SpringBootTest
+@Transactional
+class InvoicePartitionTests {
+    private static final LocalDate MONTH = LocalDate.of(1990, 1, 1);
+
+    @Autowired
+    private InvoicePartitionRepository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void init() {
+        repository.createPartitions(MONTH.minusMonths(1), MONTH.plusMonths(1));
+        Long invoiceId = jdbcTemplate.queryForObject("INSERT INTO invoice (partner_id, worker_id, type, date) " +
+                "VALUES ((SELECT min(id) FROM partner), (SELECT min(id) FROM worker), 0, ?) RETURNING id",
+                Long.class, MONTH.plusDays(14));
+        jdbcTemplate.update("INSERT INTO item (invoice_id, invoice_date, product_id, quantity, price) " +
+                "VALUES (?, ?, (SELECT min(id) FROM product), 1, 1.0)", invoiceId, MONTH.plusDays(14));
+    }
+
+    @Test
+    void createPartitions_whenMonthExists_thenSkipIt() {
+        Assertions.assertEquals(0, repository.createPartitions(MONTH, MONTH));
+        Assertions.assertTrue(repository.findAttachedMonths().containsAll(
+                List.of(MONTH.minusMonths(1), MONTH, MONTH.plusMonths(1))));
+    }
+
+    @Test
+    void findAttachedMonths_whenPartitionNamedOtherwise_thenReadMonthFromBounds() {
+        jdbcTemplate.execute("CREATE TABLE invoice_archive_1989_11 PARTITION OF invoice " +
+                "FOR VALUES FROM ('1989-11-01') TO ('1989-12-01')");
+
+        Assertions.assertTrue(repository.findAttachedMonths().contains(MONTH.minusMonths(2)));
+    }
+
+    @Test
+    void dateBoundedQuery_thenScanOnlyPartitionOfThatMonth() {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN SELECT i.id FROM invoice i JOIN item it " +
+                "ON it.invoice_id = i.id AND it.invoice_date = i.date WHERE i.date = DATE '1990-01-15'", String.class);
+
+        Assertions.assertTrue(plan.stream().anyMatch(line -> line.contains("invoice_y1990m01")));
+        Assertions.assertTrue(plan.stream().anyMatch(line -> line.contains("item_y1990m01")));
+        Assertions.assertTrue(plan.stream().noneMatch(line -> line.contains("y1989m12") || line.contains("y1990m02")));
+    }
+
+    @Test
+    void createPartitions_whenRowsInDefaultPartition_thenMoveThemToNewMonth() {
+        LocalDate day = LocalDate.of(1985, 3, 10);
+        Long invoiceId = jdbcTemplate.queryForObject("INSERT INTO invoice (partner_id, worker_id, type, date) " +
+                "VALUES ((SELECT min(id) FROM partner), (SELECT min(id) FROM worker), 0, ?) RETURNING id", Long.class, day);
+        jdbcTemplate.update("INSERT INTO item (invoice_id, invoice_date, product_id, quantity, price) " +
+                "VALUES (?, ?, (SELECT min(id) FROM product), 1, 1.0)", invoiceId, day);
+        long unpartitioned = repository.countUnpartitioned();
+
+        Assertions.assertEquals(1, repository.createPartitions(day, day));
+
+        Assertions.assertEquals(unpartitioned - 1, repository.countUnpartitioned());
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_y1985m03", Integer.class));
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM item_y1985m03", Integer.class));
+    }
+
+    @Test
+    void detachPartition_thenMonthLeavesInvoiceButKeepsRows() {
+        Assertions.assertTrue(repository.detachPartition(MONTH));
+
+        Assertions.assertFalse(repository.findAttachedMonths().contains(MONTH));
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM invoice WHERE date = ?", Integer.class, MONTH.plusDays(14)));
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_y1990m01", Integer.class));
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM item_y1990m01", Integer.class));
+        Assertions.assertFalse(repository.detachPartition(MONTH));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.RetryOnConflict;
+import com.example.trainingspringproject.config.TransactionRetryAspect;
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+//накладные с общими товарами в разном порядке строк проводятся параллельно без потерь
+@SpringBootTest
+class InvoicePostingConcurrencyTests {
+    private static final int THREADS = 16;
+    private static final int INVOICES = 20;
+    private static final int PRODUCTS = 4;
+
+    @Autowired
+    private InvoiceService invoiceService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private WarehouseProperties properties;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> invoiceIds = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < PRODUCTS; i++)
+            productIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO product (group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                            "VALUES ((SELECT id FROM prod_group WHERE name = 'Dairy'), " +
+                            "(SELECT id FROM producer WHERE name = 'Dairy farm'), ?, null, 0, 1.0, 2.0) RETURNING id",
+                    Long.class, "Posting test product " + i));
+    }
+
+    @AfterEach
+    void cleanup() {
+        for (Long id : invoiceIds) {
+            jdbcTemplate.update("DELETE FROM item WHERE invoice_id = ?", id);
+            jdbcTemplate.update("DELETE FROM invoice WHERE id = ?", id);
+        }
+        for (Long id : productIds)
+            jdbcTemplate.update("DELETE FROM product WHERE id = ?", id);
+    }
+
+    @Test
+    void create_whenInvoicesShareProductsInDifferentOrder_thenAllArePosted() throws Exception {
+        Long partnerId = jdbcTemplate.queryForObject("SELECT min(id) FROM partner", Long.class);
+        Long workerId = jdbcTemplate.queryForObject("SELECT min(id) FROM worker", Long.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                //половина потоков перечисляет товары в обратном порядке
+                List<Long> order = new ArrayList<>(productIds);
+                if (i % 2 == 1)
+                    Collections.reverse(order);
+                Callable<Object> task = () -> {
+                    start.await();
+                    for (int j = 0; j < INVOICES; j++) {
+                        List<ItemRequestDto> items = new ArrayList<>();
+                        for (Long productId : order)
+                            items.add(new ItemRequestDto(productId, 1));
+                        invoiceIds.add(invoiceService.create(
+                                new InvoiceRequestDto(partnerId, workerId, TransactionType.INCOME, items)).getInvoiceId());
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get(2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Long productId : productIds)
+            Assertions.assertEquals(THREADS * INVOICES,
+                    jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId));
+    }
+
+    @Test
+    void retryAspect_whenDeadlock_thenRetriesAndCountsAttempts() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FailingPosting(2));
+        factory.addAspect(new TransactionRetryAspect(registry, properties));
+        FailingPosting posting = factory.getProxy();
+
+        Assertions.assertEquals(3, posting.post());
+        Assertions.assertEquals(2.0, registry.get("warehouse.transaction.retries").tag("reason", "deadlock")
+                .counter().count());
+    }
+
+    @Test
+    void retryAspect_whenDeadlockPersists_thenGivesUp() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FailingPosting(Integer.MAX_VALUE));
+        factory.addAspect(new TransactionRetryAspect(registry, properties));
+        FailingPosting posting = factory.getProxy();
+
+        Assertions.assertThrows(DeadlockLoserDataAccessException.class, posting::post);
+        Assertions.assertEquals(1.0, registry.get("warehouse.transaction.retries.exhausted").counter().count());
+    }
+
+    static class FailingPosting {
+        private final int failures;
+        private int calls;
+
+        FailingPosting(int failures) {
+            this.failures = failures;
+        }
+
+        @RetryOnConflict
+        public int post() {
+            if (++calls <= failures)
+                throw new DeadlockLoserDataAccessException("deadlock detected", new SQLException("deadlock", "40P01"));
+            return calls;
+        }
+    }
+}
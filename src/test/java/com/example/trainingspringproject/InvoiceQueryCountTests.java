@@ -0,0 +1,81 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.services.InvoiceService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+//выборка накладных не должна порождать отдельный запрос на каждую накладную
+@SpringBootTest
+@Transactional
+class InvoiceQueryCountTests {
+    private static final int INVOICES = 200;
+    private static final int ITEMS_PER_INVOICE = 3;
+    private static final LocalDate DATE = LocalDate.of(1999, 12, 31);
+
+    @Autowired
+    private InvoiceService invoiceService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void init() {
+        List<Long> products = jdbcTemplate.queryForList(
+                "SELECT id FROM product ORDER BY id LIMIT " + ITEMS_PER_INVOICE, Long.class);
+        //накладные задним числом: секции для этого месяца заранее не созданы
+        jdbcTemplate.queryForObject("SELECT create_invoice_partitions(?, ?)", Integer.class, DATE, DATE);
+        for (int i = 0; i < INVOICES; i++) {
+            Long invoiceId = jdbcTemplate.queryForObject(
+                    "INSERT INTO invoice (partner_id, worker_id, type, date) " +
+                            "VALUES ((SELECT min(id) FROM partner), (SELECT min(id) FROM worker), 0, ?) RETURNING id",
+                    Long.class, DATE);
+            List<Object[]> items = new ArrayList<>();
+            for (Long productId : products)
+                items.add(new Object[]{invoiceId, DATE, productId, 1, 1.0});
+            jdbcTemplate.batchUpdate("INSERT INTO item (invoice_id, invoice_date, product_id, quantity, price) " +
+                    "VALUES (?, ?, ?, ?, ?)", items);
+        }
+    }
+
+    @Test
+    void findAllByDate_thenInvoicesAndItemsLoadedInTwoStatements() {
+        long statements = StatementCounter.current();
+
+        List<InvoiceResponseDto> invoices = invoiceService.findAllByDate(DATE);
+
+        Assertions.assertEquals(2, StatementCounter.current() - statements);
+        Assertions.assertEquals(INVOICES, invoices.size());
+        invoices.forEach(invoice -> Assertions.assertEquals(ITEMS_PER_INVOICE, invoice.getItems().size()));
+    }
+
+    @Test
+    void findAll_thenStatementCountNotDependsOnInvoiceCount() {
+        long statements = StatementCounter.current();
+
+        List<InvoiceResponseDto> invoices = invoiceService.findAll();
+
+        Assertions.assertTrue(invoices.size() > INVOICES);
+        Assertions.assertEquals(1 + (invoices.size() - 1) / 1000 + 1, StatementCounter.current() - statements);
+    }
+
+    @Test
+    void findById_thenInvoiceAndItemsLoadedInTwoStatements() {
+        Long id = jdbcTemplate.queryForObject("SELECT max(id) FROM invoice", Long.class);
+        long statements = StatementCounter.current();
+
+        InvoiceResponseDto invoice = invoiceService.findById(id);
+
+        Assertions.assertEquals(2, StatementCounter.current() - statements);
+        Assertions.assertEquals(ITEMS_PER_INVOICE, invoice.getItems().size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.CacheConfig;
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@SpringBootTest
+class InvoiceResponseCacheTests {
+    @Autowired
+    private InvoiceService invoiceService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long invoiceId;
+    private Long productId;
+
+    @BeforeEach
+    void init() {
+        cacheManager.getCache(CacheConfig.INVOICES_BY_ID).clear();
+        productId = jdbcTemplate.queryForObject("SELECT min(id) FROM product", Long.class);
+        Long partnerId = jdbcTemplate.queryForObject("SELECT min(id) FROM partner", Long.class);
+        Long workerId = jdbcTemplate.queryForObject("SELECT min(id) FROM worker", Long.class);
+        invoiceId = invoiceService.create(new InvoiceRequestDto(partnerId, workerId, TransactionType.INCOME,
+                List.of(new ItemRequestDto(productId, 2)))).getInvoiceId();
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM item WHERE invoice_id = ?", invoiceId);
+        jdbcTemplate.update("DELETE FROM invoice WHERE id = ?", invoiceId);
+        jdbcTemplate.update("UPDATE product SET quantity = quantity - 2 WHERE id = ?", productId);
+    }
+
+    @Test
+    void findById_whenInvoiceJustCreated_thenServedFromCache() {
+        long statements = StatementCounter.current();
+
+        InvoiceResponseDto invoice = invoiceService.findById(invoiceId);
+
+        Assertions.assertEquals(0, StatementCounter.current() - statements);
+        Assertions.assertEquals(1, invoice.getItems().size());
+        Assertions.assertEquals(productId, invoice.getItems().get(0).getProductId());
+        Assertions.assertNotNull(invoice.getItems().get(0).getId());
+    }
+
+    @Test
+    void findById_whenCacheCleared_thenLoadedOnceAndCached() {
+        InvoiceResponseDto created = invoiceService.findById(invoiceId);
+        cacheManager.getCache(CacheConfig.INVOICES_BY_ID).clear();
+
+        InvoiceResponseDto loaded = invoiceService.findById(invoiceId);
+        long statements = StatementCounter.current();
+        invoiceService.findById(invoiceId);
+
+        Assertions.assertEquals(0, StatementCounter.current() - statements);
+        Assertions.assertEquals(created, loaded);
+    }
+
+    @Test
+    void findById_whenInvoiceDeleted_thenEvicted() {
+        invoiceService.findById(invoiceId);
+
+        invoiceService.delete(invoiceId);
+
+        Assertions.assertThrows(NothingFoundException.class, () -> invoiceService.findById(invoiceId));
+    }
+}
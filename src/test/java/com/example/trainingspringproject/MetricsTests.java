@@ -0,0 +1,54 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.exceptions.NotEnoughProductsException;
+import com.example.trainingspringproject.services.ProductService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@Transactional
+class MetricsTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void prometheus_thenExposeRequestServiceRepositoryAndShortageMetrics() throws Exception {
+        Long productId = jdbcTemplate.queryForObject(
+                "INSERT INTO product (group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                        "VALUES ((SELECT id FROM prod_group WHERE name = 'Dairy'), " +
+                        "(SELECT id FROM producer WHERE name = 'Dairy farm'), 'Metrics test product', null, 0, 1.0, 2.0) " +
+                        "RETURNING id", Long.class);
+
+        mockMvc.perform(get("/api/product/find-by-id?id=" + productId))
+                .andExpect(status().isOk());
+        Assertions.assertThrows(NotEnoughProductsException.class, () -> productService.outcome(productId, 1));
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        Assertions.assertTrue(metrics.contains("http_server_requests_seconds_bucket{"));
+        Assertions.assertTrue(metrics.contains("warehouse_http_statements_count{method=\"GET\",uri=\"/api/product/find-by-id\""));
+        Assertions.assertTrue(metrics.contains("warehouse_service_invocations_seconds_count{class=\"ProductServiceImpl\""));
+        Assertions.assertTrue(metrics.contains("spring_data_repository_invocations_seconds_count{"));
+        Assertions.assertTrue(metrics.contains("hikaricp_connections_acquire_seconds_count{"));
+        Assertions.assertTrue(metrics.contains("warehouse_service_errors_total{class=\"ProductServiceImpl\"," +
+                "exception=\"NotEnoughProductsException\""));
+    }
+}
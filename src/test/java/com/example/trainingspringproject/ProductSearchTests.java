@@ -0,0 +1,91 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.models.dtos.ProducerDto;
+import com.example.trainingspringproject.models.dtos.ProductDto;
+import com.example.trainingspringproject.models.dtos.ProductGroupDto;
+import com.example.trainingspringproject.services.ProducerService;
+import com.example.trainingspringproject.services.ProductGroupService;
+import com.example.trainingspringproject.services.ProductService;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+//товары создаются через сервисы, чтобы search_text заполняли колбэки сущности
+@SpringBootTest
+class ProductSearchTests {
+    private static final String GROUP = "Quendril tools";
+    private static final String PRODUCER = "Search test producer";
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductGroupService productGroupService;
+    @Autowired
+    private ProducerService producerService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void init() {
+        productGroupService.create(new ProductGroupDto(0L, GROUP));
+        producerService.create(new ProducerDto(0L, PRODUCER, "Voronezh"));
+        productService.create(new ProductDto(0L, "Zorblatix grinder", "Hand grinder", GROUP, PRODUCER, 1, 10.0, 20.0));
+        productService.create(new ProductDto(0L, "Zorblatix saw", null, GROUP, PRODUCER, 1, 10.0, 20.0));
+    }
+
+    @AfterEach
+    void cleanup() {
+        Long groupId = jdbcTemplate.queryForObject("SELECT group_id FROM product WHERE name = 'Zorblatix saw'", Long.class);
+        jdbcTemplate.update("DELETE FROM product WHERE group_id = ?", groupId);
+        jdbcTemplate.update("DELETE FROM prod_group WHERE id = ?", groupId);
+        jdbcTemplate.update("DELETE FROM producer WHERE name = ?", PRODUCER);
+        //удаление мимо Hibernate: иначе следующий тест найдет группу и производителя в кэше второго уровня
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void search_whenWordsArePrefixes_thenFindProduct() {
+        Assertions.assertEquals(List.of("Zorblatix grinder"), names(productService.search("zorbl grin", null)));
+    }
+
+    @Test
+    void search_whenQueryHasTypo_thenFindProducts() {
+        Assertions.assertEquals(2, productService.search("zorblatiks", null).size());
+    }
+
+    @Test
+    void search_byGroupName_thenFindGroupProducts() {
+        Assertions.assertEquals(2, productService.search("quendril", null).size());
+    }
+
+    @Test
+    void search_whenGroupRenamed_thenFindProductsByNewName() {
+        Long groupId = jdbcTemplate.queryForObject("SELECT id FROM prod_group WHERE name = ?", Long.class, GROUP);
+        productGroupService.update(new ProductGroupDto(groupId, "Vashmoor tools"));
+
+        Assertions.assertEquals(2, productService.search("vashmoor", null).size());
+        Assertions.assertTrue(productService.search("quendril", null).isEmpty());
+    }
+
+    @Test
+    void search_thenBestMatchFirst() {
+        List<ProductDto> found = productService.search("zorblatix saw", 1);
+
+        Assertions.assertEquals(List.of("Zorblatix saw"), names(found));
+    }
+
+    private List<String> names(List<ProductDto> dtos) {
+        return dtos.stream().map(ProductDto::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.models.dtos.WorkerDto;
+import com.example.trainingspringproject.models.entities.Worker;
+import com.example.trainingspringproject.repositories.ReferenceCache;
+import com.example.trainingspringproject.services.WorkerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+class ReferenceCacheTests {
+    private static final String NAME = "Cache test worker";
+    private static final String JOB = "Tester";
+
+    @Autowired
+    private ReferenceCache referenceCache;
+    @Autowired
+    private WorkerService workerService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long workerId;
+
+    @BeforeEach
+    void init() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        workerId = jdbcTemplate.queryForObject("INSERT INTO worker (name, job) VALUES (?, ?) RETURNING id",
+                Long.class, NAME, JOB);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM worker WHERE id = ?", workerId);
+    }
+
+    @Test
+    void findWorkerById_whenCalledTwice_thenSecondCallServedFromCache() {
+        referenceCache.findWorkerById(workerId);
+        long statements = StatementCounter.current();
+
+        Worker worker = referenceCache.findWorkerById(workerId).orElseThrow();
+
+        Assertions.assertEquals(0, StatementCounter.current() - statements);
+        Assertions.assertEquals(NAME, worker.getName());
+    }
+
+    @Test
+    void findWorkerById_whenWorkerUpdated_thenCacheInvalidated() {
+        referenceCache.findWorkerById(workerId);
+
+        workerService.update(new WorkerDto(workerId, NAME + " (renamed)", JOB));
+
+        Assertions.assertEquals(NAME + " (renamed)", referenceCache.findWorkerById(workerId).orElseThrow().getName());
+    }
+
+    @Test
+    void findWorkerById_whenWorkerNotExist_thenEmptyResultNotCached() {
+        referenceCache.findWorkerById(-1L);
+        long statements = StatementCounter.current();
+
+        Assertions.assertTrue(referenceCache.findWorkerById(-1L).isEmpty());
+        Assertions.assertEquals(1, StatementCounter.current() - statements);
+    }
+}
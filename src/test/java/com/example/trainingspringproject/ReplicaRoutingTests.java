@@ -0,0 +1,97 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.ReadYourWritesInterceptor;
+import com.example.trainingspringproject.config.ReplicaRoutingContext;
+import com.example.trainingspringproject.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.servlet.http.Cookie;
+import java.time.Duration;
+import java.util.List;
+
+//"реплика" — второй пул к той же базе; пул, выдавший соединение, виден по application_name
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/${POSTGRES_DB_NAME}?ApplicationName=primary",
+        "warehouse.replicas.nodes[0].url=jdbc:postgresql://localhost:5432/${POSTGRES_DB_NAME}?ApplicationName=replica",
+        "warehouse.replicas.nodes[0].username=${POSTGRES_DB_USERNAME}",
+        "warehouse.replicas.nodes[0].password=${POSTGRES_DB_PASSWORD}",
+        "warehouse.replicas.nodes[0].maximum-pool-size=2"
+})
+class ReplicaRoutingTests {
+    private static final String APPLICATION_NAME = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @AfterEach
+    void cleanup() {
+        ReplicaRoutingContext.clear();
+    }
+
+    @Test
+    void readOnlyTransaction_thenUseReplica() {
+        Assertions.assertEquals(List.of("replica-1"), routingDataSource.usableReplicas());
+        Assertions.assertEquals("replica", applicationName(true));
+    }
+
+    @Test
+    void readWriteTransaction_thenUsePrimary() {
+        Assertions.assertEquals("primary", applicationName(false));
+    }
+
+    @Test
+    void readOnlyTransaction_whenClientJustWrote_thenUsePrimary() {
+        ReplicaRoutingContext.usePrimary();
+
+        Assertions.assertEquals("primary", applicationName(true));
+    }
+
+    @Test
+    void interceptor_whenWriteRequest_thenSetCookieAndStickToPrimary() {
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/api/invoice/create"), response, null);
+
+        Cookie cookie = response.getCookie(ReadYourWritesInterceptor.COOKIE);
+        Assertions.assertNotNull(cookie);
+        Assertions.assertTrue(ReplicaRoutingContext.isPrimaryOnly());
+
+        interceptor.afterCompletion(null, null, null, null);
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/invoice/find-by-id");
+        read.setCookies(cookie);
+        interceptor.preHandle(read, new MockHttpServletResponse(), null);
+        Assertions.assertEquals("primary", applicationName(true));
+    }
+
+    @Test
+    void interceptor_whenCookieExpired_thenUseReplica() {
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5));
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/invoice/find-by-id");
+        read.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+
+        interceptor.preHandle(read, new MockHttpServletResponse(), null);
+
+        Assertions.assertFalse(ReplicaRoutingContext.isPrimaryOnly());
+        Assertions.assertEquals("replica", applicationName(true));
+    }
+
+    private String applicationName(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.SalesReportDto;
+import com.example.trainingspringproject.models.enums.ReportDimension;
+import com.example.trainingspringproject.models.enums.ReportPeriod;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceService;
+import com.example.trainingspringproject.services.SalesReportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+//итоги в daily_sales после проводки совпадают с пересчетом из item/invoice
+@SpringBootTest
+class SalesReportTests {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private InvoiceService invoiceService;
+    @Autowired
+    private SalesReportService salesReportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long partnerId;
+    private Long productId;
+    private Integer quantity;
+    private Double incomePrice;
+
+    @BeforeEach
+    void init() {
+        partnerId = jdbcTemplate.queryForObject("INSERT INTO partner (name, address, email, requisites) " +
+                "VALUES ('Report test partner', 'Voronezh', 'report@mail.ru', 'OGRN: report') RETURNING id", Long.class);
+        productId = jdbcTemplate.queryForObject("SELECT min(id) FROM product", Long.class);
+        quantity = jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId);
+        incomePrice = jdbcTemplate.queryForObject("SELECT income_price FROM product WHERE id = ?", Double.class, productId);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM item WHERE invoice_id IN (SELECT id FROM invoice WHERE partner_id = ?)", partnerId);
+        jdbcTemplate.update("DELETE FROM invoice WHERE partner_id = ?", partnerId);
+        jdbcTemplate.update("DELETE FROM daily_sales WHERE partner_id = ?", partnerId);
+        jdbcTemplate.update("DELETE FROM partner WHERE id = ?", partnerId);
+        jdbcTemplate.update("UPDATE product SET quantity = ?, income_price = ? WHERE id = ?", quantity, incomePrice, productId);
+    }
+
+    @Test
+    void report_afterPostingAndAfterRebuild_thenSameTotals() {
+        post(TransactionType.INCOME, 5);
+        post(TransactionType.OUTCOME, 2);
+        Map<String, Object> prices = jdbcTemplate.queryForMap(
+                "SELECT income_price, outcome_price FROM product WHERE id = ?", productId);
+        double incomePrice = ((Number) prices.get("income_price")).doubleValue();
+        double outcomePrice = ((Number) prices.get("outcome_price")).doubleValue();
+
+        SalesReportDto posted = partnerRow();
+        salesReportService.rebuild(TODAY, TODAY);
+        SalesReportDto rebuilt = partnerRow();
+
+        Assertions.assertEquals(5L, posted.getIncomeUnits());
+        Assertions.assertEquals(2L, posted.getOutcomeUnits());
+        Assertions.assertEquals(5 * incomePrice, posted.getIncomeAmount(), 1e-6);
+        Assertions.assertEquals(2 * outcomePrice, posted.getRevenue(), 1e-6);
+        Assertions.assertEquals(2 * (outcomePrice - incomePrice), posted.getMargin(), 1e-6);
+        Assertions.assertEquals(posted.getIncomeUnits(), rebuilt.getIncomeUnits());
+        Assertions.assertEquals(posted.getOutcomeUnits(), rebuilt.getOutcomeUnits());
+        Assertions.assertEquals(posted.getRevenue(), rebuilt.getRevenue(), 1e-6);
+        Assertions.assertEquals(posted.getMargin(), rebuilt.getMargin(), 1e-6);
+    }
+
+    @Test
+    void report_whenIncomePriceChangedAfterPosting_thenMarginKeepsPostingCost() {
+        post(TransactionType.INCOME, 5);
+        post(TransactionType.OUTCOME, 2);
+        SalesReportDto posted = partnerRow();
+
+        jdbcTemplate.update("UPDATE product SET income_price = income_price * 2 WHERE id = ?", productId);
+        SalesReportDto changed = partnerRow();
+        salesReportService.rebuild(TODAY, TODAY);
+        SalesReportDto rebuilt = partnerRow();
+
+        Assertions.assertEquals(posted.getMargin(), changed.getMargin(), 1e-6);
+        Assertions.assertEquals(posted.getMargin(), rebuilt.getMargin(), 1e-6);
+    }
+
+    @Test
+    void report_whenInvoiceDeleted_thenItsLinesSubtracted() {
+        Long deletedId = post(TransactionType.INCOME, 3);
+        post(TransactionType.INCOME, 3);
+
+        invoiceService.delete(deletedId);
+
+        Assertions.assertEquals(3L, partnerRow().getIncomeUnits());
+    }
+
+    private Long post(TransactionType type, int quantity) {
+        Long workerId = jdbcTemplate.queryForObject("SELECT min(id) FROM worker", Long.class);
+        return invoiceService.create(new InvoiceRequestDto(partnerId, workerId, type,
+                List.of(new ItemRequestDto(productId, quantity)))).getInvoiceId();
+    }
+
+    private SalesReportDto partnerRow() {
+        return salesReportService.report(ReportDimension.PARTNER, ReportPeriod.DAY, TODAY, TODAY).stream()
+                .filter(row -> row.getId().equals(partnerId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
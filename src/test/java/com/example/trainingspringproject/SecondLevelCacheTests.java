@@ -0,0 +1,105 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.CacheConfig;
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.CacheStatsDto;
+import com.example.trainingspringproject.models.dtos.PartnerDto;
+import com.example.trainingspringproject.models.entities.Partner;
+import com.example.trainingspringproject.models.entities.Product;
+import com.example.trainingspringproject.repositories.PartnerRepository;
+import com.example.trainingspringproject.services.CacheService;
+import com.example.trainingspringproject.services.PartnerService;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class SecondLevelCacheTests {
+    private static final String NAME = "L2 test partner";
+    private static final String REQUISITES = "OGRN: l2";
+
+    @Autowired
+    private PartnerRepository partnerRepository;
+    @Autowired
+    private PartnerService partnerService;
+    @Autowired
+    private CacheService cacheService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long partnerId;
+
+    @BeforeEach
+    void init() {
+        partnerId = jdbcTemplate.queryForObject("INSERT INTO partner (name, address, email, requisites) " +
+                "VALUES (?, 'Voronezh', 'l2@mail.ru', ?) RETURNING id", Long.class, NAME, REQUISITES);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM partner WHERE id = ?", partnerId);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void findById_whenCalledTwice_thenSecondCallServedFromRegion() {
+        partnerRepository.findById(partnerId);
+        long statements = StatementCounter.current();
+
+        Partner partner = partnerRepository.findById(partnerId).orElseThrow();
+
+        Assertions.assertEquals(0, StatementCounter.current() - statements);
+        Assertions.assertEquals(NAME, partner.getName());
+        CacheStatsDto region = cacheService.getStats().stream()
+                .filter(stats -> stats.getName().equals(CacheConfig.PARTNER_REGION))
+                .findFirst().orElseThrow();
+        Assertions.assertTrue(region.getHits() > 0);
+    }
+
+    @Test
+    void findById_whenPartnerNotExist_thenEmptyResultNotCached() {
+        partnerRepository.findById(-1L);
+        long statements = StatementCounter.current();
+
+        Assertions.assertTrue(partnerRepository.findById(-1L).isEmpty());
+        Assertions.assertEquals(1, StatementCounter.current() - statements);
+    }
+
+    @Test
+    void findByRequisites_whenCalledTwice_thenSecondCallServedFromQueryCache() {
+        partnerService.findByRequisites(REQUISITES);
+        long statements = StatementCounter.current();
+
+        PartnerDto partner = partnerService.findByRequisites(REQUISITES);
+
+        Assertions.assertEquals(0, StatementCounter.current() - statements);
+        Assertions.assertEquals(partnerId, partner.getId());
+    }
+
+    @Test
+    void findByName_whenPartnerRenamed_thenLookupSeesNewName() {
+        partnerService.findByName(NAME);
+
+        partnerService.update(new PartnerDto(partnerId, NAME + " (renamed)", "Voronezh", "l2@mail.ru", REQUISITES));
+
+        Assertions.assertEquals(partnerId, partnerService.findByName(NAME + " (renamed)").getId());
+        Assertions.assertThrows(NothingFoundException.class, () -> partnerService.findByName(NAME));
+    }
+
+    //остаток товара меняется мимо Hibernate, поэтому товар в кэш второго уровня не попадает
+    @Test
+    void product_thenNotCached() {
+        Assertions.assertFalse(entityManagerFactory.unwrap(SessionFactory.class).getMetamodel()
+                .entityPersister(Product.class).canReadFromCache());
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import com.example.trainingspringproject.services.impl.AtomicStockEngine;
+import com.example.trainingspringproject.services.impl.OptimisticStockEngine;
+import com.example.trainingspringproject.services.impl.StripedStockEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+//64 писателя на один "горячий" товар: итоговый остаток должен сойтись с суммой успешных изменений
+@SpringBootTest
+class StockEngineConcurrencyTests {
+    private static final int THREADS = 64;
+    private static final int OPERATIONS = 50;
+    private static final int INITIAL_QUANTITY = 1000;
+    private static final String PRODUCT_NAME = "Stress test product";
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long productId;
+
+    @BeforeEach
+    void init() {
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO product (group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                        "VALUES ((SELECT id FROM prod_group WHERE name = 'Dairy'), " +
+                        "(SELECT id FROM producer WHERE name = 'Dairy farm'), ?, null, ?, 1.0, 2.0) RETURNING id",
+                Long.class, PRODUCT_NAME, INITIAL_QUANTITY);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM product WHERE id = ?", productId);
+    }
+
+    @Test
+    void atomicEngine_whenManyWriters_thenNoUpdateIsLost() throws Exception {
+        checkNoUpdateIsLost(new AtomicStockEngine(productRepository));
+    }
+
+    @Test
+    void optimisticEngine_whenManyWriters_thenNoUpdateIsLost() throws Exception {
+        checkNoUpdateIsLost(new OptimisticStockEngine(productRepository, 10_000, Duration.ofMillis(1)));
+    }
+
+    @Test
+    void atomicEngine_whenStockRunsOut_thenNeverOversell() throws Exception {
+        checkNeverOversell(new AtomicStockEngine(productRepository));
+    }
+
+    @Test
+    void optimisticEngine_whenStockRunsOut_thenNeverOversell() throws Exception {
+        checkNeverOversell(new OptimisticStockEngine(productRepository, 10_000, Duration.ofMillis(1)));
+    }
+
+    @Test
+    void stripedEngine_whenManyWriters_thenNoUpdateIsLost() throws Exception {
+        checkNoUpdateIsLost(stripedEngine());
+    }
+
+    @Test
+    void stripedEngine_whenStockRunsOut_thenNeverOversell() throws Exception {
+        checkNeverOversell(stripedEngine());
+    }
+
+    private StockEngine stripedEngine() {
+        StripedStockEngine engine = new StripedStockEngine(new AtomicStockEngine(productRepository), productRepository,
+                Set.of(productId), 8);
+        engine.rebuildStripes();
+        return engine;
+    }
+
+    private void checkNoUpdateIsLost(StockEngine engine) throws Exception {
+        //чётные потоки приходуют, нечётные списывают
+        List<Integer> applied = run(thread -> {
+            int delta = thread % 2 == 0 ? 3 : -2;
+            int sum = 0;
+            for (int i = 0; i < OPERATIONS; i++)
+                if (change(engine, delta))
+                    sum += delta;
+            return sum;
+        });
+
+        int expected = INITIAL_QUANTITY + applied.stream().mapToInt(Integer::intValue).sum();
+        Assertions.assertEquals(expected, quantity());
+    }
+
+    private void checkNeverOversell(StockEngine engine) throws Exception {
+        jdbcTemplate.update("UPDATE product SET quantity = 100 WHERE id = ?", productId);
+
+        List<Integer> sold = run(thread -> {
+            int count = 0;
+            for (int i = 0; i < OPERATIONS; i++)
+                if (change(engine, -1))
+                    count++;
+            return count;
+        });
+
+        Assertions.assertEquals(100, sold.stream().mapToInt(Integer::intValue).sum());
+        Assertions.assertEquals(0, quantity());
+    }
+
+    private boolean change(StockEngine engine, int delta) {
+        List<Long> rejected = transactionTemplate.execute(status -> engine.changeQuantities(Map.of(productId, delta)));
+        return rejected != null && rejected.isEmpty();
+    }
+
+    private Integer quantity() {
+        return jdbcTemplate.queryForObject("SELECT stock_of(?)", Integer.class, productId);
+    }
+
+    private interface Writer {
+        int write(int thread);
+    }
+
+    private List<Integer> run(Writer writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                Callable<Integer> task = () -> {
+                    start.await();
+                    return writer.write(thread);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures)
+                results.add(future.get(2, TimeUnit.MINUTES));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.trainingspringproject;
+
+import com.example.trainingspringproject.config.CacheConfig;
+import com.example.trainingspringproject.config.StatementCounter;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.ProductAvailabilityDto;
+import com.example.trainingspringproject.services.ProductService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+//срок снимка увеличен, чтобы второй вызов гарантированно успел до его истечения
+@SpringBootTest(properties = "warehouse.availability.snapshot-ttl=1m")
+class StockSnapshotTests {
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long productId;
+
+    @BeforeEach
+    void init() {
+        cacheManager.getCache(CacheConfig.STOCK_SNAPSHOT).clear();
+        productId = jdbcTemplate.queryForObject("SELECT min(id) FROM product", Long.class);
+    }
+
+    @Test
+    void checkAvailability_whenStockAlreadyRead_thenServedFromSnapshot() {
+        List<ItemRequestDto> items = List.of(new ItemRequestDto(productId, 1));
+        List<ProductAvailabilityDto> first = productService.checkAvailability(items);
+        long statements = StatementCounter.current();
+
+        List<ProductAvailabilityDto> second = productService.checkAvailability(items);
+
+        Assertions.assertEquals(0, StatementCounter.current() - statements);
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(jdbcTemplate.queryForObject("SELECT stock_of(?)", Integer.class, productId),
+                second.get(0).getAvailable());
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.trainingspringproject.benchmarks;
+
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.repositories.InvoiceRepository;
+import com.example.trainingspringproject.repositories.ItemRepository;
+import com.example.trainingspringproject.repositories.PartnerRepository;
+import com.example.trainingspringproject.repositories.ProducerRepository;
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.repositories.WorkerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//задержка findAllBy* на миллионе строк item с индексами из V04 и без них.
+//запуск: mvn test -Dtest=IndexBenchmark -Dbenchmarks=true
+//данные и удаление индексов живут в одной транзакции и откатываются в конце
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class IndexBenchmark {
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 20;
+    private static final Pageable PAGE = PageRequest.of(0, 101, Sort.by("id"));
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+
+    private static final String[] INDEXES = {
+            "item_invoice_id_idx", "item_product_id_idx", "invoice_partner_id_idx", "invoice_worker_id_idx",
+            "product_producer_id_idx", "product_group_id_idx", "invoice_date_type_idx", "invoice_type_id_idx",
+            "worker_job_idx", "product_name_trgm_idx", "partner_address_trgm_idx", "partner_email_trgm_idx",
+            "producer_address_trgm_idx"
+    };
+
+    private static final String[] SEED = {
+            "INSERT INTO prod_group (name) SELECT 'Bench group ' || g FROM generate_series(1, 100) g",
+            "INSERT INTO producer (name, address) " +
+                    "SELECT 'Bench producer ' || g, 'City ' || g % 50 || ', street ' || g FROM generate_series(1, 1000) g",
+            "INSERT INTO worker (name, job) SELECT 'Bench worker ' || g, 'Job ' || g % 20 FROM generate_series(1, 1000) g",
+            "INSERT INTO partner (name, address, email, requisites) " +
+                    "SELECT 'Bench partner ' || g, 'City ' || g % 100 || ', street ' || g, 'partner' || g || '@mail.ru', " +
+                    "'OGRN: bench ' || g FROM generate_series(1, 10000) g",
+            "INSERT INTO product (group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                    "SELECT gr.ids[1 + g % array_length(gr.ids, 1)], pr.ids[1 + g % array_length(pr.ids, 1)], " +
+                    "'Bench product ' || g, null, 1000000, 10.0, 15.0 FROM generate_series(1, 100000) g, " +
+                    "(SELECT array_agg(id) ids FROM prod_group) gr, (SELECT array_agg(id) ids FROM producer) pr",
+            "SELECT create_invoice_partitions(DATE '2020-01-01', DATE '2022-12-31')",
+            "INSERT INTO invoice (partner_id, worker_id, type, date) " +
+                    "SELECT pa.ids[1 + g % array_length(pa.ids, 1)], w.ids[1 + g % array_length(w.ids, 1)], g % 2, " +
+                    "DATE '2020-01-01' + g % 1000 FROM generate_series(1, 200000) g, " +
+                    "(SELECT array_agg(id) ids FROM partner) pa, (SELECT array_agg(id) ids FROM worker) w",
+            "INSERT INTO item (invoice_id, invoice_date, product_id, quantity, price) " +
+                    "SELECT i.id, i.date, p.ids[1 + (i.id * 5 + n) % array_length(p.ids, 1)], 1 + n, 10.0 " +
+                    "FROM invoice i, generate_series(1, 5) n, (SELECT array_agg(id) ids FROM product) p",
+            "ANALYZE"
+    };
+
+    private final Logger logger = LoggerFactory.getLogger(IndexBenchmark.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PartnerRepository partnerRepository;
+    @Autowired
+    private ProducerRepository producerRepository;
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @Test
+    void findAllBy_withAndWithoutIndexes() {
+        Arrays.stream(SEED).forEach(jdbcTemplate::execute);
+
+        Long partnerId = jdbcTemplate.queryForObject("SELECT max(partner_id) FROM invoice", Long.class);
+        Long workerId = jdbcTemplate.queryForObject("SELECT max(worker_id) FROM invoice", Long.class);
+        Long producerId = jdbcTemplate.queryForObject("SELECT max(producer_id) FROM product", Long.class);
+        Long groupId = jdbcTemplate.queryForObject("SELECT max(group_id) FROM product", Long.class);
+        Long invoiceId = jdbcTemplate.queryForObject("SELECT max(id) - 100000 FROM invoice", Long.class);
+        List<Long> invoiceIds = jdbcTemplate.queryForList(
+                "SELECT id FROM invoice WHERE id > ? ORDER BY id LIMIT 100", Long.class, invoiceId);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("Item.findAllByInvoiceId", () -> itemRepository.findAllByInvoiceId(invoiceId));
+        queries.put("Item.findAllItemsByInvoiceIdIn(100)", () -> itemRepository.findAllItemsByInvoiceIdIn(invoiceIds,
+                FIRST_DATE, FIRST_DATE.plusDays(1000)));
+        queries.put("Invoice.findDtosByPartnerId", () -> invoiceRepository.findDtosByPartnerIdAndIdGreaterThan(partnerId, 0L, PAGE));
+        queries.put("Invoice.findDtosByWorkerId", () -> invoiceRepository.findDtosByWorkerIdAndIdGreaterThan(workerId, 0L, PAGE));
+        queries.put("Invoice.findDtosByType", () -> invoiceRepository.findDtosByTypeAndIdGreaterThan(TransactionType.OUTCOME, invoiceId, PAGE));
+        queries.put("Invoice.findDtosByDate", () -> invoiceRepository.findDtosByDateAndIdGreaterThan(FIRST_DATE.plusDays(500), 0L, PAGE));
+        queries.put("Product.findDtosByNameLike", () -> productRepository.findDtosByNameLikeAndIdGreaterThan("%product 4242%", 0L, PAGE));
+        queries.put("Product.findDtosByProducerId", () -> productRepository.findDtosByProducerIdAndIdGreaterThan(producerId, 0L, PAGE));
+        queries.put("Product.findDtosByProductGroupId", () -> productRepository.findDtosByProductGroupIdAndIdGreaterThan(groupId, 0L, PAGE));
+        queries.put("Partner.findDtosByAddressLike", () -> partnerRepository.findDtosByAddressLikeAndIdGreaterThan("%street 4242%", 0L, PAGE));
+        queries.put("Partner.findDtosByEmailLike", () -> partnerRepository.findDtosByEmailLikeAndIdGreaterThan("%partner4242@%", 0L, PAGE));
+        queries.put("Producer.findDtosByAddressLike", () -> producerRepository.findDtosByAddressLikeAndIdGreaterThan("%street 424%", 0L, PAGE));
+        queries.put("Worker.findDtosByJob", () -> workerRepository.findDtosByJobAndIdGreaterThan("Job 7", 0L, PAGE));
+
+        Map<String, double[]> withIndexes = measure(queries);
+        jdbcTemplate.execute("DROP INDEX " + String.join(", ", INDEXES));
+        jdbcTemplate.execute("ANALYZE");
+        Map<String, double[]> withoutIndexes = measure(queries);
+
+        StringBuilder report = new StringBuilder(String.format("%n%-36s %22s %22s%n",
+                "query", "no indexes p50/p95 ms", "indexes p50/p95 ms"));
+        queries.keySet().forEach(name -> report.append(String.format("%-36s %10.2f / %9.2f %10.2f / %9.2f%n", name,
+                withoutIndexes.get(name)[0], withoutIndexes.get(name)[1],
+                withIndexes.get(name)[0], withIndexes.get(name)[1])));
+        logger.info(report.toString());
+    }
+
+    private Map<String, double[]> measure(Map<String, Runnable> queries) {
+        Map<String, double[]> result = new LinkedHashMap<>();
+        queries.forEach((name, query) -> {
+            List<Double> times = new ArrayList<>();
+            for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+                long start = System.nanoTime();
+                query.run();
+                long time = System.nanoTime() - start;
+                entityManager.clear();
+                if (i >= WARMUP)
+                    times.add(time / 1_000_000.0);
+            }
+            times.sort(Double::compare);
+            result.put(name, new double[]{times.get(times.size() / 2), times.get((int) Math.ceil(times.size() * 0.95) - 1)});
+        });
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.trainingspringproject.benchmarks;
+
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PostingReportDto;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+//пропускная способность проводки приходных накладных: накладные/с, строки/с и запросов на накладную.
+//запуск: mvn test -Dtest=InvoicePostingBenchmark -Dbenchmarks=true
+//для сравнения без батчей: -Dspring.jpa.properties.hibernate.jdbc.batch_size=1
+//все проводки идут в транзакции теста и откатываются в конце
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class InvoicePostingBenchmark {
+    private static final int WARMUP = 50;
+    private static final int INVOICES = 1000;
+    private static final int ITEMS_PER_INVOICE = 50;
+    private static final int PRODUCTS = 500;
+
+    private final Logger logger = LoggerFactory.getLogger(InvoicePostingBenchmark.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Test
+    void create_incomeInvoices() {
+        Long groupId = jdbcTemplate.queryForObject(
+                "INSERT INTO prod_group (name) VALUES ('Bench group') RETURNING id", Long.class);
+        Long producerId = jdbcTemplate.queryForObject(
+                "INSERT INTO producer (name, address) VALUES ('Bench producer', 'Bench address') RETURNING id", Long.class);
+        Long partnerId = jdbcTemplate.queryForObject("INSERT INTO partner (name, address, email, requisites) " +
+                "VALUES ('Bench partner', 'Bench address', 'bench@mail.ru', 'OGRN: bench') RETURNING id", Long.class);
+        Long workerId = jdbcTemplate.queryForObject(
+                "INSERT INTO worker (name, job) VALUES ('Bench worker', 'Bench job') RETURNING id", Long.class);
+        List<Long> productIds = jdbcTemplate.queryForList("INSERT INTO product " +
+                "(group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                "SELECT ?, ?, 'Bench product ' || g, null, 0, 10.0, 15.0 FROM generate_series(1, ?) g RETURNING id",
+                Long.class, groupId, producerId, PRODUCTS);
+
+        for (int i = 0; i < WARMUP; i++)
+            post(invoice(partnerId, workerId, productIds, i));
+
+        long statements = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < INVOICES; i++)
+            statements += post(invoice(partnerId, workerId, productIds, i)).getStatements();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        logger.info(String.format("%nbatch_size = %s: %d invoices x %d items in %.2f s, " +
+                        "%.0f invoices/s, %.0f items/s, %.1f statements per invoice",
+                entityManager.getEntityManagerFactory().getProperties().get("hibernate.jdbc.batch_size"),
+                INVOICES, ITEMS_PER_INVOICE, seconds, INVOICES / seconds,
+                INVOICES * ITEMS_PER_INVOICE / seconds, (double) statements / INVOICES));
+    }
+
+    private PostingReportDto post(InvoiceRequestDto dto) {
+        PostingReportDto report = invoiceService.create(dto);
+        //без очистки контекст растет от накладной к накладной и замедляет каждый следующий flush
+        entityManager.clear();
+        return report;
+    }
+
+    private InvoiceRequestDto invoice(Long partnerId, Long workerId, List<Long> productIds, int number) {
+        List<ItemRequestDto> items = new ArrayList<>(ITEMS_PER_INVOICE);
+        for (int i = 0; i < ITEMS_PER_INVOICE; i++)
+            items.add(new ItemRequestDto(productIds.get((number * ITEMS_PER_INVOICE + i) % PRODUCTS), 1 + i % 5));
+        return new InvoiceRequestDto(partnerId, workerId, TransactionType.INCOME, items);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.trainingspringproject.benchmarks;
+
+import com.example.trainingspringproject.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//задержка /api/product/search на 500 тысячах товаров рядом с поиском по LIKE, которым пользовались до него.
+//запуск: mvn test -Dtest=ProductSearchBenchmark -Dbenchmarks=true
+//данные живут в одной транзакции и откатываются в конце
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ProductSearchBenchmark {
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 100;
+
+    //названия собираются из слов словаря (md5 без цифр), так что одно слово встречается у тысяч товаров
+    private static final String[] SEED = {
+            "INSERT INTO prod_group (name) SELECT 'Bench group ' || g FROM generate_series(1, 100) g",
+            "INSERT INTO producer (name, address) SELECT 'Bench producer ' || g, 'City ' || g FROM generate_series(1, 1000) g",
+            "INSERT INTO product (group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                    "SELECT gr.ids[1 + g % array_length(gr.ids, 1)], pr.ids[1 + g % array_length(pr.ids, 1)], " +
+                    "w.words[1 + g % 97] || ' ' || w.words[1 + g / 97 % 89] || ' ' || g, " +
+                    "'Bench ' || w.words[1 + g / 8633 % 83], 1000, 10.0, 15.0 FROM generate_series(1, 500000) g, " +
+                    "(SELECT array_agg(id) ids FROM prod_group) gr, (SELECT array_agg(id) ids FROM producer) pr, " +
+                    "(SELECT array_agg(translate(md5(n::text), '0123456789', 'ghijklmnop')) words FROM generate_series(1, 100) n) w",
+            "UPDATE product p SET search_text = concat_ws(' ', p.name, p.description, g.name, pr.name) " +
+                    "FROM prod_group g, producer pr WHERE g.id = p.group_id AND pr.id = p.producer_id AND p.search_text = ''",
+            "ANALYZE"
+    };
+
+    private final Logger logger = LoggerFactory.getLogger(ProductSearchBenchmark.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void search_latency() {
+        Arrays.stream(SEED).forEach(jdbcTemplate::execute);
+
+        String word = jdbcTemplate.queryForObject("SELECT translate(md5('42'), '0123456789', 'ghijklmnop')", String.class);
+        String prefix = word.substring(0, 6);
+        String typo = word.substring(0, 10) + "x" + word.substring(11, 16);
+        String twoWords = word + " " + jdbcTemplate.queryForObject("SELECT translate(md5('17'), '0123456789', 'ghijklmnop')", String.class);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("search(one word)", () -> productService.search(word, null));
+        queries.put("search(prefix)", () -> productService.search(prefix, null));
+        queries.put("search(two words)", () -> productService.search(twoWords, null));
+        queries.put("search(typo)", () -> productService.search(typo, null));
+        queries.put("findAllByNameLike(one word)", () -> productService.findAllByNameLike("%" + word + "%", null, 10));
+
+        StringBuilder report = new StringBuilder(String.format("%n%-30s %10s %10s %10s%n", "query", "p50 ms", "p95 ms", "p99 ms"));
+        queries.forEach((name, query) -> {
+            double[] result = measure(query);
+            report.append(String.format("%-30s %10.2f %10.2f %10.2f%n", name, result[0], result[1], result[2]));
+        });
+        logger.info(report.toString());
+    }
+
+    private double[] measure(Runnable query) {
+        List<Double> times = new ArrayList<>();
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            long time = System.nanoTime() - start;
+            if (i >= WARMUP)
+                times.add(time / 1_000_000.0);
+        }
+        times.sort(Double::compare);
+        return new double[]{percentile(times, 0.5), percentile(times, 0.95), percentile(times, 0.99)};
+    }
+
+    private double percentile(List<Double> times, double p) {
+        return times.get((int) Math.ceil(times.size() * p) - 1);
+    }
+}
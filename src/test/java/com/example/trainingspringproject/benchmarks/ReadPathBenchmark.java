@@ -0,0 +1,138 @@
+package com.example.trainingspringproject.benchmarks;
+
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.entities.Partner;
+import com.example.trainingspringproject.models.entities.Product;
+import com.example.trainingspringproject.models.entities.Worker;
+import com.example.trainingspringproject.models.mappers.InvoiceMapper;
+import com.example.trainingspringproject.models.mappers.PartnerMapper;
+import com.example.trainingspringproject.models.mappers.ProductMapper;
+import com.example.trainingspringproject.models.mappers.WorkerMapper;
+import com.example.trainingspringproject.repositories.InvoiceRepository;
+import com.example.trainingspringproject.repositories.PartnerRepository;
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.repositories.WorkerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+//списки через сущности + MapStruct против DTO-запросов select new ...: задержка и выделенная память на вызов.
+//запуск: mvn test -Dtest=ReadPathBenchmark -Dbenchmarks=true
+//данные живут в транзакции теста и откатываются в конце
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ReadPathBenchmark {
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 50;
+    private static final Pageable PAGE = PageRequest.of(0, 5000, Sort.by("id"));
+
+    private static final String[] SEED = {
+            "INSERT INTO product (group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                    "SELECT (SELECT min(id) FROM prod_group), (SELECT min(id) FROM producer), 'Bench product ' || g, " +
+                    "'Description ' || g, 100, 10.0, 15.0 FROM generate_series(1, 5000) g",
+            "INSERT INTO partner (name, address, email, requisites) SELECT 'Bench partner ' || g, 'Address ' || g, " +
+                    "'partner' || g || '@mail.ru', 'OGRN: bench ' || g FROM generate_series(1, 5000) g",
+            "INSERT INTO worker (name, job) SELECT 'Bench worker ' || g, 'Job ' || g % 20 FROM generate_series(1, 5000) g",
+            "SELECT create_invoice_partitions(DATE '2020-01-01', DATE '2020-04-30')",
+            "INSERT INTO invoice (partner_id, worker_id, type, date) SELECT (SELECT min(id) FROM partner), " +
+                    "(SELECT min(id) FROM worker), g % 2, DATE '2020-01-01' + g % 100 FROM generate_series(1, 5000) g",
+            "INSERT INTO item (invoice_id, invoice_date, product_id, quantity, price) " +
+                    "SELECT i.id, i.date, (SELECT min(id) FROM product), 1, 1.0 " +
+                    "FROM invoice i WHERE NOT EXISTS (SELECT 1 FROM item WHERE item.invoice_id = i.id)",
+            "ANALYZE"
+    };
+
+    private final Logger logger = LoggerFactory.getLogger(ReadPathBenchmark.class);
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductMapper productMapper;
+    @Autowired
+    private PartnerRepository partnerRepository;
+    @Autowired
+    private PartnerMapper partnerMapper;
+    @Autowired
+    private WorkerRepository workerRepository;
+    @Autowired
+    private WorkerMapper workerMapper;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private InvoiceMapper invoiceMapper;
+
+    @Test
+    void listEndpoints_entitiesVersusDtoProjections() {
+        Arrays.stream(SEED).forEach(jdbcTemplate::execute);
+
+        Map<String, Supplier<List<?>>> paths = new LinkedHashMap<>();
+        paths.put("Product entities", () -> productMapper.entityToDto(entities(Product.class, Product.WITH_GROUP_AND_PRODUCER)));
+        paths.put("Product dtos", () -> productRepository.findDtosByIdGreaterThan(0L, PAGE));
+        paths.put("Partner entities", () -> partnerMapper.entityToDto(entities(Partner.class, null)));
+        paths.put("Partner dtos", () -> partnerRepository.findDtosByIdGreaterThan(0L, PAGE));
+        paths.put("Worker entities", () -> workerMapper.entityToDto(entities(Worker.class, null)));
+        paths.put("Worker dtos", () -> workerRepository.findDtosByIdGreaterThan(0L, PAGE));
+        paths.put("Invoice entities", () -> invoiceMapper.entityToDto(entities(Invoice.class, Invoice.FOR_DTO)));
+        paths.put("Invoice dtos", () -> invoiceMapper.fillItems(invoiceRepository.findDtosByIdGreaterThan(0L, PAGE)));
+
+        StringBuilder report = new StringBuilder(String.format("%n%-18s %8s %10s %10s %14s%n",
+                "path", "rows", "p50 ms", "p95 ms", "KB allocated"));
+        paths.forEach((name, path) -> {
+            List<Double> times = new ArrayList<>();
+            long allocated = 0;
+            int rows = 0;
+            for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+                long bytes = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+                long start = System.nanoTime();
+                rows = path.get().size();
+                long time = System.nanoTime() - start;
+                bytes = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - bytes;
+                //сущности не должны копиться в контексте между итерациями
+                entityManager.clear();
+                if (i >= WARMUP) {
+                    times.add(time / 1_000_000.0);
+                    allocated += bytes;
+                }
+            }
+            times.sort(Double::compare);
+            report.append(String.format("%-18s %8d %10.2f %10.2f %14d%n", name, rows, times.get(times.size() / 2),
+                    times.get((int) Math.ceil(times.size() * 0.95) - 1), allocated / ITERATIONS / 1024));
+        });
+        logger.info(report.toString());
+    }
+
+    //списки через сущности: та же выборка по ключу, связи грузятся графом сущности
+    private <E> List<E> entities(Class<E> type, String graph) {
+        TypedQuery<E> query = entityManager.createQuery(
+                "select e from " + type.getSimpleName() + " e where e.id > 0 order by e.id", type);
+        if (graph != null)
+            query.setHint("javax.persistence.fetchgraph", entityManager.getEntityGraph(graph));
+        return query.setMaxResults(PAGE.getPageSize()).getResultList();
+    }
+}
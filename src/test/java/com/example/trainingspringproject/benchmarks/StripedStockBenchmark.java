@@ -0,0 +1,102 @@
+package com.example.trainingspringproject.benchmarks;
+
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import com.example.trainingspringproject.services.impl.AtomicStockEngine;
+import com.example.trainingspringproject.services.impl.StripedStockEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+//пропускная способность списаний одного товара из многих потоков: одна строка product против полос.
+//каждая транзакция после списания держит блокировку еще пару миллисекунд, как при проводке накладной.
+//запуск: mvn test -Dtest=StripedStockBenchmark -Dbenchmarks=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class StripedStockBenchmark {
+    private static final int THREADS = 32;
+    private static final int OPERATIONS = 100;
+    private static final int[] STRIPES = {2, 4, 8, 16};
+
+    private final Logger logger = LoggerFactory.getLogger(StripedStockBenchmark.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long productId;
+
+    @BeforeEach
+    void init() {
+        productId = jdbcTemplate.queryForObject(
+                "INSERT INTO product (group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                        "VALUES ((SELECT id FROM prod_group WHERE name = 'Dairy'), " +
+                        "(SELECT id FROM producer WHERE name = 'Dairy farm'), 'Striped benchmark product', null, " +
+                        "10000000, 1.0, 2.0) RETURNING id", Long.class);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM product WHERE id = ?", productId);
+    }
+
+    @Test
+    void outcome_singleRowVersusStripes() throws Exception {
+        StringBuilder report = new StringBuilder(String.format("%n%-12s %12s%n", "mode", "ops/s"));
+        report.append(String.format("%-12s %12.0f%n", "single row", measure(new AtomicStockEngine(productRepository))));
+        for (int stripes : STRIPES) {
+            StripedStockEngine engine = new StripedStockEngine(new AtomicStockEngine(productRepository),
+                    productRepository, Set.of(productId), stripes);
+            engine.rebuildStripes();
+            //остаток раскладывается по полосам поровну, чтобы списания не уходили в сбор с нескольких полос
+            jdbcTemplate.update("UPDATE product_stripe SET quantity = 1000000 WHERE product_id = ?", productId);
+            report.append(String.format("%-12s %12.0f%n", stripes + " stripes", measure(engine)));
+        }
+        logger.info(report.toString());
+    }
+
+    private double measure(StockEngine engine) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++)
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < OPERATIONS; j++)
+                        transactionTemplate.executeWithoutResult(status -> {
+                            engine.changeQuantities(Map.of(productId, -1));
+                            jdbcTemplate.execute("SELECT pg_sleep(0.002)");
+                        });
+                    return null;
+                }));
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get(5, TimeUnit.MINUTES);
+            return THREADS * OPERATIONS / ((System.nanoTime() - begin) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.trainingspringproject.benchmarks.load;
+
+import java.util.Arrays;
+
+//задержки одного эндпоинта в одном потоке драйвера; после прогона потоки сливаются в один
+class LatencyRecorder {
+    private long[] nanos = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long latencyNanos, boolean error) {
+        if (size == nanos.length)
+            nanos = Arrays.copyOf(nanos, size * 2);
+        nanos[size++] = latencyNanos;
+        if (error)
+            errors++;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > nanos.length)
+            nanos = Arrays.copyOf(nanos, size + other.size);
+        System.arraycopy(other.nanos, 0, nanos, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    int count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    //после sort() порядок записи теряется, поэтому только для итогового отчета
+    double percentileMillis(double percentile) {
+        Arrays.sort(nanos, 0, size);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return nanos[Math.max(0, Math.min(index, size - 1))] / 1e6;
+    }
+}
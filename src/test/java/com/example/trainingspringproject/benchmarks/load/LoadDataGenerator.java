@@ -0,0 +1,126 @@
+package com.example.trainingspringproject.benchmarks.load;
+
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.repositories.InvoicePartitionRepository;
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.SalesReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+//синтетический склад целиком на стороне базы (generate_series), без передачи строк через JDBC.
+//псевдослучайность — хэш от номера строки и seed: при тех же -Dload.* данные получаются те же.
+//перекос: товар строки выбирается как products * u^3 (1% товаров — около пятой части строк),
+//контрагент накладной — partners * u^4 (1% контрагентов — около трети накладных).
+//соответствие ранга и id хранится в load_product/load_partner/load_worker, по ним же драйвер выбирает id
+class LoadDataGenerator {
+    private static final int INVOICES_PER_STATEMENT = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvoicePartitionRepository partitionRepository;
+    private final SalesReportService salesReportService;
+    private final LoadProfile profile;
+
+    private final Logger logger = LoggerFactory.getLogger(LoadDataGenerator.class);
+
+    LoadDataGenerator(JdbcTemplate jdbcTemplate, InvoicePartitionRepository partitionRepository,
+                      SalesReportService salesReportService, LoadProfile profile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionRepository = partitionRepository;
+        this.salesReportService = salesReportService;
+        this.profile = profile;
+    }
+
+    //повторный запуск после успешной генерации ничего не делает; для другого объема или после сбоя нужна чистая база
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass('load_seeded') IS NOT NULL", Boolean.class)) {
+            logger.info("Load data already seeded, skipping");
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        partitionRepository.createPartitions(today.minusMonths(profile.getMonths() + 1L), today);
+
+        seedProducts();
+        seedPartners();
+        seedWorkers();
+        int days = profile.getMonths() * 30;
+        for (int from = 1; from <= profile.getInvoices(); from += INVOICES_PER_STATEMENT) {
+            int to = Math.min(from + INVOICES_PER_STATEMENT - 1, profile.getInvoices());
+            seedInvoices(from, to, days);
+            logger.info("Seeded invoices " + to + " of " + profile.getInvoices());
+        }
+        salesReportService.rebuild(null, null);
+        jdbcTemplate.execute("ANALYZE");
+        jdbcTemplate.execute("CREATE TABLE load_seeded AS SELECT now() AS seeded_at");
+        logger.info(String.format("Seeded %d products, %d partners, %d invoices in %.0f s", profile.getProducts(),
+                profile.getPartners(), profile.getInvoices(), (System.nanoTime() - start) / 1e9));
+    }
+
+    private void seedProducts() {
+        jdbcTemplate.update("INSERT INTO prod_group (name) SELECT 'Load group ' || g FROM generate_series(1, 200) g");
+        jdbcTemplate.update("INSERT INTO producer (name, address) " +
+                "SELECT 'Load producer ' || g, 'Address ' || g FROM generate_series(1, 2000) g");
+        //остаток с запасом: приходы и расходы драйвера в среднем уравновешены
+        jdbcTemplate.update("WITH g AS (SELECT array_agg(id ORDER BY id) ids FROM prod_group WHERE name LIKE 'Load group %'), " +
+                "pr AS (SELECT array_agg(id ORDER BY id) ids FROM producer WHERE name LIKE 'Load producer %') " +
+                "INSERT INTO product (group_id, producer_id, name, description, quantity, income_price, outcome_price) " +
+                "SELECT g.ids[1 + n % 200], pr.ids[1 + " + hash("n", 1) + " % 2000], 'Load product ' || n, " +
+                "CASE WHEN n % 3 = 0 THEN NULL ELSE 'Description of product ' || n END, 1000000, " +
+                "round((1 + " + uniform("n", 2) + " * 999)::numeric, 2), " +
+                "round((1 + " + uniform("n", 2) + " * 999)::numeric * 1.3, 2) " +
+                "FROM generate_series(1, ?) n, g, pr", profile.getProducts());
+        jdbcTemplate.update(ProductRepository.REFRESH_SEARCH_TEXT + "AND p.name LIKE 'Load product %'");
+        rankTable("load_product", "product", "Load product %");
+    }
+
+    private void seedPartners() {
+        jdbcTemplate.update("INSERT INTO partner (name, address, email, requisites) " +
+                "SELECT 'Load partner ' || n, 'Address ' || n, 'partner' || n || '@mail.ru', 'OGRN: load ' || n " +
+                "FROM generate_series(1, ?) n", profile.getPartners());
+        rankTable("load_partner", "partner", "Load partner %");
+    }
+
+    private void seedWorkers() {
+        jdbcTemplate.update("INSERT INTO worker (name, job) SELECT 'Load worker ' || n, 'Job ' || n % 20 " +
+                "FROM generate_series(1, ?) n", profile.getWorkers());
+        rankTable("load_worker", "worker", "Load worker %");
+    }
+
+    //накладные пачки и их строки одним запросом; строк на накладную от 1 до 2 * items-per-invoice - 1
+    private void seedInvoices(int from, int to, int days) {
+        jdbcTemplate.update("WITH inv AS (" +
+                "INSERT INTO invoice (partner_id, worker_id, type, date) " +
+                "SELECT lp.id, lw.id, CASE WHEN " + uniform("n", 3) + " < 0.3 THEN " + TransactionType.INCOME.ordinal() +
+                " ELSE " + TransactionType.OUTCOME.ordinal() + " END, " +
+                "CURRENT_DATE - floor(" + uniform("n", 4) + " * ?)::int " +
+                "FROM generate_series(?::bigint, ?::bigint) n " +
+                "JOIN load_partner lp ON lp.rank = 1 + floor(? * power(" + uniform("n", 5) + ", 4))::int " +
+                "JOIN load_worker lw ON lw.rank = 1 + n % ? " +
+                "RETURNING id, date) " +
+                "INSERT INTO item (invoice_id, invoice_date, product_id, quantity, price) " +
+                "SELECT inv.id, inv.date, p.id, 1 + " + hash("inv.id * 64 + line", 6) + " % 20, p.outcome_price " +
+                "FROM inv CROSS JOIN LATERAL generate_series(1, 1 + floor(" + uniform("inv.id", 7) + " * ?)::int) line " +
+                "JOIN load_product lp ON lp.rank = 1 + floor(? * power(" + uniform("inv.id * 64 + line", 8) + ", 3))::int " +
+                "JOIN product p ON p.id = lp.id",
+                days, from, to, profile.getPartners() - 1, profile.getWorkers(),
+                2 * profile.getItemsPerInvoice() - 1, profile.getProducts() - 1);
+    }
+
+    private void rankTable(String table, String source, String namePattern) {
+        jdbcTemplate.execute("CREATE TABLE " + table + " AS SELECT (row_number() OVER (ORDER BY id))::int AS rank, id " +
+                "FROM " + source + " WHERE name LIKE '" + namePattern + "'");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (rank)");
+    }
+
+    private String hash(String expression, int salt) {
+        return "(hashint8((" + expression + ") * 31 + " + (profile.getSeed() * 100 + salt) + ") & 2147483647)";
+    }
+
+    //равномерно на [0, 1)
+    private String uniform(String expression, int salt) {
+        return "(" + hash(expression, salt) + " / 2147483648.0)";
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.trainingspringproject.benchmarks.load;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+//объем данных и нагрузка из системных свойств -Dload.*; значения по умолчанию — порядок рабочей базы
+@Value
+class LoadProfile {
+    long seed;
+    int products;
+    int partners;
+    int workers;
+    int invoices;
+    int itemsPerInvoice;
+    int months;
+
+    int concurrency;
+    Duration warmup;
+    Duration duration;
+    //доля проводок среди запросов, остальное — чтение find-by-*
+    double writeRatio;
+    int itemsPerPosting;
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                Long.getLong("load.seed", 42),
+                Integer.getInteger("load.products", 1_000_000),
+                Integer.getInteger("load.partners", 100_000),
+                Integer.getInteger("load.workers", 500),
+                Integer.getInteger("load.invoices", 2_000_000),
+                Integer.getInteger("load.items-per-invoice", 8),
+                Integer.getInteger("load.months", 24),
+                Integer.getInteger("load.concurrency", 32),
+                Duration.ofSeconds(Long.getLong("load.warmup-seconds", 15)),
+                Duration.ofSeconds(Long.getLong("load.duration-seconds", 60)),
+                Double.parseDouble(System.getProperty("load.write-ratio", "0.2")),
+                Integer.getInteger("load.items-per-posting", 10));
+    }
+}
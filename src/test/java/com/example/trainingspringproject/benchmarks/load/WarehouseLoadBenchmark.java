@@ -0,0 +1,55 @@
+package com.example.trainingspringproject.benchmarks.load;
+
+import com.example.trainingspringproject.repositories.InvoicePartitionRepository;
+import com.example.trainingspringproject.services.SalesReportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+//нагрузочный прогон по HTTP против локальной базы: генерация данных, смесь проводок и чтений, отчет по эндпоинтам.
+//данные остаются в базе, поэтому только на отдельной базе, например:
+//POSTGRES_DB_NAME=warehouse_load mvn test -Dtest=WarehouseLoadBenchmark -Dload=true \
+//    -Dload.invoices=500000 -Dload.concurrency=64 -Dload.write-ratio=0.1
+//первый запуск генерирует данные (миллионы строк — десятки минут), следующие сразу дают нагрузку.
+//драйвер работает в одном процессе с приложением и забирает часть процессора; результат и в target/load-report.csv
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class WarehouseLoadBenchmark {
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InvoicePartitionRepository partitionRepository;
+    @Autowired
+    private SalesReportService salesReportService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        new LoadDataGenerator(jdbcTemplate, partitionRepository, salesReportService, profile).seed();
+
+        WorkloadDriver driver = new WorkloadDriver("http://localhost:" + port, profile, objectMapper,
+                ids("SELECT id FROM load_product ORDER BY rank"),
+                ids("SELECT id FROM load_partner ORDER BY rank"),
+                ids("SELECT id FROM load_worker ORDER BY rank"),
+                //около ста тысяч существующих накладных для find-by-id
+                ids("SELECT id FROM invoice TABLESAMPLE SYSTEM (1) LIMIT 100000"));
+        Map<String, LatencyRecorder> results = driver.run();
+        driver.report(results, Path.of("target", "load-report.csv"));
+    }
+
+    private long[] ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.trainingspringproject.benchmarks.load;
+
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//замкнутый цикл: каждый из concurrency потоков шлет следующий запрос сразу после ответа на предыдущий.
+//id для чтения и товары проводок выбираются с тем же перекосом, что и в сгенерированных данных
+class WorkloadDriver {
+    static final String POST_INVOICE = "POST /api/invoice/create";
+    static final String INVOICE_BY_ID = "GET /api/invoice/find-by-id";
+    static final String INVOICES_BY_PARTNER = "GET /api/invoice/find-by-partner-id/page";
+    static final String PRODUCT_BY_ID = "GET /api/product/find-by-id";
+    static final String PARTNER_BY_ID = "GET /api/partner/find-by-id";
+
+    private final String baseUrl;
+    private final LoadProfile profile;
+    private final ObjectMapper objectMapper;
+    private final long[] productIds;
+    private final long[] partnerIds;
+    private final long[] workerIds;
+    private final long[] invoiceIds;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final Logger logger = LoggerFactory.getLogger(WorkloadDriver.class);
+
+    //id отсортированы по рангу: первые — самые ходовые
+    WorkloadDriver(String baseUrl, LoadProfile profile, ObjectMapper objectMapper, long[] productIds,
+                   long[] partnerIds, long[] workerIds, long[] invoiceIds) {
+        this.baseUrl = baseUrl;
+        this.profile = profile;
+        this.objectMapper = objectMapper;
+        this.productIds = productIds;
+        this.partnerIds = partnerIds;
+        this.workerIds = workerIds;
+        this.invoiceIds = invoiceIds;
+    }
+
+    Map<String, LatencyRecorder> run() throws Exception {
+        long warmupEnd = System.nanoTime() + profile.getWarmup().toNanos();
+        long end = warmupEnd + profile.getDuration().toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(profile.getConcurrency());
+        try {
+            List<Future<Map<String, LatencyRecorder>>> futures = new ArrayList<>();
+            for (int i = 0; i < profile.getConcurrency(); i++) {
+                SplittableRandom random = new SplittableRandom(profile.getSeed() * 1000 + i);
+                futures.add(executor.submit(() -> loop(random, warmupEnd, end)));
+            }
+            Map<String, LatencyRecorder> total = new TreeMap<>();
+            for (Future<Map<String, LatencyRecorder>> future : futures)
+                future.get().forEach((endpoint, recorder) ->
+                        total.computeIfAbsent(endpoint, e -> new LatencyRecorder()).merge(recorder));
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, LatencyRecorder> loop(SplittableRandom random, long warmupEnd, long end) throws IOException {
+        Map<String, LatencyRecorder> recorders = new TreeMap<>();
+        long now = System.nanoTime();
+        while (now < end) {
+            String endpoint;
+            HttpRequest request;
+            if (random.nextDouble() < profile.getWriteRatio()) {
+                endpoint = POST_INVOICE;
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/invoice/create"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(invoice(random)))
+                        .build();
+            } else {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        endpoint = INVOICE_BY_ID;
+                        request = get("/api/invoice/find-by-id?id=" + invoiceIds[random.nextInt(invoiceIds.length)]);
+                        break;
+                    case 1:
+                        endpoint = INVOICES_BY_PARTNER;
+                        request = get("/api/invoice/find-by-partner-id/page?limit=20&partner-id="
+                                + skewed(partnerIds, random, 4));
+                        break;
+                    case 2:
+                        endpoint = PRODUCT_BY_ID;
+                        request = get("/api/product/find-by-id?id=" + skewed(productIds, random, 3));
+                        break;
+                    default:
+                        endpoint = PARTNER_BY_ID;
+                        request = get("/api/partner/find-by-id?id=" + skewed(partnerIds, random, 4));
+                }
+            }
+
+            long start = System.nanoTime();
+            boolean error;
+            try {
+                error = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            now = System.nanoTime();
+            if (start >= warmupEnd)
+                recorders.computeIfAbsent(endpoint, e -> new LatencyRecorder()).record(now - start, error);
+        }
+        return recorders;
+    }
+
+    //приход и расход поровну, чтобы остатки не уходили в ноль за время прогона
+    private String invoice(SplittableRandom random) {
+        List<ItemRequestDto> items = new ArrayList<>(profile.getItemsPerPosting());
+        for (int i = 0; i < profile.getItemsPerPosting(); i++)
+            items.add(new ItemRequestDto(skewed(productIds, random, 3), 1 + random.nextInt(5)));
+        InvoiceRequestDto dto = new InvoiceRequestDto(skewed(partnerIds, random, 4),
+                workerIds[random.nextInt(workerIds.length)],
+                random.nextBoolean() ? TransactionType.INCOME : TransactionType.OUTCOME, items);
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private static long skewed(long[] ids, SplittableRandom random, int power) {
+        return ids[(int) (Math.pow(random.nextDouble(), power) * ids.length)];
+    }
+
+    void report(Map<String, LatencyRecorder> results, Path csv) throws IOException {
+        double seconds = profile.getDuration().toNanos() / 1e9;
+        StringBuilder table = new StringBuilder(String.format("%n%-42s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        StringBuilder lines = new StringBuilder("endpoint,requests,errors,rps,p50_ms,p95_ms,p99_ms,max_ms\n");
+        results.forEach((endpoint, recorder) -> {
+            Object[] row = {endpoint, recorder.count(), recorder.errors(), recorder.count() / seconds,
+                    recorder.percentileMillis(50), recorder.percentileMillis(95), recorder.percentileMillis(99),
+                    recorder.percentileMillis(100)};
+            table.append(String.format("%-42s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", row));
+            lines.append(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n", row));
+        });
+        logger.info(String.format("%d threads, write ratio %.2f, %d s:", profile.getConcurrency(),
+                profile.getWriteRatio(), profile.getDuration().toSeconds()) + table);
+        Files.createDirectories(csv.getParent());
+        Files.writeString(csv, lines);
+    }
+}
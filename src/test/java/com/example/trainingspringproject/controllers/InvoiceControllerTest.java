@@ -2,12 +2,20 @@ package com.example.trainingspringproject.controllers;
 
 import com.example.trainingspringproject.exceptions.NotEnoughProductsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.exceptions.PostingQueueFullException;
+import com.example.trainingspringproject.models.dtos.ImportReportDto;
+import com.example.trainingspringproject.models.dtos.ImportResultDto;
 import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
 import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
 import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PostingTicketDto;
+import com.example.trainingspringproject.models.enums.PostingStatus;
 import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceImportService;
+import com.example.trainingspringproject.services.InvoicePostingService;
 import com.example.trainingspringproject.services.InvoiceService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -15,14 +23,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(InvoiceController.class)
@@ -35,6 +49,10 @@ class InvoiceControllerTest {
 
     @MockBean
     private InvoiceService serviceMock;
+    @MockBean
+    private InvoiceImportService importServiceMock;
+    @MockBean
+    private InvoicePostingService postingServiceMock;
 
     private final String COMMON_API = "/api/invoice";
     private final Long ID = 1L;
@@ -219,4 +237,106 @@ class InvoiceControllerTest {
         mockMvc.perform(get(COMMON_API + "/find-by-date?date=" + DATE.toString()))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void exportInvoices_thenWriteOneInvoicePerLine() throws Exception {
+        InvoiceResponseDto first = new InvoiceResponseDto(ID, "Partner", "Worker", TYPE, DATE, Collections.emptyList());
+        InvoiceResponseDto second = new InvoiceResponseDto(ID + 1, "Partner", "Worker", TYPE, DATE, Collections.emptyList());
+
+        doAnswer(invocation -> {
+            Consumer<InvoiceResponseDto> consumer = invocation.getArgument(3);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(serviceMock).exportAll(eq(DATE), isNull(), eq(TYPE), any());
+
+        MvcResult result = mockMvc.perform(get(COMMON_API + "/export?from=" + DATE + "&type=" + TYPE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(objectMapper.writeValueAsString(first) + "\n"
+                        + objectMapper.writeValueAsString(second) + "\n"));
+    }
+
+    @Test
+    void importInvoices_whenNdjson_thenPassInvoicesInOrder() throws Exception {
+        InvoiceRequestDto first = new InvoiceRequestDto(PARTNER_ID, WORKER_ID, TYPE, ITEMS);
+        InvoiceRequestDto second = new InvoiceRequestDto(PARTNER_ID + 1, WORKER_ID, TYPE, ITEMS);
+        ImportReportDto report = new ImportReportDto(2, 0,
+                List.of(new ImportResultDto(0, ID, null), new ImportResultDto(1, ID + 1, null)));
+        List<InvoiceRequestDto> imported = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            Iterator<InvoiceRequestDto> dtos = invocation.getArgument(0);
+            dtos.forEachRemaining(imported::add);
+            return report;
+        }).when(importServiceMock).importAll(any());
+
+        mockMvc.perform(post(COMMON_API + "/import")
+                        .content(objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n")
+                        .contentType("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(report)));
+
+        Assertions.assertEquals(List.of(first, second), imported);
+    }
+
+    @Test
+    void importInvoices_whenJsonArray_thenPassInvoicesInOrder() throws Exception {
+        InvoiceRequestDto first = new InvoiceRequestDto(PARTNER_ID, WORKER_ID, TYPE, ITEMS);
+        InvoiceRequestDto second = new InvoiceRequestDto(PARTNER_ID + 1, WORKER_ID, TYPE, ITEMS);
+        List<InvoiceRequestDto> imported = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            Iterator<InvoiceRequestDto> dtos = invocation.getArgument(0);
+            dtos.forEachRemaining(imported::add);
+            return new ImportReportDto(0, 0, Collections.emptyList());
+        }).when(importServiceMock).importAll(any());
+
+        mockMvc.perform(post(COMMON_API + "/import")
+                        .content(objectMapper.writeValueAsString(List.of(first, second)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        Assertions.assertEquals(List.of(first, second), imported);
+    }
+
+    @Test
+    void createInvoiceAsync_thenStatusIsAcceptedWithTicket() throws Exception {
+        InvoiceRequestDto dto = new InvoiceRequestDto(PARTNER_ID, WORKER_ID, TYPE, ITEMS);
+        PostingTicketDto ticket = new PostingTicketDto("abc", PostingStatus.QUEUED, null, null);
+
+        doReturn(ticket).when(postingServiceMock).submit(dto);
+
+        mockMvc.perform(post(COMMON_API + "/create-async")
+                        .content(objectMapper.writeValueAsString(dto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", COMMON_API + "/posting-status?ticket=abc"))
+                .andExpect(content().json(objectMapper.writeValueAsString(ticket)));
+    }
+
+    @Test
+    void createInvoiceAsync_whenQueueIsFull_thenStatusIsTooManyRequests() throws Exception {
+        InvoiceRequestDto dto = new InvoiceRequestDto(PARTNER_ID, WORKER_ID, TYPE, ITEMS);
+
+        doThrow(new PostingQueueFullException(1)).when(postingServiceMock).submit(dto);
+
+        mockMvc.perform(post(COMMON_API + "/create-async")
+                        .content(objectMapper.writeValueAsString(dto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void findPostingStatus_whenTicketIsUnknown_thenStatusIsNotFound() throws Exception {
+        doThrow(new NothingFoundException("Test", "Test")).when(postingServiceMock).findByTicket("abc");
+
+        mockMvc.perform(get(COMMON_API + "/posting-status?ticket=abc"))
+                .andExpect(status().isNotFound());
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.trainingspringproject.controllers;
 
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
 import com.example.trainingspringproject.models.dtos.PartnerDto;
 import com.example.trainingspringproject.services.PartnerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -154,6 +155,17 @@ class PartnerControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void findPartnersByIds_thenReturnBatch() throws Exception {
+        BatchDto<PartnerDto> batch = new BatchDto<>(List.of(new PartnerDto()), List.of(ID + 1));
+
+        doReturn(batch).when(serviceMock).findAllByIds(List.of(ID, ID + 1));
+
+        mockMvc.perform(get(COMMON_API + "/find-by-ids?ids=" + ID + "," + (ID + 1)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(batch)));
+    }
+
     @Test
     void findAllPartners_thenReturnPartners() throws Exception {
         List<PartnerDto> dtos = Collections.singletonList(new PartnerDto());
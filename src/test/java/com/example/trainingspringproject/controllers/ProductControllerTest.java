@@ -1,6 +1,11 @@
 package com.example.trainingspringproject.controllers;
 
+import com.example.trainingspringproject.exceptions.InvalidPageException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.exceptions.TooManyResultsException;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import com.example.trainingspringproject.models.dtos.ProductAvailabilityDto;
 import com.example.trainingspringproject.models.dtos.ProductDto;
 import com.example.trainingspringproject.services.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -42,6 +47,8 @@ class ProductControllerTest {
     private final Double OUTCOME_PRICE = 20.0;
     private final Long PRODUCER_ID = 2L;
     private final Long GROUP_ID = 3L;
+    private final String CURSOR = "MTA";
+    private final Integer LIMIT = 5;
 
     @Test
     void createProduct_thenCallServiceCreate() throws Exception {
@@ -153,6 +160,33 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void findProductsPage_thenReturnPageWithNextCursor() throws Exception {
+        PageDto<ProductDto> page = new PageDto<>(Collections.singletonList(new ProductDto()), CURSOR);
+
+        doReturn(page).when(serviceMock).findAll(CURSOR, LIMIT);
+
+        mockMvc.perform(get(COMMON_API + "/page?after=" + CURSOR + "&limit=" + LIMIT))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(page)));
+    }
+
+    @Test
+    void findProductsPage_whenCursorIsInvalid_thenStatusIsBadRequest() throws Exception {
+        doThrow(new InvalidPageException("cursor " + CURSOR)).when(serviceMock).findAll(CURSOR, null);
+
+        mockMvc.perform(get(COMMON_API + "/page?after=" + CURSOR))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findAllProducts_whenTooManyProducts_thenStatusIsBadRequest() throws Exception {
+        doThrow(new TooManyResultsException("Test", "Test", 1)).when(serviceMock).findAll();
+
+        mockMvc.perform(get(COMMON_API + "/all"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void findProductsByName_thenReturnProducts() throws Exception {
         List<ProductDto> dtos = Collections.singletonList(new ProductDto());
@@ -209,4 +243,49 @@ class ProductControllerTest {
         mockMvc.perform(get(COMMON_API + "/find-by-group-id?group-id=" + GROUP_ID))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void searchProducts_thenReturnProducts() throws Exception {
+        List<ProductDto> dtos = Collections.singletonList(new ProductDto());
+
+        doReturn(dtos).when(serviceMock).search(NAME, LIMIT);
+
+        mockMvc.perform(get(COMMON_API + "/search?q=" + NAME + "&limit=" + LIMIT))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtos)));
+    }
+
+    @Test
+    void searchProducts_whenServiceThrowsInvalidPageException_thenStatusIsBadRequest() throws Exception {
+        doThrow(new InvalidPageException("Test")).when(serviceMock).search(NAME, LIMIT);
+
+        mockMvc.perform(get(COMMON_API + "/search?q=" + NAME + "&limit=" + LIMIT))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void checkProductsAvailability_thenReturnLines() throws Exception {
+        List<ItemRequestDto> items = List.of(new ItemRequestDto(ID, QUANTITY));
+        List<ProductAvailabilityDto> dtos = List.of(new ProductAvailabilityDto(ID, QUANTITY, QUANTITY, OUTCOME_PRICE, true));
+
+        doReturn(dtos).when(serviceMock).checkAvailability(items);
+
+        mockMvc.perform(post(COMMON_API + "/availability")
+                        .content(objectMapper.writeValueAsString(items))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtos)));
+    }
+
+    @Test
+    void checkProductsAvailability_whenServiceThrowsInvalidPageException_thenStatusIsBadRequest() throws Exception {
+        List<ItemRequestDto> items = List.of(new ItemRequestDto(ID, QUANTITY));
+
+        doThrow(new InvalidPageException("Test")).when(serviceMock).checkAvailability(items);
+
+        mockMvc.perform(post(COMMON_API + "/availability")
+                        .content(objectMapper.writeValueAsString(items))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.trainingspringproject.controllers;
+
+import com.example.trainingspringproject.exceptions.InvalidDateRangeException;
+import com.example.trainingspringproject.models.dtos.RebuildReportDto;
+import com.example.trainingspringproject.models.dtos.SalesReportDto;
+import com.example.trainingspringproject.models.enums.ReportDimension;
+import com.example.trainingspringproject.models.enums.ReportPeriod;
+import com.example.trainingspringproject.services.SalesReportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReportController.class)
+@AutoConfigureMockMvc
+class ReportControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private SalesReportService serviceMock;
+
+    private final String COMMON_API = "/api/report";
+    private final LocalDate FROM = LocalDate.of(2022, 1, 1);
+    private final LocalDate TO = LocalDate.of(2022, 1, 31);
+
+    @Test
+    void getSalesReport_thenReturnReportRows() throws Exception {
+        List<SalesReportDto> rows = List.of(new SalesReportDto(FROM, 1L, "Dairy", 10L, 100.0, 4L, 60.0, 20.0));
+
+        doReturn(rows).when(serviceMock).report(ReportDimension.PRODUCT_GROUP, ReportPeriod.MONTH, FROM, TO);
+
+        mockMvc.perform(get(COMMON_API + "/sales")
+                        .param("by", "PRODUCT_GROUP")
+                        .param("period", "MONTH")
+                        .param("from", FROM.toString())
+                        .param("to", TO.toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(rows)));
+    }
+
+    @Test
+    void getSalesReport_whenDimensionNotGiven_thenTotalsByProduct() throws Exception {
+        mockMvc.perform(get(COMMON_API + "/sales")
+                        .param("from", FROM.toString())
+                        .param("to", TO.toString()))
+                .andExpect(status().isOk());
+
+        verify(serviceMock, times(1)).report(ReportDimension.PRODUCT, ReportPeriod.TOTAL, FROM, TO);
+    }
+
+    @Test
+    void getSalesReport_whenRangeIsInvalid_thenStatusIsBadRequest() throws Exception {
+        doThrow(new InvalidDateRangeException(TO, FROM)).when(serviceMock)
+                .report(ReportDimension.PRODUCT, ReportPeriod.TOTAL, TO, FROM);
+
+        mockMvc.perform(get(COMMON_API + "/sales")
+                        .param("from", TO.toString())
+                        .param("to", FROM.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rebuildSales_thenReturnRebuildReport() throws Exception {
+        RebuildReportDto report = new RebuildReportDto(FROM, TO, 1, 42L);
+
+        doReturn(report).when(serviceMock).rebuild(null, null);
+
+        mockMvc.perform(post(COMMON_API + "/sales/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(report)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AtomicStockEngineTest {
+    private StockEngine engine;
+
+    @Mock
+    private ProductRepository repositoryMock;
+
+    @BeforeEach
+    void init() {
+        engine = new AtomicStockEngine(repositoryMock);
+    }
+
+    private final Long FIRST_ID = 1L;
+    private final Long SECOND_ID = 2L;
+    private final Integer DELTA = -5;
+
+    @Test
+    void changeQuantities_whenAllRowsUpdated_thenReturnNothingRejected() {
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(FIRST_ID, DELTA);
+        deltas.put(SECOND_ID, DELTA);
+
+        doReturn(new int[]{1, 1}).when(repositoryMock).changeQuantities(deltas);
+
+        Assertions.assertTrue(engine.changeQuantities(deltas).isEmpty());
+    }
+
+    @Test
+    void changeQuantities_whenRowNotUpdated_thenReturnItsProductId() {
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(FIRST_ID, DELTA);
+        deltas.put(SECOND_ID, DELTA);
+
+        doReturn(new int[]{1, 0}).when(repositoryMock).changeQuantities(deltas);
+
+        Assertions.assertEquals(engine.changeQuantities(deltas), List.of(SECOND_ID));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.NotEnoughProductsException;
+import com.example.trainingspringproject.models.dtos.ImportReportDto;
+import com.example.trainingspringproject.models.dtos.ImportResultDto;
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PostingReportDto;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceImportService;
+import com.example.trainingspringproject.services.InvoiceService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceImportServiceImplTest {
+    private InvoiceImportService service;
+
+    @Mock
+    private InvoiceService invoiceServiceMock;
+    @Mock
+    private EntityManager entityManagerMock;
+
+    @BeforeEach
+    void init() {
+        WarehouseProperties properties = new WarehouseProperties();
+        properties.getBulkImport().setChunkSize(CHUNK_SIZE);
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            service = new InvoiceImportServiceImpl(invoiceServiceMock, factory.getValidator(), entityManagerMock,
+                    properties);
+        }
+    }
+
+    private final int CHUNK_SIZE = 2;
+    private final List<ItemRequestDto> ITEMS = List.of(new ItemRequestDto(4L, 10));
+    private final InvoiceRequestDto FIRST = new InvoiceRequestDto(1L, 1L, TransactionType.INCOME, ITEMS);
+    private final InvoiceRequestDto SECOND = new InvoiceRequestDto(2L, 1L, TransactionType.OUTCOME, ITEMS);
+    private final InvoiceRequestDto THIRD = new InvoiceRequestDto(3L, 1L, TransactionType.INCOME, ITEMS);
+
+    @Test
+    void importAll_thenCreateInvoicesInChunks() {
+        doReturn(List.of(10L, 11L)).when(invoiceServiceMock).createAll(List.of(FIRST, SECOND));
+        doReturn(List.of(12L)).when(invoiceServiceMock).createAll(List.of(THIRD));
+
+        ImportReportDto report = service.importAll(List.of(FIRST, SECOND, THIRD).iterator());
+
+        Assertions.assertEquals(3, report.getImported());
+        Assertions.assertEquals(0, report.getFailed());
+        Assertions.assertEquals(List.of(new ImportResultDto(0, 10L, null), new ImportResultDto(1, 11L, null),
+                new ImportResultDto(2, 12L, null)), report.getResults());
+        verify(invoiceServiceMock, never()).create(any());
+        verify(entityManagerMock, times(2)).clear();
+    }
+
+    @Test
+    void importAll_whenChunkFails_thenCreateChunkInvoicesOneByOne() {
+        doThrow(new NotEnoughProductsException(10, 0, "Test")).when(invoiceServiceMock).createAll(List.of(FIRST, SECOND));
+        doReturn(new PostingReportDto(10L, 1, 1L)).when(invoiceServiceMock).create(FIRST);
+        doThrow(new NotEnoughProductsException(10, 0, "Test")).when(invoiceServiceMock).create(SECOND);
+
+        ImportReportDto report = service.importAll(List.of(FIRST, SECOND).iterator());
+
+        Assertions.assertEquals(1, report.getImported());
+        Assertions.assertEquals(1, report.getFailed());
+        Assertions.assertEquals(10L, report.getResults().get(0).getInvoiceId());
+        Assertions.assertNull(report.getResults().get(1).getInvoiceId());
+        Assertions.assertNotNull(report.getResults().get(1).getError());
+    }
+
+    @Test
+    void importAll_whenInvoiceHasInvalidParameters_thenSkipItWithoutCallingService() {
+        InvoiceRequestDto invalid = new InvoiceRequestDto(1L, 1L, TransactionType.INCOME, List.of(new ItemRequestDto()));
+
+        doReturn(List.of(10L, 11L)).when(invoiceServiceMock).createAll(List.of(FIRST, SECOND));
+
+        ImportReportDto report = service.importAll(List.of(FIRST, invalid, SECOND).iterator());
+
+        Assertions.assertEquals(2, report.getImported());
+        Assertions.assertEquals(1, report.getFailed());
+        Assertions.assertEquals(1, report.getResults().get(1).getIndex());
+        Assertions.assertNotNull(report.getResults().get(1).getError());
+        Assertions.assertEquals(11L, report.getResults().get(2).getInvoiceId());
+    }
+}
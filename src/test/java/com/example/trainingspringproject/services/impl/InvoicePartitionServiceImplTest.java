@@ -0,0 +1,57 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.repositories.InvoicePartitionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoicePartitionServiceImplTest {
+    @Mock
+    private InvoicePartitionRepository repositoryMock;
+
+    private final LocalDate TODAY = LocalDate.of(2022, 9, 29);
+    private final Clock CLOCK = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private InvoicePartitionServiceImpl service(int retainMonths) {
+        WarehouseProperties properties = new WarehouseProperties();
+        properties.getPartitions().setMonthsAhead(3);
+        properties.getPartitions().setRetainMonths(retainMonths);
+        return new InvoicePartitionServiceImpl(repositoryMock, properties, CLOCK);
+    }
+
+    @Test
+    void createFuturePartitions_thenCreateFromCurrentMonthAhead() {
+        doReturn(1).when(repositoryMock).createPartitions(LocalDate.of(2022, 9, 1), LocalDate.of(2022, 12, 29));
+
+        Assertions.assertEquals(1, service(0).createFuturePartitions());
+    }
+
+    @Test
+    void detachExpiredPartitions_thenDetachMonthsOlderThanRetained() {
+        doReturn(List.of(LocalDate.of(2022, 6, 1), LocalDate.of(2022, 7, 1), LocalDate.of(2022, 8, 1),
+                LocalDate.of(2022, 9, 1))).when(repositoryMock).findAttachedMonths();
+        doReturn(true).when(repositoryMock).detachPartition(any());
+
+        List<LocalDate> detached = service(2).detachExpiredPartitions();
+
+        Assertions.assertEquals(List.of(LocalDate.of(2022, 6, 1), LocalDate.of(2022, 7, 1)), detached);
+        verify(repositoryMock, never()).detachPartition(LocalDate.of(2022, 8, 1));
+    }
+
+    @Test
+    void detachExpiredPartitions_whenRetainAll_thenDetachNothing() {
+        Assertions.assertTrue(service(0).detachExpiredPartitions().isEmpty());
+        verify(repositoryMock, never()).findAttachedMonths();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.NotEnoughProductsException;
+import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.exceptions.PostingQueueFullException;
+import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PostingReportDto;
+import com.example.trainingspringproject.models.dtos.PostingTicketDto;
+import com.example.trainingspringproject.models.enums.PostingStatus;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.services.InvoiceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoicePostingServiceImplTest {
+    private InvoicePostingServiceImpl service;
+
+    @Mock
+    private InvoiceService invoiceServiceMock;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Long> posted = new CopyOnWriteArrayList<>();
+
+    private final InvoiceRequestDto FIRST = invoice(1L, 4L);
+    private final InvoiceRequestDto SECOND = invoice(2L, 4L);
+    private final InvoiceRequestDto OTHER = invoice(3L, 5L);
+
+    @BeforeEach
+    void init() {
+        WarehouseProperties properties = new WarehouseProperties();
+        properties.getPosting().setWorkers(2);
+        properties.getPosting().setQueueCapacity(3);
+        service = new InvoicePostingServiceImpl(invoiceServiceMock, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void cleanup() throws InterruptedException {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void submit_thenPostInBackgroundAndReturnReport() {
+        PostingReportDto report = new PostingReportDto(10L, 1, 5L);
+        doReturn(report).when(invoiceServiceMock).create(FIRST);
+
+        PostingTicketDto ticket = service.submit(FIRST);
+
+        Assertions.assertEquals(PostingStatus.QUEUED, ticket.getStatus());
+        Assertions.assertEquals(report, awaitStatus(ticket, PostingStatus.DONE).getReport());
+    }
+
+    @Test
+    void submit_whenInvoicesShareProduct_thenPostInSubmitOrder() {
+        blockPosting(FIRST);
+        recordPosting(SECOND);
+        recordPosting(OTHER);
+
+        PostingTicketDto first = service.submit(FIRST);
+        PostingTicketDto second = service.submit(SECOND);
+        PostingTicketDto other = service.submit(OTHER);
+
+        //накладная с другим товаром не ждет заблокированную
+        awaitStatus(other, PostingStatus.DONE);
+        Assertions.assertEquals(PostingStatus.QUEUED, service.findByTicket(second.getTicket()).getStatus());
+
+        release.countDown();
+        awaitStatus(first, PostingStatus.DONE);
+        awaitStatus(second, PostingStatus.DONE);
+        Assertions.assertEquals(List.of(OTHER.getPartnerId(), FIRST.getPartnerId(), SECOND.getPartnerId()), posted);
+    }
+
+    @Test
+    void submit_whenQueueIsFull_thenThrowExceptionWithoutWaiting() {
+        blockPosting(FIRST);
+        blockPosting(OTHER);
+        service.submit(FIRST);
+        service.submit(SECOND);
+        service.submit(OTHER);
+
+        Assertions.assertThrows(PostingQueueFullException.class, () -> service.submit(invoice(4L, 6L)));
+    }
+
+    @Test
+    void submit_whenPostingFails_thenTicketFailedAndNextInvoicePosted() {
+        doThrow(new NotEnoughProductsException(10, 1, "Product")).when(invoiceServiceMock).create(FIRST);
+        recordPosting(SECOND);
+
+        PostingTicketDto first = service.submit(FIRST);
+        PostingTicketDto second = service.submit(SECOND);
+
+        Assertions.assertNotNull(awaitStatus(first, PostingStatus.FAILED).getError());
+        awaitStatus(second, PostingStatus.DONE);
+    }
+
+    @Test
+    void submit_whenPostingThrowsError_thenTicketFailedAndNextInvoicePosted() {
+        doThrow(new LinkageError("broken")).when(invoiceServiceMock).create(FIRST);
+        recordPosting(SECOND);
+
+        PostingTicketDto first = service.submit(FIRST);
+        PostingTicketDto second = service.submit(SECOND);
+
+        Assertions.assertNotNull(awaitStatus(first, PostingStatus.FAILED).getError());
+        awaitStatus(second, PostingStatus.DONE);
+        Assertions.assertEquals(List.of(SECOND.getPartnerId()), posted);
+    }
+
+    @Test
+    void shutdown_whenInvoicesQueued_thenPostThemBeforeStopping() throws InterruptedException {
+        blockPosting(FIRST);
+        recordPosting(SECOND);
+        PostingTicketDto first = service.submit(FIRST);
+        PostingTicketDto second = service.submit(SECOND);
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(release::countDown);
+
+        service.shutdown();
+
+        Assertions.assertEquals(PostingStatus.DONE, service.findByTicket(first.getTicket()).getStatus());
+        Assertions.assertEquals(PostingStatus.DONE, service.findByTicket(second.getTicket()).getStatus());
+        Assertions.assertEquals(List.of(FIRST.getPartnerId(), SECOND.getPartnerId()), posted);
+        Assertions.assertThrows(PostingQueueFullException.class, () -> service.submit(OTHER));
+    }
+
+    @Test
+    void findByTicket_whenTicketIsUnknown_thenThrowException() {
+        Assertions.assertThrows(NothingFoundException.class, () -> service.findByTicket("unknown"));
+    }
+
+    private void blockPosting(InvoiceRequestDto dto) {
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            posted.add(dto.getPartnerId());
+            return new PostingReportDto(dto.getPartnerId(), 1, 1L);
+        }).when(invoiceServiceMock).create(dto);
+    }
+
+    private void recordPosting(InvoiceRequestDto dto) {
+        doAnswer(invocation -> {
+            posted.add(dto.getPartnerId());
+            return new PostingReportDto(dto.getPartnerId(), 1, 1L);
+        }).when(invoiceServiceMock).create(dto);
+    }
+
+    private PostingTicketDto awaitStatus(PostingTicketDto ticket, PostingStatus status) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        PostingTicketDto current = service.findByTicket(ticket.getTicket());
+        while (current.getStatus() != status && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            current = service.findByTicket(ticket.getTicket());
+        }
+        Assertions.assertEquals(status, current.getStatus());
+        return current;
+    }
+
+    //партнер используется как номер накладной в порядке проводки
+    private static InvoiceRequestDto invoice(Long partnerId, Long productId) {
+        return new InvoiceRequestDto(partnerId, 1L, TransactionType.OUTCOME, List.of(new ItemRequestDto(productId, 1)));
+    }
+}
@@ -1,17 +1,20 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.WarehouseProperties;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
 import com.example.trainingspringproject.models.dtos.InvoiceRequestDto;
 import com.example.trainingspringproject.models.dtos.InvoiceResponseDto;
 import com.example.trainingspringproject.models.dtos.ItemRequestDto;
-import com.example.trainingspringproject.models.dtos.ProductDto;
+import com.example.trainingspringproject.models.dtos.PostingReportDto;
 import com.example.trainingspringproject.models.entities.Invoice;
 import com.example.trainingspringproject.models.enums.TransactionType;
 import com.example.trainingspringproject.models.mappers.InvoiceMapper;
+import com.example.trainingspringproject.models.projections.ProductStock;
 import com.example.trainingspringproject.repositories.InvoiceRepository;
 import com.example.trainingspringproject.services.InvoiceService;
 import com.example.trainingspringproject.services.ItemService;
 import com.example.trainingspringproject.services.ProductService;
+import com.example.trainingspringproject.services.SalesReportService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +28,7 @@ import javax.validation.ValidatorFactory;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -42,10 +46,16 @@ class InvoiceServiceImplTest {
     private ItemService itemServiceMock;
     @Mock
     private ProductService productServiceMock;
+    @Mock
+    private InvoiceResponseCache responseCacheMock;
+    @Mock
+    private SalesReportService salesReportServiceMock;
+    private final KeysetPager pager = new KeysetPager(new WarehouseProperties());
 
     @BeforeEach
     void init() {
-        service = new InvoiceServiceImpl(repositoryMock, mapperMock, itemServiceMock, productServiceMock);
+        service = new InvoiceServiceImpl(repositoryMock, mapperMock, pager, itemServiceMock, productServiceMock,
+                responseCacheMock, salesReportServiceMock);
         try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
             validator = factory.getValidator();
         }
@@ -67,18 +77,24 @@ class InvoiceServiceImplTest {
         Invoice entity = new Invoice();
         entity.setId(ID);
         InvoiceRequestDto dto = new InvoiceRequestDto(PARTNER_ID, WORKER_ID, TYPE_INCOME, ITEMS);
-        ProductDto productDto = new ProductDto();
-        productDto.setIncomePrice(PRICE);
+        ProductStock product = mock(ProductStock.class);
 
+        doReturn(ITEM_PRODUCT_ID).when(product).getId();
+        doReturn(PRICE).when(product).getIncomePrice();
         doReturn(entity).when(mapperMock).dtoToEntity(dto);
-        doReturn(productDto).when(productServiceMock).findById(ITEM_PRODUCT_ID);
+        doReturn(Map.of(ITEM_PRODUCT_ID, product)).when(productServiceMock).income(ITEMS);
 
-        service.create(dto);
+        PostingReportDto report = service.create(dto);
 
         Assertions.assertTrue(validator.validate(dto).isEmpty());
+        Assertions.assertEquals(report.getInvoiceId(), ID);
+        Assertions.assertEquals(report.getItems(), ITEMS.size());
         verify(repositoryMock, times(1)).save(entity);
-        verify(itemServiceMock, times(ITEMS.size())).create(any(ItemRequestDto.class), eq(ID), eq(PRICE));
-        verify(productServiceMock, times(ITEMS.size())).income(ITEM_PRODUCT_ID, ITEM_QUANTITY);
+        verify(productServiceMock, times(1)).income(ITEMS);
+        verify(itemServiceMock, times(1)).createAll(ITEMS, entity, Map.of(ITEM_PRODUCT_ID, PRICE));
+        verify(responseCacheMock, times(1)).put(eq(entity), anyList());
+        verify(salesReportServiceMock, times(1)).add(List.of(entity), Map.of(ID, ITEMS),
+                Map.of(ID, Map.of(ITEM_PRODUCT_ID, PRICE)), Map.of(ITEM_PRODUCT_ID, PRICE));
     }
 
     @Test
@@ -86,18 +102,25 @@ class InvoiceServiceImplTest {
         Invoice entity = new Invoice();
         entity.setId(ID);
         InvoiceRequestDto dto = new InvoiceRequestDto(PARTNER_ID, WORKER_ID, TYPE_OUTCOME, ITEMS);
-        ProductDto productDto = new ProductDto();
-        productDto.setOutcomePrice(PRICE);
+        ProductStock product = mock(ProductStock.class);
 
+        doReturn(ITEM_PRODUCT_ID).when(product).getId();
+        doReturn(PRICE).when(product).getOutcomePrice();
+        doReturn(PRICE / 2).when(product).getIncomePrice();
         doReturn(entity).when(mapperMock).dtoToEntity(dto);
-        doReturn(productDto).when(productServiceMock).findById(ITEM_PRODUCT_ID);
+        doReturn(Map.of(ITEM_PRODUCT_ID, product)).when(productServiceMock).outcome(ITEMS);
 
-        service.create(dto);
+        PostingReportDto report = service.create(dto);
 
         Assertions.assertTrue(validator.validate(dto).isEmpty());
+        Assertions.assertEquals(report.getInvoiceId(), ID);
+        Assertions.assertEquals(report.getItems(), ITEMS.size());
         verify(repositoryMock, times(1)).save(entity);
-        verify(itemServiceMock, times(ITEMS.size())).create(any(ItemRequestDto.class), eq(ID), eq(PRICE));
-        verify(productServiceMock, times(ITEMS.size())).outcome(ITEM_PRODUCT_ID, ITEM_QUANTITY);
+        verify(productServiceMock, times(1)).outcome(ITEMS);
+        verify(itemServiceMock, times(1)).createAll(ITEMS, entity, Map.of(ITEM_PRODUCT_ID, PRICE));
+        verify(responseCacheMock, times(1)).put(eq(entity), anyList());
+        verify(salesReportServiceMock, times(1)).add(List.of(entity), Map.of(ID, ITEMS),
+                Map.of(ID, Map.of(ITEM_PRODUCT_ID, PRICE)), Map.of(ITEM_PRODUCT_ID, PRICE / 2));
     }
 
     @Test
@@ -107,6 +130,38 @@ class InvoiceServiceImplTest {
         Assertions.assertFalse(validator.validate(dto).isEmpty());
     }
 
+    @Test
+    void createAll_thenChangeStockOncePerProductAndSaveItemsOfAllInvoices() {
+        Invoice income = new Invoice();
+        income.setId(ID);
+        Invoice outcome = new Invoice();
+        outcome.setId(ID + 1);
+        InvoiceRequestDto incomeDto = new InvoiceRequestDto(PARTNER_ID, WORKER_ID, TYPE_INCOME, ITEMS);
+        InvoiceRequestDto outcomeDto = new InvoiceRequestDto(PARTNER_ID, WORKER_ID, TYPE_OUTCOME,
+                List.of(new ItemRequestDto(ITEM_PRODUCT_ID, 3)));
+        ProductStock product = mock(ProductStock.class);
+
+        doReturn(ITEM_PRODUCT_ID).when(product).getId();
+        doReturn(PRICE).when(product).getIncomePrice();
+        doReturn(PRICE * 2).when(product).getOutcomePrice();
+        doReturn(income).when(mapperMock).dtoToEntity(incomeDto);
+        doReturn(outcome).when(mapperMock).dtoToEntity(outcomeDto);
+        doReturn(Map.of(ITEM_PRODUCT_ID, product)).when(productServiceMock).changeStock(
+                List.of(Map.of(ITEM_PRODUCT_ID, ITEM_QUANTITY), Map.of(ITEM_PRODUCT_ID, -3)));
+
+        List<Long> ids = service.createAll(List.of(incomeDto, outcomeDto));
+
+        Assertions.assertEquals(List.of(ID, ID + 1), ids);
+        verify(repositoryMock, times(1)).saveAll(List.of(income, outcome));
+        verify(productServiceMock, times(1)).changeStock(
+                List.of(Map.of(ITEM_PRODUCT_ID, ITEM_QUANTITY), Map.of(ITEM_PRODUCT_ID, -3)));
+        verify(itemServiceMock, times(1)).createAll(List.of(income, outcome),
+                Map.of(ID, ITEMS, ID + 1, outcomeDto.getItems()),
+                Map.of(ID, Map.of(ITEM_PRODUCT_ID, PRICE), ID + 1, Map.of(ITEM_PRODUCT_ID, PRICE * 2)));
+        verify(salesReportServiceMock, times(1)).add(eq(List.of(income, outcome)), anyMap(), anyMap(),
+                eq(Map.of(ITEM_PRODUCT_ID, PRICE)));
+    }
+
     @Test
     void delete_whenInvoiceWithIdExists_thenDeleteInvoice() {
         Invoice entity = new Invoice();
@@ -115,7 +170,10 @@ class InvoiceServiceImplTest {
 
         service.delete(ID);
 
+        verify(salesReportServiceMock, times(1)).remove(ID);
+        verify(itemServiceMock, times(1)).deleteAllByInvoiceId(ID);
         verify(repositoryMock, times(1)).delete(entity);
+        verify(responseCacheMock, times(1)).evict(ID);
     }
 
     @Test
@@ -127,109 +185,107 @@ class InvoiceServiceImplTest {
 
     @Test
     void findById_whenInvoiceWithIdExists_thenReturnInvoice() {
-        Invoice entity = new Invoice();
         InvoiceResponseDto dto = new InvoiceResponseDto();
 
-        doReturn(Optional.of(entity)).when(repositoryMock).findById(ID);
-        doReturn(dto).when(mapperMock).entityToDto(entity);
+        doReturn(Optional.of(dto)).when(responseCacheMock).findById(ID);
 
         Assertions.assertEquals(service.findById(ID), dto);
     }
 
     @Test
     void findById_whenInvoiceWithIdNotExist_thenThrowException() {
-        doReturn(Optional.empty()).when(repositoryMock).findById(ID);
+        doReturn(Optional.empty()).when(responseCacheMock).findById(ID);
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findById(ID));
     }
 
     @Test
     void findAll_whenInvoicesExist_thenReturnInvoices() {
-        List<Invoice> entities = Collections.singletonList(new Invoice());
+        List<InvoiceResponseDto> headers = Collections.singletonList(new InvoiceResponseDto());
         List<InvoiceResponseDto> dtos = Collections.singletonList(new InvoiceResponseDto());
 
-        doReturn(entities).when(repositoryMock).findAll();
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(headers).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
+        doReturn(dtos).when(mapperMock).fillItems(headers);
 
         Assertions.assertEquals(service.findAll(), dtos);
     }
 
     @Test
     void findAllByPartnerId_whenInvoicesWithPartnerIdExist_thenReturnInvoices() {
-        List<Invoice> entities = Collections.singletonList(new Invoice());
+        List<InvoiceResponseDto> headers = Collections.singletonList(new InvoiceResponseDto());
         List<InvoiceResponseDto> dtos = Collections.singletonList(new InvoiceResponseDto());
 
-        doReturn(entities).when(repositoryMock).findAllByPartnerId(PARTNER_ID);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(headers).when(repositoryMock).findDtosByPartnerIdAndIdGreaterThan(PARTNER_ID, 0L, pager.unpaged());
+        doReturn(dtos).when(mapperMock).fillItems(headers);
 
         Assertions.assertEquals(service.findAllByPartnerId(PARTNER_ID), dtos);
     }
 
     @Test
     void findAllByPartnerId_whenInvoicesWithPartnerIdNotExist_thenThrowException() {
-        List<Invoice> entities = Collections.emptyList();
+        List<InvoiceResponseDto> headers = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByPartnerId(PARTNER_ID);
+        doReturn(headers).when(repositoryMock).findDtosByPartnerIdAndIdGreaterThan(PARTNER_ID, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByPartnerId(PARTNER_ID));
     }
 
     @Test
     void findAllByWorkerId_whenInvoicesWithWorkerIdExist_thenReturnInvoices() {
-        List<Invoice> entities = Collections.singletonList(new Invoice());
+        List<InvoiceResponseDto> headers = Collections.singletonList(new InvoiceResponseDto());
         List<InvoiceResponseDto> dtos = Collections.singletonList(new InvoiceResponseDto());
 
-        doReturn(entities).when(repositoryMock).findAllByWorkerId(WORKER_ID);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(headers).when(repositoryMock).findDtosByWorkerIdAndIdGreaterThan(WORKER_ID, 0L, pager.unpaged());
+        doReturn(dtos).when(mapperMock).fillItems(headers);
 
         Assertions.assertEquals(service.findAllByWorkerId(WORKER_ID), dtos);
     }
 
     @Test
     void findAllByWorkerId_whenInvoicesWithWorkerIdNotExist_thenThrowException() {
-        List<Invoice> entities = Collections.emptyList();
+        List<InvoiceResponseDto> headers = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByWorkerId(WORKER_ID);
+        doReturn(headers).when(repositoryMock).findDtosByWorkerIdAndIdGreaterThan(WORKER_ID, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByWorkerId(WORKER_ID));
     }
 
     @Test
     void findAllByType_whenInvoicesWithTypeExist_thenReturnInvoices() {
-        List<Invoice> entities = Collections.singletonList(new Invoice());
+        List<InvoiceResponseDto> headers = Collections.singletonList(new InvoiceResponseDto());
         List<InvoiceResponseDto> dtos = Collections.singletonList(new InvoiceResponseDto());
 
-        doReturn(entities).when(repositoryMock).findAllByType(TYPE_INCOME);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(headers).when(repositoryMock).findDtosByTypeAndIdGreaterThan(TYPE_INCOME, 0L, pager.unpaged());
+        doReturn(dtos).when(mapperMock).fillItems(headers);
 
         Assertions.assertEquals(service.findAllByType(TYPE_INCOME), dtos);
     }
 
     @Test
     void findAllByType_whenInvoicesWithTypeNotExist_thenThrowException() {
-        List<Invoice> entities = Collections.emptyList();
+        List<InvoiceResponseDto> headers = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByType(TYPE_INCOME);
+        doReturn(headers).when(repositoryMock).findDtosByTypeAndIdGreaterThan(TYPE_INCOME, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByType(TYPE_INCOME));
     }
 
     @Test
     void findAllByDate_whenInvoicesWithDateExist_thenReturnInvoices() {
-        List<Invoice> entities = Collections.singletonList(new Invoice());
+        List<InvoiceResponseDto> headers = Collections.singletonList(new InvoiceResponseDto());
         List<InvoiceResponseDto> dtos = Collections.singletonList(new InvoiceResponseDto());
 
-        doReturn(entities).when(repositoryMock).findAllByDate(DATE);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(headers).when(repositoryMock).findDtosByDateAndIdGreaterThan(DATE, 0L, pager.unpaged());
+        doReturn(dtos).when(mapperMock).fillItems(headers);
 
         Assertions.assertEquals(service.findAllByDate(DATE), dtos);
     }
 
     @Test
     void findAllByDate_whenInvoicesWithDateNotExist_thenThrowException() {
-        List<Invoice> entities = Collections.emptyList();
+        List<InvoiceResponseDto> headers = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByDate(DATE);
+        doReturn(headers).when(repositoryMock).findDtosByDateAndIdGreaterThan(DATE, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByDate(DATE));
     }
@@ -3,6 +3,7 @@ package com.example.trainingspringproject.services.impl;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
 import com.example.trainingspringproject.models.dtos.ItemRequestDto;
 import com.example.trainingspringproject.models.dtos.ItemResponseDto;
+import com.example.trainingspringproject.models.entities.Invoice;
 import com.example.trainingspringproject.models.entities.Item;
 import com.example.trainingspringproject.models.mappers.ItemMapper;
 import com.example.trainingspringproject.repositories.ItemRepository;
@@ -17,8 +18,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -46,6 +49,7 @@ class ItemServiceImplTest {
     private final Long PRODUCT_ID = 1L;
     private final Integer QUANTITY = 1;
     private final Double PRICE = 1.0;
+    private final LocalDate DATE = LocalDate.of(2022, 9, 29);
 
     @Test
     void create_thenSaveItem() {
@@ -60,6 +64,25 @@ class ItemServiceImplTest {
         verify(repositoryMock, times(1)).save(entity);
     }
 
+    @Test
+    void createAll_thenInsertAllItemsInOneBatch() {
+        ItemRequestDto dto = new ItemRequestDto(PRODUCT_ID, QUANTITY);
+
+        Invoice invoice = new Invoice();
+        invoice.setId(INVOICE_ID);
+        invoice.setDate(DATE);
+
+        service.createAll(List.of(dto, dto), invoice, Map.of(PRODUCT_ID, PRICE));
+
+        verify(repositoryMock, times(1)).insertAll(argThat(items -> items.size() == 2 &&
+                items.stream().allMatch(item -> item.getInvoice().getId().equals(INVOICE_ID) &&
+                        item.getInvoiceDate().equals(DATE) &&
+                        item.getProduct().getId().equals(PRODUCT_ID) &&
+                        item.getQuantity().equals(QUANTITY) &&
+                        item.getPrice().equals(PRICE))));
+        verify(repositoryMock, never()).save(any(Item.class));
+    }
+
     @Test
     void create_whenItemHasInvalidParameters_thenThrowException() {
         ItemRequestDto dto = new ItemRequestDto();
@@ -85,6 +108,13 @@ class ItemServiceImplTest {
         Assertions.assertThrows(NothingFoundException.class, () -> service.delete(ID));
     }
 
+    @Test
+    void deleteAllByInvoiceId_thenDeleteItemsOfInvoice() {
+        service.deleteAllByInvoiceId(INVOICE_ID);
+
+        verify(repositoryMock, times(1)).deleteAllByInvoiceId(INVOICE_ID);
+    }
+
     @Test
     void findAllByInvoiceId_whenItemsWithInvoiceIdExist_thenReturnItems() {
         List<Item> entities = Collections.singletonList(new Item());
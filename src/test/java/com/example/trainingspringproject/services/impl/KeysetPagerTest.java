@@ -0,0 +1,107 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.InvalidPageException;
+import com.example.trainingspringproject.exceptions.TooManyResultsException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+class KeysetPagerTest {
+    private KeysetPager pager;
+
+    @BeforeEach
+    void init() {
+        WarehouseProperties properties = new WarehouseProperties();
+        properties.getPaging().setDefaultLimit(2);
+        properties.getPaging().setMaxLimit(MAX_LIMIT);
+        properties.getPaging().setUnpagedCap(CAP);
+        properties.getPaging().setMaxIds(MAX_IDS);
+        properties.getPaging().setIdsChunkSize(2);
+        pager = new KeysetPager(properties);
+    }
+
+    private static final int MAX_LIMIT = 5;
+    private static final int CAP = 3;
+    private static final int MAX_IDS = 6;
+
+    @Test
+    void after_whenNoCursor_thenStartFromBeginning() {
+        Assertions.assertEquals(pager.after(null), 0L);
+        Assertions.assertEquals(pager.after(""), 0L);
+    }
+
+    @Test
+    void after_whenCursorIsNotValid_thenThrowException() {
+        Assertions.assertThrows(InvalidPageException.class, () -> pager.after("not a cursor"));
+        Assertions.assertThrows(InvalidPageException.class, () -> pager.after("LTE"));
+    }
+
+    @Test
+    void page_whenLimitOutOfBounds_thenThrowException() {
+        Assertions.assertThrows(InvalidPageException.class, () -> pager.page(0));
+        Assertions.assertThrows(InvalidPageException.class, () -> pager.page(MAX_LIMIT + 1));
+    }
+
+    @Test
+    void page_whenNoLimit_thenFetchDefaultLimitPlusOne() {
+        Assertions.assertEquals(pager.page(null).getPageSize(), 3);
+    }
+
+    @Test
+    void toPage_whenMoreEntitiesThanLimit_thenCursorPointsToLastReturned() {
+        Pageable page = pager.page(2);
+
+        PageDto<Long> result = pager.toPage(List.of(10L, 20L, 30L), page, Function.identity(), Function.identity());
+
+        Assertions.assertEquals(result.getItems(), List.of(10L, 20L));
+        Assertions.assertEquals(pager.after(result.getNext()), 20L);
+    }
+
+    @Test
+    void toPage_whenEntitiesFitLimit_thenNoCursor() {
+        PageDto<Long> result = pager.toPage(List.of(10L), pager.page(2), Function.identity(), Function.identity());
+
+        Assertions.assertEquals(result.getItems(), List.of(10L));
+        Assertions.assertNull(result.getNext());
+    }
+
+    @Test
+    void checkCap_whenMoreEntitiesThanCap_thenThrowException() {
+        Assertions.assertEquals(pager.unpaged().getPageSize(), CAP + 1);
+        Assertions.assertThrows(TooManyResultsException.class,
+                () -> pager.checkCap(Collections.nCopies(CAP + 1, 1L), "Test", "all"));
+    }
+
+    @Test
+    void byIds_thenQueryInChunksKeepRequestOrderAndReportMissing() {
+        List<List<Long>> queries = new ArrayList<>();
+
+        BatchDto<Long> result = pager.byIds(Arrays.asList(30L, 10L, 40L, 10L, null, 20L), chunk -> {
+            queries.add(List.copyOf(chunk));
+            List<Long> found = new ArrayList<>(chunk);
+            found.remove(40L);
+            Collections.reverse(found);
+            return found;
+        }, Function.identity());
+
+        Assertions.assertEquals(List.of(List.of(30L, 10L), List.of(40L, 20L)), queries);
+        Assertions.assertEquals(List.of(30L, 10L, 20L), result.getItems());
+        Assertions.assertEquals(List.of(40L), result.getMissing());
+    }
+
+    @Test
+    void byIds_whenTooManyIds_thenThrowException() {
+        Assertions.assertThrows(InvalidPageException.class, () -> pager.byIds(
+                Collections.nCopies(MAX_IDS + 1, 1L), chunk -> List.of(), Function.identity()));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.exceptions.StockConflictException;
+import com.example.trainingspringproject.models.projections.ProductStock;
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticStockEngineTest {
+    private StockEngine engine;
+
+    @Mock
+    private ProductRepository repositoryMock;
+
+    @BeforeEach
+    void init() {
+        engine = new OptimisticStockEngine(repositoryMock, MAX_ATTEMPTS, Duration.ZERO);
+    }
+
+    private static final int MAX_ATTEMPTS = 3;
+    private final Long ID = 1L;
+    private final Integer QUANTITY = 10;
+    private final Long VERSION = 7L;
+    private final Integer DELTA = -4;
+
+    private ProductStock stock(Integer quantity, Long version) {
+        ProductStock stock = mock(ProductStock.class);
+        doReturn(ID).when(stock).getId();
+        doReturn(quantity).when(stock).getQuantity();
+        lenient().doReturn(version).when(stock).getVersion();
+        return stock;
+    }
+
+    @Test
+    void changeQuantities_whenVersionMatches_thenSetNewQuantity() {
+        ProductStock stock = stock(QUANTITY, VERSION);
+
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(new int[]{1}).when(repositoryMock)
+                .compareAndSetQuantities(Map.of(ID, QUANTITY + DELTA), Map.of(ID, VERSION));
+
+        Assertions.assertTrue(engine.changeQuantities(Map.of(ID, DELTA)).isEmpty());
+    }
+
+    @Test
+    void changeQuantities_whenVersionChanged_thenRereadAndRetry() {
+        ProductStock stale = stock(QUANTITY, VERSION);
+        ProductStock fresh = stock(QUANTITY - 1, VERSION + 1);
+
+        doReturn(List.of(stale), List.of(fresh)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(new int[]{0}).when(repositoryMock)
+                .compareAndSetQuantities(Map.of(ID, QUANTITY + DELTA), Map.of(ID, VERSION));
+        doReturn(new int[]{1}).when(repositoryMock)
+                .compareAndSetQuantities(Map.of(ID, QUANTITY - 1 + DELTA), Map.of(ID, VERSION + 1));
+
+        Assertions.assertTrue(engine.changeQuantities(Map.of(ID, DELTA)).isEmpty());
+        verify(repositoryMock, times(2)).compareAndSetQuantities(anyMap(), anyMap());
+    }
+
+    @Test
+    void changeQuantities_whenQuantityGoesNegative_thenRejectWithoutWriting() {
+        ProductStock stock = stock(-DELTA - 1, VERSION);
+
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(new int[0]).when(repositoryMock).compareAndSetQuantities(Map.of(), Map.of());
+
+        Assertions.assertEquals(engine.changeQuantities(Map.of(ID, DELTA)), List.of(ID));
+    }
+
+    @Test
+    void changeQuantities_whenConflictPersists_thenThrowException() {
+        ProductStock stock = stock(QUANTITY, VERSION);
+
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(new int[]{0}).when(repositoryMock)
+                .compareAndSetQuantities(Map.of(ID, QUANTITY + DELTA), Map.of(ID, VERSION));
+
+        Assertions.assertThrows(StockConflictException.class, () -> engine.changeQuantities(Map.of(ID, DELTA)));
+        verify(repositoryMock, times(MAX_ATTEMPTS)).findStockByIdIn(Set.of(ID));
+    }
+
+    @Test
+    void changeQuantities_whenProductNotExist_thenThrowException() {
+        doReturn(Collections.emptyList()).when(repositoryMock).findStockByIdIn(Set.of(ID));
+
+        Assertions.assertThrows(NothingFoundException.class, () -> engine.changeQuantities(Map.of(ID, DELTA)));
+    }
+}
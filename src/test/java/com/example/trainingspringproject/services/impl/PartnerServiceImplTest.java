@@ -1,7 +1,9 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.WarehouseProperties;
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
 import com.example.trainingspringproject.models.dtos.PartnerDto;
 import com.example.trainingspringproject.models.entities.Partner;
 import com.example.trainingspringproject.models.mappers.PartnerMapper;
@@ -32,10 +34,11 @@ class PartnerServiceImplTest {
     private PartnerRepository repositoryMock;
     @Mock
     private PartnerMapper mapperMock;
+    private final KeysetPager pager = new KeysetPager(new WarehouseProperties());
 
     @BeforeEach
     void init() {
-        service = new PartnerServiceImpl(repositoryMock, mapperMock);
+        service = new PartnerServiceImpl(repositoryMock, mapperMock, pager);
         try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
             validator = factory.getValidator();
         }
@@ -181,20 +184,18 @@ class PartnerServiceImplTest {
 
     @Test
     void findAll_whenPartnersExist_thenReturnAllPartners() {
-        List<Partner> entities = Collections.singletonList(new Partner());
         List<PartnerDto> dtos = Collections.singletonList(new PartnerDto());
 
-        doReturn(entities).when(repositoryMock).findAll();
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAll(), dtos);
     }
 
     @Test
     void findAll_whenNoPartnersExist_thenThrowException() {
-        List<Partner> entities = Collections.emptyList();
+        List<PartnerDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAll();
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAll());
     }
@@ -237,41 +238,50 @@ class PartnerServiceImplTest {
 
     @Test
     void findAllByAddressLike_whenPartnersWithAddressExist_thenReturnPartners() {
-        List<Partner> entities = Collections.singletonList(new Partner());
         List<PartnerDto> dtos = Collections.singletonList(new PartnerDto());
 
-        doReturn(entities).when(repositoryMock).findAllByAddressLike(ADDRESS);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByAddressLikeAndIdGreaterThan(ADDRESS, 0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAllByAddressLike(ADDRESS), dtos);
     }
 
     @Test
     void findAllByAddressLike_whenPartnersWithAddressNotExist_thenThrowException() {
-        List<Partner> entities = Collections.emptyList();
+        List<PartnerDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByAddressLike(ADDRESS);
+        doReturn(dtos).when(repositoryMock).findDtosByAddressLikeAndIdGreaterThan(ADDRESS, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByAddressLike(ADDRESS));
     }
 
     @Test
     void findAllByEmailLike_whenPartnersWithEmailExist_thenReturnPartners() {
-        List<Partner> entities = Collections.singletonList(new Partner());
         List<PartnerDto> dtos = Collections.singletonList(new PartnerDto());
 
-        doReturn(entities).when(repositoryMock).findAllByEmailLike(EMAIL);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByEmailLikeAndIdGreaterThan(EMAIL, 0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAllByEmailLike(EMAIL), dtos);
     }
 
     @Test
     void findAllByEmailLike_whenPartnersWithEmailNotExist_thenReturnPartners() {
-        List<Partner> entities = Collections.emptyList();
+        List<PartnerDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByEmailLike(EMAIL);
+        doReturn(dtos).when(repositoryMock).findDtosByEmailLikeAndIdGreaterThan(EMAIL, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByEmailLike(EMAIL));
     }
+
+    @Test
+    void findAllByIds_thenReturnFoundAndReportMissing() {
+        Long missingId = 2L;
+        PartnerDto dto = new PartnerDto(ID, NAME, ADDRESS, EMAIL, REQUISITES);
+
+        doReturn(List.of(dto)).when(repositoryMock).findDtosByIdIn(List.of(missingId, ID));
+
+        BatchDto<PartnerDto> result = service.findAllByIds(List.of(missingId, ID));
+
+        Assertions.assertEquals(List.of(dto), result.getItems());
+        Assertions.assertEquals(List.of(missingId), result.getMissing());
+    }
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.WarehouseProperties;
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.BatchDto;
 import com.example.trainingspringproject.models.dtos.ProducerDto;
 import com.example.trainingspringproject.models.entities.Producer;
 import com.example.trainingspringproject.models.mappers.ProducerMapper;
 import com.example.trainingspringproject.repositories.ProducerRepository;
+import com.example.trainingspringproject.repositories.ProductRepository;
 import com.example.trainingspringproject.services.ProducerService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,10 +35,13 @@ class ProducerServiceImplTest {
     private ProducerRepository repositoryMock;
     @Mock
     private ProducerMapper mapperMock;
+    @Mock
+    private ProductRepository productRepositoryMock;
+    private final KeysetPager pager = new KeysetPager(new WarehouseProperties());
 
     @BeforeEach
     void init() {
-        service = new ProducerServiceImpl(repositoryMock, mapperMock);
+        service = new ProducerServiceImpl(repositoryMock, mapperMock, pager, productRepositoryMock);
         try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
             validator = factory.getValidator();
         }
@@ -83,6 +89,7 @@ class ProducerServiceImplTest {
 
         Assertions.assertTrue(validator.validate(dto).isEmpty());
         verify(repositoryMock, times(1)).save(entity);
+        verify(productRepositoryMock, times(1)).refreshSearchTextByProducerId(entity.getId());
     }
 
     @Test
@@ -152,20 +159,18 @@ class ProducerServiceImplTest {
 
     @Test
     void findAll_whenProducerExist_thenReturnAllProducers() {
-        List<Producer> entities = Collections.singletonList(new Producer());
         List<ProducerDto> dtos = Collections.singletonList(new ProducerDto());
 
-        doReturn(entities).when(repositoryMock).findAll();
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAll(), dtos);
     }
 
     @Test
     void findAll_whenNoProducerExist_thenThrowException() {
-        List<Producer> entities = Collections.emptyList();
+        List<ProducerDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAll();
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAll());
     }
@@ -190,21 +195,31 @@ class ProducerServiceImplTest {
 
     @Test
     void findAllByAddressLike_whenProducersWithAddressExist_whenReturnProducers() {
-        List<Producer> entities = Collections.singletonList(new Producer());
         List<ProducerDto> dtos = Collections.singletonList(new ProducerDto());
 
-        doReturn(entities).when(repositoryMock).findAllByAddressLike(ADDRESS);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByAddressLikeAndIdGreaterThan(ADDRESS, 0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAllByAddressLike(ADDRESS), dtos);
     }
 
     @Test
     void findAllByAddressLike_whenProducersWithAddressNotExits_thenThrowException() {
-        List<Producer> entities = Collections.emptyList();
+        List<ProducerDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByAddressLike(ADDRESS);
+        doReturn(dtos).when(repositoryMock).findDtosByAddressLikeAndIdGreaterThan(ADDRESS, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByAddressLike(ADDRESS));
     }
+
+    @Test
+    void findAllByIds_thenReturnProducersFoundByIdIn() {
+        ProducerDto dto = new ProducerDto(ID, NAME, ADDRESS);
+
+        doReturn(List.of(dto)).when(repositoryMock).findDtosByIdIn(List.of(ID));
+
+        BatchDto<ProducerDto> result = service.findAllByIds(List.of(ID));
+
+        Assertions.assertEquals(List.of(dto), result.getItems());
+        Assertions.assertTrue(result.getMissing().isEmpty());
+    }
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.WarehouseProperties;
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
 import com.example.trainingspringproject.models.dtos.ProductGroupDto;
 import com.example.trainingspringproject.models.entities.ProductGroup;
 import com.example.trainingspringproject.models.mappers.ProductGroupMapper;
 import com.example.trainingspringproject.repositories.ProductGroupRepository;
+import com.example.trainingspringproject.repositories.ProductRepository;
 import com.example.trainingspringproject.services.ProductGroupService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,10 +34,13 @@ class ProductGroupServiceImplTest {
     private ProductGroupRepository repositoryMock;
     @Mock
     private ProductGroupMapper mapperMock;
+    @Mock
+    private ProductRepository productRepositoryMock;
+    private final KeysetPager pager = new KeysetPager(new WarehouseProperties());
 
     @BeforeEach
     void init () {
-        service = new ProductGroupServiceImpl(repositoryMock, mapperMock);
+        service = new ProductGroupServiceImpl(repositoryMock, mapperMock, pager, productRepositoryMock);
         try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
             validator = factory.getValidator();
         }
@@ -81,6 +86,7 @@ class ProductGroupServiceImplTest {
 
         Assertions.assertTrue(validator.validate(dto).isEmpty());
         verify(repositoryMock, times(1)).save(entity);
+        verify(productRepositoryMock, times(1)).refreshSearchTextByGroupId(entity.getId());
     }
 
     @Test
@@ -150,20 +156,18 @@ class ProductGroupServiceImplTest {
 
     @Test
     void findAll_whenGroupsExist_thenReturnAllGroups() {
-        List<ProductGroup> entities = Collections.singletonList(new ProductGroup());
         List<ProductGroupDto> dtos = Collections.singletonList(new ProductGroupDto());
 
-        doReturn(entities).when(repositoryMock).findAll();
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAll(), dtos);
     }
 
     @Test
     void findAll_whenNoGroupExist_thenThrowException() {
-        List<ProductGroup> entities = Collections.emptyList();
+        List<ProductGroupDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAll();
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAll());
     }
@@ -1,25 +1,37 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.CacheConfig;
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.InvalidPageException;
 import com.example.trainingspringproject.exceptions.NotEnoughProductsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.PageDto;
+import com.example.trainingspringproject.models.dtos.ProductAvailabilityDto;
 import com.example.trainingspringproject.models.dtos.ProductDto;
 import com.example.trainingspringproject.models.entities.Product;
 import com.example.trainingspringproject.models.mappers.ProductMapper;
+import com.example.trainingspringproject.models.projections.ProductStock;
 import com.example.trainingspringproject.repositories.ProductRepository;
 import com.example.trainingspringproject.services.ProductService;
+import com.example.trainingspringproject.services.StockEngine;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 
@@ -31,10 +43,15 @@ class ProductServiceImplTest {
     private ProductRepository repositoryMock;
     @Mock
     private ProductMapper mapperMock;
+    @Mock
+    private StockEngine stockEngineMock;
+    private final KeysetPager pager = new KeysetPager(new WarehouseProperties());
 
     @BeforeEach
     void init () {
-        service = new ProductServiceImpl(repositoryMock, mapperMock);
+        WarehouseProperties properties = new WarehouseProperties();
+        service = new ProductServiceImpl(repositoryMock, mapperMock, stockEngineMock, pager,
+                new CacheConfig().cacheManager(properties), properties);
         try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
             validator = factory.getValidator();
         }
@@ -137,131 +154,375 @@ class ProductServiceImplTest {
 
     @Test
     void findAll_whenProductsExist_thenReturnProducts() {
-        List<Product> entities = Collections.singletonList(new Product());
         List<ProductDto> dtos = Collections.singletonList(new ProductDto());
 
-        doReturn(entities).when(repositoryMock).findAll();
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAll(), dtos);
     }
 
     @Test
     void findAll_whenNoProductExist_thenThrowException() {
-        List<Product> entities = Collections.emptyList();
+        List<ProductDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAll();
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAll());
     }
 
+    @Test
+    void findAllPage_whenMoreProductsThanLimit_thenReturnNextCursor() {
+        ProductDto first = new ProductDto();
+        first.setId(ID);
+        ProductDto second = new ProductDto();
+        second.setId(ID + 1);
+
+        doReturn(List.of(first, second)).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.page(1));
+
+        PageDto<ProductDto> page = service.findAll(null, 1);
+
+        Assertions.assertEquals(page.getItems(), List.of(first));
+        Assertions.assertEquals(pager.after(page.getNext()), ID);
+    }
+
+    @Test
+    void findAllPage_whenLastPage_thenReturnNoCursor() {
+        ProductDto dto = new ProductDto();
+        dto.setId(ID);
+
+        doReturn(List.of(dto)).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.page(1));
+
+        PageDto<ProductDto> page = service.findAll(null, 1);
+
+        Assertions.assertEquals(page.getItems(), List.of(dto));
+        Assertions.assertNull(page.getNext());
+    }
+
     @Test
     void findAllByNameLike_whenProductsWithNameExist_thenReturnProducts() {
-        List<Product> entities = Collections.singletonList(new Product());
         List<ProductDto> dtos = Collections.singletonList(new ProductDto());
 
-        doReturn(entities).when(repositoryMock).findAllByNameLike(NAME);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByNameLikeAndIdGreaterThan(NAME, 0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAllByNameLike(NAME), dtos);
     }
 
     @Test
     void findAllByNameLike_whenProductsWithNameNotExist_thenThrowException() {
-        List<Product> entities = Collections.emptyList();
+        List<ProductDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByNameLike(NAME);
+        doReturn(dtos).when(repositoryMock).findDtosByNameLikeAndIdGreaterThan(NAME, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByNameLike(NAME));
     }
 
     @Test
     void findAllByProducerId_whenProductsWithProducerIdExists_thenReturnProducts() {
-        List<Product> entities = Collections.singletonList(new Product());
         List<ProductDto> dtos = Collections.singletonList(new ProductDto());
 
-        doReturn(entities).when(repositoryMock).findAllByProducerId(PRODUCER_ID);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByProducerIdAndIdGreaterThan(PRODUCER_ID, 0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAllByProducerId(PRODUCER_ID), dtos);
     }
 
     @Test
     void findAllByProducerId_whenProductsWithProducerIdNotExist_thenThrowException() {
-        List<Product> entities = Collections.emptyList();
+        List<ProductDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByProducerId(PRODUCER_ID);
+        doReturn(dtos).when(repositoryMock).findDtosByProducerIdAndIdGreaterThan(PRODUCER_ID, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByProducerId(PRODUCER_ID));
     }
 
     @Test
     void findAllByProductGroupId_whenProductsWithGroupIdExist_thenReturnProducts() {
-        List<Product> entities = Collections.singletonList(new Product());
         List<ProductDto> dtos = Collections.singletonList(new ProductDto());
 
-        doReturn(entities).when(repositoryMock).findAllByProductGroupId(GROUP_ID);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByProductGroupIdAndIdGreaterThan(GROUP_ID, 0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAllByProductGroupId(GROUP_ID), dtos);
     }
 
     @Test
     void findAllByProductGroupId_whenProductsWithGroupIdNotExist_thenThrowException() {
-        List<Product> entities = Collections.emptyList();
+        List<ProductDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByProductGroupId(GROUP_ID);
+        doReturn(dtos).when(repositoryMock).findDtosByProductGroupIdAndIdGreaterThan(GROUP_ID, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByProductGroupId(GROUP_ID));
     }
 
     @Test
-    void income_thenIncreaseQuantityAndSaveProduct() {
-        Product entity = new Product();
-        entity.setQuantity(QUANTITY);
+    void income_thenIncreaseQuantityThroughStockEngine() {
+        ProductStock stock = mock(ProductStock.class);
 
-        doReturn(Optional.of(entity)).when(repositoryMock).findById(ID);
+        doReturn(ID).when(stock).getId();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(Collections.emptyList()).when(stockEngineMock).changeQuantities(Map.of(ID, QUANTITY_CHANGE));
 
         service.income(ID, QUANTITY_CHANGE);
 
-        Assertions.assertEquals(entity.getQuantity(), QUANTITY + QUANTITY_CHANGE);
-        verify(repositoryMock, times(1)).save(entity);
+        verify(stockEngineMock, times(1)).changeQuantities(Map.of(ID, QUANTITY_CHANGE));
+        verify(repositoryMock, never()).save(any(Product.class));
     }
 
     @Test
     void income_whenProductWithIdNotExist_thenThrowException() {
-        doReturn(Optional.empty()).when(repositoryMock).findById(ID);
+        doReturn(Collections.emptyList()).when(repositoryMock).findStockByIdIn(Set.of(ID));
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.income(ID, QUANTITY_CHANGE));
     }
 
     @Test
-    void outcome_thenDecreaseQuantityAndSaveProduct() {
-        Product entity = new Product();
-        entity.setQuantity(QUANTITY);
+    void outcome_thenDecreaseQuantityThroughStockEngine() {
+        ProductStock stock = mock(ProductStock.class);
 
-        doReturn(Optional.of(entity)).when(repositoryMock).findById(ID);
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(Collections.emptyList()).when(stockEngineMock).changeQuantities(Map.of(ID, -QUANTITY_CHANGE));
 
         service.outcome(ID, QUANTITY_CHANGE);
 
-        Assertions.assertEquals(entity.getQuantity(), QUANTITY - QUANTITY_CHANGE);
-        verify(repositoryMock, times(1)).save(entity);
+        verify(stockEngineMock, times(1)).changeQuantities(Map.of(ID, -QUANTITY_CHANGE));
+        verify(repositoryMock, never()).save(any(Product.class));
     }
 
     @Test
     void outcome_whenProductWithIdNotExist_thenThrowException() {
-        doReturn(Optional.empty()).when(repositoryMock).findById(ID);
+        doReturn(Collections.emptyList()).when(repositoryMock).findStockByIdIn(Set.of(ID));
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.outcome(ID, QUANTITY_CHANGE));
     }
 
     @Test
     void outcome_whenProductQuantityIsNotEnough_thenThrowException() {
-        Product entity = new Product();
-        entity.setQuantity(QUANTITY);
+        ProductStock stock = mock(ProductStock.class);
 
-        doReturn(Optional.of(entity)).when(repositoryMock).findById(ID);
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
 
         Assertions.assertThrows(NotEnoughProductsException.class, () -> service.outcome(ID, QUANTITY * 2));
+        verify(stockEngineMock, never()).changeQuantities(anyMap());
+    }
+
+    @Test
+    void incomeItems_thenMergeLinesAndChangeQuantitiesInOneBatch() {
+        ProductStock stock = mock(ProductStock.class);
+        List<ItemRequestDto> items = List.of(new ItemRequestDto(ID, QUANTITY_CHANGE), new ItemRequestDto(ID, QUANTITY_CHANGE));
+
+        doReturn(ID).when(stock).getId();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(Collections.emptyList()).when(stockEngineMock).changeQuantities(Map.of(ID, QUANTITY_CHANGE * 2));
+
+        Assertions.assertEquals(service.income(items), Map.of(ID, stock));
+        verify(stockEngineMock, times(1)).changeQuantities(Map.of(ID, QUANTITY_CHANGE * 2));
+        verify(repositoryMock, never()).save(any(Product.class));
+    }
+
+    @Test
+    void outcomeItems_thenMergeLinesAndChangeQuantitiesInOneBatch() {
+        ProductStock stock = mock(ProductStock.class);
+        List<ItemRequestDto> items = List.of(new ItemRequestDto(ID, QUANTITY_CHANGE), new ItemRequestDto(ID, QUANTITY_CHANGE));
+
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(Collections.emptyList()).when(stockEngineMock).changeQuantities(Map.of(ID, -QUANTITY_CHANGE * 2));
+
+        Assertions.assertEquals(service.outcome(items), Map.of(ID, stock));
+        verify(stockEngineMock, times(1)).changeQuantities(Map.of(ID, -QUANTITY_CHANGE * 2));
+    }
+
+    @Test
+    void outcomeItems_whenProductQuantityIsNotEnough_thenThrowExceptionBeforeWriting() {
+        ProductStock stock = mock(ProductStock.class);
+        List<ItemRequestDto> items = List.of(new ItemRequestDto(ID, QUANTITY), new ItemRequestDto(ID, QUANTITY));
+
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+
+        Assertions.assertThrows(NotEnoughProductsException.class, () -> service.outcome(items));
+        verify(stockEngineMock, never()).changeQuantities(anyMap());
+    }
+
+    @Test
+    void outcomeItems_whenQuantityChangedConcurrently_thenThrowException() {
+        ProductStock stock = mock(ProductStock.class);
+        List<ItemRequestDto> items = List.of(new ItemRequestDto(ID, QUANTITY_CHANGE));
+
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(List.of(ID)).when(stockEngineMock).changeQuantities(Map.of(ID, -QUANTITY_CHANGE));
+
+        Assertions.assertThrows(NotEnoughProductsException.class, () -> service.outcome(items));
+    }
+
+    @Test
+    void incomeItems_whenProductWithIdNotExist_thenThrowException() {
+        List<ItemRequestDto> items = List.of(new ItemRequestDto(ID, QUANTITY_CHANGE));
+
+        doReturn(Collections.emptyList()).when(repositoryMock).findStockByIdIn(Set.of(ID));
+
+        Assertions.assertThrows(NothingFoundException.class, () -> service.income(items));
+        verify(stockEngineMock, never()).changeQuantities(anyMap());
+    }
+
+    @Test
+    void changeStock_thenChangeOnlyNonZeroDeltasInOneBatch() {
+        Long otherId = ID + 1;
+        ProductStock stock = mock(ProductStock.class);
+        ProductStock other = mock(ProductStock.class);
+
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(otherId).when(other).getId();
+        doReturn(QUANTITY).when(other).getQuantity();
+        doReturn(List.of(stock, other)).when(repositoryMock).findStockByIdIn(Set.of(ID, otherId));
+        doReturn(Collections.emptyList()).when(stockEngineMock).changeQuantities(Map.of(ID, -QUANTITY_CHANGE));
+
+        Map<Long, ProductStock> products = service.changeStock(List.of(Map.of(ID, -QUANTITY_CHANGE, otherId, 0)));
+
+        Assertions.assertEquals(Map.of(ID, stock, otherId, other), products);
+        verify(stockEngineMock, times(1)).changeQuantities(Map.of(ID, -QUANTITY_CHANGE));
+    }
+
+    @Test
+    void changeStock_whenProductQuantityIsNotEnough_thenThrowExceptionBeforeWriting() {
+        ProductStock stock = mock(ProductStock.class);
+
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+
+        Assertions.assertThrows(NotEnoughProductsException.class,
+                () -> service.changeStock(List.of(Map.of(ID, -QUANTITY - 1))));
+        verify(stockEngineMock, never()).changeQuantities(anyMap());
+    }
+
+    @Test
+    void changeStock_whenLaterIncomeCoversEarlierOutcome_thenThrowExceptionBeforeWriting() {
+        ProductStock stock = mock(ProductStock.class);
+
+        doReturn(ID).when(stock).getId();
+        doReturn(0).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+
+        Assertions.assertThrows(NotEnoughProductsException.class,
+                () -> service.changeStock(List.of(Map.of(ID, -QUANTITY_CHANGE), Map.of(ID, QUANTITY))));
+        verify(stockEngineMock, never()).changeQuantities(anyMap());
+    }
+
+    @Test
+    void changeStock_whenOutcomeFollowedByIncome_thenWriteDeepestOutcomeFirst() {
+        ProductStock stock = mock(ProductStock.class);
+
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY_CHANGE).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(Collections.emptyList()).when(stockEngineMock).changeQuantities(anyMap());
+
+        service.changeStock(List.of(Map.of(ID, -QUANTITY_CHANGE), Map.of(ID, QUANTITY)));
+
+        InOrder inOrder = inOrder(stockEngineMock);
+        inOrder.verify(stockEngineMock).changeQuantities(Map.of(ID, -QUANTITY_CHANGE));
+        inOrder.verify(stockEngineMock).changeQuantities(Map.of(ID, QUANTITY));
+    }
+
+    @Test
+    void search_thenQueryEveryWordAsPrefix() {
+        List<ProductDto> dtos = Collections.singletonList(new ProductDto());
+
+        doReturn(dtos).when(repositoryMock).search("red app-le", "red:* & app:* & le:*", 10);
+
+        Assertions.assertEquals(dtos, service.search("  Red App-le ", null));
+    }
+
+    @Test
+    void search_whenQueryHasNoWords_thenReturnEmptyList() {
+        Assertions.assertTrue(service.search(" ?! ", null).isEmpty());
+        verify(repositoryMock, never()).search(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void search_whenLimitIsTooBig_thenThrowException() {
+        Assertions.assertThrows(InvalidPageException.class, () -> service.search(NAME, 51));
+        verify(repositoryMock, never()).search(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void checkAvailability_thenMergeLinesAndReadStockOnce() {
+        Long otherId = 2L;
+        Long unknownId = 3L;
+        ProductStock stock = mock(ProductStock.class);
+        ProductStock other = mock(ProductStock.class);
+
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(OUTCOME_PRICE).when(stock).getOutcomePrice();
+        doReturn(otherId).when(other).getId();
+        doReturn(1).when(other).getQuantity();
+        doReturn(OUTCOME_PRICE).when(other).getOutcomePrice();
+        doReturn(List.of(stock, other)).when(repositoryMock).findStockByIdIn(Set.of(ID, otherId, unknownId));
+
+        List<ProductAvailabilityDto> result = service.checkAvailability(List.of(
+                new ItemRequestDto(ID, QUANTITY_CHANGE), new ItemRequestDto(otherId, 2),
+                new ItemRequestDto(ID, QUANTITY_CHANGE), new ItemRequestDto(unknownId, 1)));
+
+        Assertions.assertEquals(List.of(
+                new ProductAvailabilityDto(ID, 2 * QUANTITY_CHANGE, QUANTITY, OUTCOME_PRICE, true),
+                new ProductAvailabilityDto(otherId, 2, 1, OUTCOME_PRICE, false),
+                new ProductAvailabilityDto(unknownId, 1, 0, null, false)), result);
+        verify(repositoryMock, times(1)).findStockByIdIn(anyCollection());
+    }
+
+    @Test
+    void checkAvailability_whenSnapshotEnabled_thenReadOnlyMissingProducts() {
+        WarehouseProperties properties = new WarehouseProperties();
+        properties.getAvailability().setSnapshotTtl(Duration.ofSeconds(5));
+        service = new ProductServiceImpl(repositoryMock, mapperMock, stockEngineMock, pager,
+                new CacheConfig().cacheManager(properties), properties);
+        Long otherId = 2L;
+        ProductStock stock = mock(ProductStock.class);
+
+        doReturn(ID).when(stock).getId();
+        doReturn(QUANTITY).when(stock).getQuantity();
+        doReturn(List.of(stock)).when(repositoryMock).findStockByIdIn(Set.of(ID));
+        doReturn(Collections.emptyList()).when(repositoryMock).findStockByIdIn(Set.of(otherId));
+
+        service.checkAvailability(List.of(new ItemRequestDto(ID, QUANTITY)));
+        List<ProductAvailabilityDto> result = service.checkAvailability(List.of(
+                new ItemRequestDto(ID, QUANTITY), new ItemRequestDto(otherId, 1)));
+
+        Assertions.assertTrue(result.get(0).isCanFulfil());
+        Assertions.assertFalse(result.get(1).isCanFulfil());
+        verify(repositoryMock, times(1)).findStockByIdIn(Set.of(ID));
+        verify(repositoryMock, times(1)).findStockByIdIn(Set.of(otherId));
+    }
+
+    @Test
+    void checkAvailability_whenSnapshotDisabled_thenReadStockEveryTime() {
+        WarehouseProperties properties = new WarehouseProperties();
+        properties.getAvailability().setSnapshotTtl(Duration.ZERO);
+        service = new ProductServiceImpl(repositoryMock, mapperMock, stockEngineMock, pager,
+                new CacheConfig().cacheManager(properties), properties);
+
+        doReturn(Collections.emptyList()).when(repositoryMock).findStockByIdIn(Set.of(ID));
+
+        service.checkAvailability(List.of(new ItemRequestDto(ID, QUANTITY)));
+        service.checkAvailability(List.of(new ItemRequestDto(ID, QUANTITY)));
+
+        verify(repositoryMock, times(2)).findStockByIdIn(Set.of(ID));
+    }
+
+    @Test
+    void checkAvailability_whenTooManyProducts_thenThrowException() {
+        List<ItemRequestDto> items = Collections.nCopies(201, new ItemRequestDto(ID, 1));
+
+        Assertions.assertThrows(InvalidPageException.class, () -> service.checkAvailability(items));
+        verify(repositoryMock, never()).findStockByIdIn(anyCollection());
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.config.WarehouseProperties;
+import com.example.trainingspringproject.exceptions.InvalidDateRangeException;
+import com.example.trainingspringproject.models.dtos.ItemRequestDto;
+import com.example.trainingspringproject.models.dtos.RebuildReportDto;
+import com.example.trainingspringproject.models.entities.Invoice;
+import com.example.trainingspringproject.models.entities.Partner;
+import com.example.trainingspringproject.models.enums.ReportDimension;
+import com.example.trainingspringproject.models.enums.ReportPeriod;
+import com.example.trainingspringproject.models.enums.TransactionType;
+import com.example.trainingspringproject.repositories.DailySalesRepository;
+import com.example.trainingspringproject.repositories.DailySalesRepository.Delta;
+import com.example.trainingspringproject.services.SalesReportService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesReportServiceImplTest {
+    private SalesReportService service;
+
+    @Mock
+    private DailySalesRepository repositoryMock;
+    @Mock
+    private TransactionTemplate transactionTemplateMock;
+
+    private final LocalDate DAY = LocalDate.of(2022, 3, 1);
+    private final Long PARTNER_ID = 2L;
+    private final Long PRODUCT_ID = 3L;
+    private final Long OTHER_PRODUCT_ID = 1L;
+
+    @BeforeEach
+    void init() {
+        WarehouseProperties properties = new WarehouseProperties();
+        properties.getReports().setRebuildChunkDays(10);
+        service = new SalesReportServiceImpl(repositoryMock, transactionTemplateMock,
+                new TaskExecutorAdapter(Runnable::run), properties);
+    }
+
+    @Test
+    void add_thenLinesMergedByKeyAndOrderedByProduct() {
+        Invoice income = invoice(1L, TransactionType.INCOME);
+        Invoice outcome = invoice(2L, TransactionType.OUTCOME);
+        List<Collection<Delta>> added = new ArrayList<>();
+        doAnswer(invocation -> added.add(new ArrayList<>(invocation.<Collection<Delta>>getArgument(0))))
+                .when(repositoryMock).add(anyCollection());
+
+        service.add(List.of(income, outcome),
+                Map.of(1L, List.of(new ItemRequestDto(PRODUCT_ID, 2), new ItemRequestDto(OTHER_PRODUCT_ID, 1)),
+                        2L, List.of(new ItemRequestDto(PRODUCT_ID, 3))),
+                Map.of(1L, Map.of(PRODUCT_ID, 10.0, OTHER_PRODUCT_ID, 5.0), 2L, Map.of(PRODUCT_ID, 15.0)),
+                Map.of(PRODUCT_ID, 10.0, OTHER_PRODUCT_ID, 5.0));
+
+        Assertions.assertEquals(List.of(List.of(
+                new Delta(DAY, PARTNER_ID, OTHER_PRODUCT_ID, 1, 5.0, 0, 0.0, 0.0),
+                new Delta(DAY, PARTNER_ID, PRODUCT_ID, 2, 20.0, 3, 45.0, 30.0))), added);
+    }
+
+    @Test
+    void remove_thenSubtractInvoice() {
+        service.remove(1L);
+
+        verify(repositoryMock, times(1)).subtractInvoice(1L);
+    }
+
+    @Test
+    void report_whenRangeIsInvalid_thenThrowException() {
+        Assertions.assertThrows(InvalidDateRangeException.class,
+                () -> service.report(ReportDimension.PRODUCT, ReportPeriod.DAY, DAY, DAY.minusDays(1)));
+        verifyNoInteractions(repositoryMock);
+    }
+
+    @Test
+    void rebuild_whenRangeNotGiven_thenWholeInvoicePeriodRebuiltInChunks() {
+        doReturn(Arrays.asList(DAY, DAY.plusDays(24))).when(repositoryMock).findInvoiceDateRange();
+        doAnswer(invocation -> invocation.<TransactionCallback<Long>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplateMock).execute(any());
+        doReturn(5L).when(repositoryMock).rebuild(any(), any());
+
+        RebuildReportDto report = service.rebuild(null, null);
+
+        Assertions.assertEquals(new RebuildReportDto(DAY, DAY.plusDays(24), 3, 15L), report);
+        verify(repositoryMock, times(1)).rebuild(DAY, DAY.plusDays(9));
+        verify(repositoryMock, times(1)).rebuild(DAY.plusDays(10), DAY.plusDays(19));
+        verify(repositoryMock, times(1)).rebuild(DAY.plusDays(20), DAY.plusDays(24));
+    }
+
+    @Test
+    void rebuild_whenNoInvoices_thenNothingRebuilt() {
+        doReturn(Arrays.asList(null, null)).when(repositoryMock).findInvoiceDateRange();
+
+        Assertions.assertEquals(0L, service.rebuild(null, null).getRows());
+        verify(repositoryMock, never()).rebuild(any(), any());
+    }
+
+    private Invoice invoice(Long id, TransactionType type) {
+        Partner partner = new Partner();
+        partner.setId(PARTNER_ID);
+        Invoice invoice = new Invoice();
+        invoice.setId(id);
+        invoice.setType(type);
+        invoice.setDate(DAY);
+        invoice.setPartner(partner);
+        return invoice;
+    }
+}
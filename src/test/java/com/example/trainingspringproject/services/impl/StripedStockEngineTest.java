@@ -0,0 +1,77 @@
+package com.example.trainingspringproject.services.impl;
+
+import com.example.trainingspringproject.repositories.ProductRepository;
+import com.example.trainingspringproject.services.StockEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripedStockEngineTest {
+    private StripedStockEngine engine;
+
+    @Mock
+    private StockEngine delegateMock;
+    @Mock
+    private ProductRepository repositoryMock;
+
+    private final Long FIRST_ID = 1L;
+    private final Long STRIPED_ID = 2L;
+    private final Long THIRD_ID = 3L;
+    private final Integer DELTA = -5;
+    private final int STRIPES = 4;
+
+    @BeforeEach
+    void init() {
+        engine = new StripedStockEngine(delegateMock, repositoryMock, Set.of(STRIPED_ID), STRIPES);
+    }
+
+    @Test
+    void changeQuantities_thenChangeProductsInIdOrder() {
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(THIRD_ID, DELTA);
+        deltas.put(STRIPED_ID, DELTA);
+        deltas.put(FIRST_ID, DELTA);
+
+        doReturn(Collections.emptyList()).when(delegateMock).changeQuantities(anyMap());
+        doReturn(true).when(repositoryMock).changeStripeQuantity(eq(STRIPED_ID), anyInt(), eq(DELTA));
+
+        Assertions.assertTrue(engine.changeQuantities(deltas).isEmpty());
+
+        InOrder inOrder = inOrder(delegateMock, repositoryMock);
+        inOrder.verify(delegateMock).changeQuantities(Map.of(FIRST_ID, DELTA));
+        inOrder.verify(repositoryMock).changeStripeQuantity(eq(STRIPED_ID), anyInt(), eq(DELTA));
+        inOrder.verify(delegateMock).changeQuantities(Map.of(THIRD_ID, DELTA));
+    }
+
+    @Test
+    void changeQuantities_whenNoStripeHasEnough_thenTryStripesInOrderAndDrain() {
+        int own = (int) Math.floorMod(Thread.currentThread().getId(), (long) STRIPES);
+
+        doReturn(false).when(repositoryMock).changeStripeQuantity(eq(STRIPED_ID), anyInt(), eq(DELTA));
+        doReturn(Map.of(0, 1, 1, 1, 2, 1, 3, 1)).when(repositoryMock).lockStripes(STRIPED_ID);
+
+        Assertions.assertEquals(List.of(STRIPED_ID), engine.changeQuantities(Map.of(STRIPED_ID, DELTA)));
+
+        InOrder inOrder = inOrder(repositoryMock);
+        inOrder.verify(repositoryMock).changeStripeQuantity(STRIPED_ID, own, DELTA);
+        for (int stripe = 0; stripe < STRIPES; stripe++)
+            if (stripe != own)
+                inOrder.verify(repositoryMock).changeStripeQuantity(STRIPED_ID, stripe, DELTA);
+        inOrder.verify(repositoryMock).lockStripes(STRIPED_ID);
+        verify(repositoryMock, never()).setStripeQuantities(anyLong(), anyMap());
+        verifyNoInteractions(delegateMock);
+    }
+}
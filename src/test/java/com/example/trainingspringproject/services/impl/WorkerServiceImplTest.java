@@ -1,5 +1,6 @@
 package com.example.trainingspringproject.services.impl;
 
+import com.example.trainingspringproject.config.WarehouseProperties;
 import com.example.trainingspringproject.exceptions.AlreadyExistsException;
 import com.example.trainingspringproject.exceptions.NothingFoundException;
 import com.example.trainingspringproject.models.dtos.WorkerDto;
@@ -31,10 +32,11 @@ class WorkerServiceImplTest {
     private WorkerRepository repositoryMock;
     @Mock
     private WorkerMapper mapperMock;
+    private final KeysetPager pager = new KeysetPager(new WarehouseProperties());
 
     @BeforeEach
     void init() {
-        service = new WorkerServiceImpl(repositoryMock, mapperMock);
+        service = new WorkerServiceImpl(repositoryMock, mapperMock, pager);
         try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
             validator = factory.getValidator();
         }
@@ -151,20 +153,18 @@ class WorkerServiceImplTest {
 
     @Test
     void findAll_whenWorkersExist_thenReturnAllWorkers() {
-        List<Worker> entities = Collections.singletonList(new Worker());
         List<WorkerDto> dtos = Collections.singletonList(new WorkerDto());
 
-        doReturn(entities).when(repositoryMock).findAll();
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAll(), dtos);
     }
 
     @Test
     void findAll_whenNoWorkersExist_thenThrowException() {
-        List<Worker> entities = Collections.emptyList();
+        List<WorkerDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAll();
+        doReturn(dtos).when(repositoryMock).findDtosByIdGreaterThan(0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAll());
     }
@@ -189,20 +189,18 @@ class WorkerServiceImplTest {
 
     @Test
     void findAllByJob_whenWorkersWithJobExist_thenReturnWorkers() {
-        List<Worker> entities = Collections.singletonList(new Worker());
         List<WorkerDto> dtos = Collections.singletonList(new WorkerDto());
 
-        doReturn(entities).when(repositoryMock).findAllByJob(JOB);
-        doReturn(dtos).when(mapperMock).entityToDto(entities);
+        doReturn(dtos).when(repositoryMock).findDtosByJobAndIdGreaterThan(JOB, 0L, pager.unpaged());
 
         Assertions.assertEquals(service.findAllByJob(JOB), dtos);
     }
 
     @Test
     void findAllByJob_whenWorkersWithJobNotExist_thenThrowException() {
-        List<Worker> entities = Collections.emptyList();
+        List<WorkerDto> dtos = Collections.emptyList();
 
-        doReturn(entities).when(repositoryMock).findAllByJob(JOB);
+        doReturn(dtos).when(repositoryMock).findDtosByJobAndIdGreaterThan(JOB, 0L, pager.unpaged());
 
         Assertions.assertThrows(NothingFoundException.class, () -> service.findAllByJob(JOB));
     }